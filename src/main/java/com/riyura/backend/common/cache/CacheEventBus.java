@@ -0,0 +1,96 @@
+package com.riyura.backend.common.cache;
+
+import com.riyura.backend.common.port.CacheStorePort;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Cross-node cache coordination over the {@link CacheStorePort} broadcast
+ * channel (Redis pub/sub in production). Every node publishes
+ * an event when it rewrites or evicts a guarded key so peers can drop their
+ * {@link NearCache} copy, and when it finishes a fill so peers parked in
+ * {@link CacheFillRegistry} can re-read the key. Messages carry the origin
+ * node id and are ignored by the node that sent them.
+ */
+@Slf4j
+@Component
+public class CacheEventBus {
+
+    private static final String ALL_KEYS = "*";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final CacheStorePort cacheStore;
+    private final NearCache nearCache;
+    private final CacheFillRegistry fillRegistry;
+
+    public CacheEventBus(CacheStorePort cacheStore, NearCache nearCache, CacheFillRegistry fillRegistry) {
+        this.cacheStore = cacheStore;
+        this.nearCache = nearCache;
+        this.fillRegistry = fillRegistry;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        cacheStore.subscribe(this::onEvent);
+    }
+
+    // Tell peers that a key was recomputed or evicted
+    public void publishInvalidation(String key) {
+        publish(EventType.INVALIDATE, key);
+    }
+
+    // Tell peers a recompute attempt for the key finished; implies invalidation
+    public void publishFilled(String key) {
+        publish(EventType.FILLED, key);
+    }
+
+    // Tell peers to drop every near-cache entry (e.g. after a bulk Redis delete)
+    public void publishInvalidateAll() {
+        publish(EventType.INVALIDATE, ALL_KEYS);
+    }
+
+    private void publish(EventType type, String key) {
+        try {
+            cacheStore.publish(type.name() + '|' + nodeId + '|' + key);
+        } catch (Exception e) {
+            // Peers fall back to the near-cache max TTL when a message is lost
+            log.warn("CacheEventBus: failed to publish {} for '{}': {}", type, key, e.getMessage());
+        }
+    }
+
+    void onEvent(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length < 3 || nodeId.equals(parts[1]))
+            return;
+
+        EventType type;
+        try {
+            type = EventType.valueOf(parts[0]);
+        } catch (IllegalArgumentException e) {
+            log.debug("CacheEventBus: ignoring unknown event '{}'", parts[0]);
+            return;
+        }
+
+        String key = parts[2];
+        switch (type) {
+            case INVALIDATE -> {
+                if (ALL_KEYS.equals(key))
+                    nearCache.invalidateAll();
+                else
+                    nearCache.invalidate(key);
+            }
+            case FILLED -> {
+                nearCache.invalidate(key);
+                fillRegistry.signal(key);
+            }
+        }
+    }
+
+    enum EventType {
+        INVALIDATE,
+        FILLED
+    }
+}
@@ -0,0 +1,75 @@
+package com.riyura.backend.common.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-key wait points for cold misses. Callers that lose the recompute lock
+ * park on a future here instead of polling Redis; the future is completed
+ * when this JVM finishes loading the key or when a peer announces the fill
+ * over {@link CacheEventBus}. Keys loaded by this JVM are tracked so local
+ * callers can skip Redis entirely while the load is in flight.
+ * <p>
+ * Every waiter of a key shares one future, and the registry counts them: a
+ * waiter whose deadline passes only leaves, and the future is dropped when
+ * the last waiter has gone, so callers still parked on it keep receiving the
+ * fill signal.
+ */
+@Component
+public class CacheFillRegistry {
+
+    private final ConcurrentHashMap<String, Pending> pendingFills = new ConcurrentHashMap<>();
+    private final Set<String> localLoads = ConcurrentHashMap.newKeySet();
+
+    public boolean isLoadingLocally(String key) {
+        return localLoads.contains(key);
+    }
+
+    public void beginLocalLoad(String key) {
+        localLoads.add(key);
+    }
+
+    // Local load finished (with or without a value) — wake every local waiter
+    public void endLocalLoad(String key) {
+        localLoads.remove(key);
+        signal(key);
+    }
+
+    // Future completed on the next fill of the key; shared by all waiters of that key. Pair with leave()
+    public CompletableFuture<Void> register(String key) {
+        return pendingFills.compute(key, (k, pending) -> {
+            Pending joined = pending != null ? pending : new Pending();
+            joined.waiters++;
+            return joined;
+        }).fill;
+    }
+
+    public void signal(String key) {
+        Pending pending = pendingFills.remove(key);
+        if (pending != null)
+            pending.fill.complete(null);
+    }
+
+    // A waiter is done with the future, filled or not; the entry goes once nobody is left on it
+    public void leave(String key, CompletableFuture<Void> fill) {
+        pendingFills.computeIfPresent(key, (k, pending) -> {
+            if (pending.fill != fill)
+                return pending;
+            return --pending.waiters == 0 ? null : pending;
+        });
+    }
+
+    int pendingKeys() {
+        return pendingFills.size();
+    }
+
+    // Waiter count is only touched inside compute, under the map's per-key lock
+    private static final class Pending {
+
+        private final CompletableFuture<Void> fill = new CompletableFuture<>();
+        private int waiters;
+    }
+}
@@ -0,0 +1,217 @@
+package com.riyura.backend.common.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-namespace Micrometer meters for {@code CacheStampedeGuard}. The
+ * namespace is the key prefix ({@code movieDetails}, {@code explore}, ...),
+ * so cardinality stays bounded by the number of cache families. Meters are
+ * built once per namespace and strategy and reused on the hot path.
+ */
+@Component
+public class CacheGuardMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public CacheGuardMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Meters of(String key, Strategy strategy) {
+        String namespace = CacheKeys.namespace(key);
+        return meters.computeIfAbsent(namespace + '|' + strategy.tag,
+                id -> new Meters(meterRegistry, Tags.of("namespace", namespace, "strategy", strategy.tag)));
+    }
+
+    public enum Strategy {
+        XFETCH("xfetch"),
+        SWR("swr");
+
+        private final String tag;
+
+        Strategy(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    public enum Tier {
+        NEAR, REDIS
+    }
+
+    public static final class Meters {
+
+        private final Counter nearHits;
+        private final Counter redisHits;
+        private final Counter misses;
+        private final Counter nearNegativeHits;
+        private final Counter redisNegativeHits;
+        private final Counter negativeStores;
+        private final Counter staleServed;
+        private final Counter earlyRecomputes;
+        private final Counter backgroundRefreshes;
+        private final Counter refreshesAhead;
+        private final Counter lockContention;
+        private final Counter leasesLost;
+        private final Counter writesFenced;
+        private final Counter refreshesUnchanged;
+        private final Counter refreshesChanged;
+        private final DistributionSummary ttlFactor;
+        private final Counter schemaAdopted;
+        private final Counter schemaIncompatible;
+        private final Counter fillWaitsFilled;
+        private final Counter fillWaitsTimedOut;
+        private final Counter loaderExceptions;
+        private final Counter loaderEmpty;
+        private final Timer loaderLatency;
+        private final Timer fillWaitTime;
+
+        private Meters(MeterRegistry registry, Tags tags) {
+            this.nearHits = counter(registry, "cache.guard.hits", "Guarded lookups answered from cache",
+                    tags.and("tier", "near"));
+            this.redisHits = counter(registry, "cache.guard.hits", "Guarded lookups answered from cache",
+                    tags.and("tier", "redis"));
+            this.misses = counter(registry, "cache.guard.misses", "Guarded lookups that found no value", tags);
+            this.nearNegativeHits = counter(registry, "cache.guard.negative.hits",
+                    "Guarded lookups answered by a cached not-found marker", tags.and("tier", "near"));
+            this.redisNegativeHits = counter(registry, "cache.guard.negative.hits",
+                    "Guarded lookups answered by a cached not-found marker", tags.and("tier", "redis"));
+            this.negativeStores = counter(registry, "cache.guard.negative.stores",
+                    "Not-found markers written after the loader reported a missing value", tags);
+            this.staleServed = counter(registry, "cache.guard.stale.served",
+                    "Lookups answered from the last-known-good tier after the loader failed", tags);
+            this.earlyRecomputes = counter(registry, "cache.guard.early.recomputes",
+                    "XFetch recomputes triggered before expiry", tags);
+            this.backgroundRefreshes = counter(registry, "cache.guard.background.refreshes",
+                    "SWR refreshes scheduled for stale values", tags);
+            this.refreshesAhead = counter(registry, "cache.guard.refresh.ahead",
+                    "Hot keys reloaded in the background before they expired", tags);
+            this.lockContention = counter(registry, "cache.guard.lock.contention",
+                    "Cold misses that lost the recompute lease", tags);
+            this.leasesLost = counter(registry, "cache.guard.lease.lost",
+                    "Leases taken over by another caller while the loader was still running", tags);
+            this.writesFenced = counter(registry, "cache.guard.lease.fenced",
+                    "Leased writes refused because a newer value or lease holder exists", tags);
+            this.refreshesUnchanged = counter(registry, "cache.guard.refresh",
+                    "Recomputes of a cached value, by whether the value changed", tags.and("outcome", "unchanged"));
+            this.refreshesChanged = counter(registry, "cache.guard.refresh",
+                    "Recomputes of a cached value, by whether the value changed", tags.and("outcome", "changed"));
+            this.ttlFactor = DistributionSummary.builder("cache.guard.ttl.factor")
+                    .description("Adaptive TTL multiplier applied on each write")
+                    .tags(tags)
+                    .register(registry);
+            this.schemaAdopted = counter(registry, "cache.guard.schema.adoptions",
+                    "Cold misses answered from the previous schema version's entry", tags.and("outcome", "adopted"));
+            this.schemaIncompatible = counter(registry, "cache.guard.schema.adoptions",
+                    "Cold misses answered from the previous schema version's entry",
+                    tags.and("outcome", "incompatible"));
+            this.fillWaitsFilled = counter(registry, "cache.guard.fill.waits",
+                    "Waits for another caller's fill", tags.and("outcome", "filled"));
+            this.fillWaitsTimedOut = counter(registry, "cache.guard.fill.waits",
+                    "Waits for another caller's fill", tags.and("outcome", "timed_out"));
+            this.loaderExceptions = counter(registry, "cache.guard.loader.failures",
+                    "Loader calls that threw or produced no value", tags.and("reason", "exception"));
+            this.loaderEmpty = counter(registry, "cache.guard.loader.failures",
+                    "Loader calls that threw or produced no value", tags.and("reason", "empty"));
+            this.loaderLatency = Timer.builder("cache.guard.loader")
+                    .description("Loader (recompute) latency")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(registry);
+            this.fillWaitTime = Timer.builder("cache.guard.fill.wait")
+                    .description("Time spent parked waiting for another caller's fill")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(registry);
+        }
+
+        private static Counter counter(MeterRegistry registry, String name, String description, Tags tags) {
+            return Counter.builder(name).description(description).tags(tags).register(registry);
+        }
+
+        public void hit(Tier tier) {
+            (tier == Tier.NEAR ? nearHits : redisHits).increment();
+        }
+
+        public void miss() {
+            misses.increment();
+        }
+
+        public void negativeHit(Tier tier) {
+            (tier == Tier.NEAR ? nearNegativeHits : redisNegativeHits).increment();
+        }
+
+        public void negativeStored() {
+            negativeStores.increment();
+        }
+
+        public void staleServed() {
+            staleServed.increment();
+        }
+
+        public void earlyRecompute() {
+            earlyRecomputes.increment();
+        }
+
+        public void backgroundRefresh() {
+            backgroundRefreshes.increment();
+        }
+
+        public void refreshAhead() {
+            refreshesAhead.increment();
+        }
+
+        public void lockContended() {
+            lockContention.increment();
+        }
+
+        public void leaseLost() {
+            leasesLost.increment();
+        }
+
+        public void writeFenced() {
+            writesFenced.increment();
+        }
+
+        public void refreshed(boolean unchanged) {
+            (unchanged ? refreshesUnchanged : refreshesChanged).increment();
+        }
+
+        public void ttlFactor(double factor) {
+            ttlFactor.record(factor);
+        }
+
+        public void schemaAdoption(boolean adopted) {
+            (adopted ? schemaAdopted : schemaIncompatible).increment();
+        }
+
+        // One parked wait; timed-out and interrupted waits both fall back to the loader
+        public void fillWait(long nanos, boolean filled) {
+            fillWaitTime.record(Duration.ofNanos(nanos));
+            (filled ? fillWaitsFilled : fillWaitsTimedOut).increment();
+        }
+
+        public void loaderCompleted(long nanos, boolean empty) {
+            loaderLatency.record(Duration.ofNanos(nanos));
+            if (empty)
+                loaderEmpty.increment();
+        }
+
+        public void loaderFailed(long nanos) {
+            loaderLatency.record(Duration.ofNanos(nanos));
+            loaderExceptions.increment();
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.riyura.backend.common.cache;
+
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+import io.lettuce.core.codec.ByteArrayCodec;
+import jakarta.annotation.PreDestroy;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keyspace statistics for the cache monitor, read one SCAN page at a time.
+ * For every key a page returns, TYPE, PTTL and MEMORY USAGE (plus the
+ * envelope metadata of guarded entries) are issued back to back on a
+ * dedicated Lettuce connection, so a page costs two round trips however many
+ * keys it holds, and nothing ever waits on a per-key reply. Pages are
+ * addressed by an opaque cursor ({@code "0"} to start and when done); on
+ * Redis Cluster the masters are walked one after another and the cursor
+ * names the master it continues on.
+ * <p>
+ * The keyspace {@link Summary} (key counts and bytes per namespace) is
+ * aggregated page by page, without holding the key set in memory, and cached
+ * for {@link #SUMMARY_TTL}: callers arriving while it is being rebuilt get
+ * the previous summary instead of starting another walk.
+ */
+@Component
+public class CacheKeyStats {
+
+    public static final String START = "0";
+    static final Duration SUMMARY_TTL = Duration.ofSeconds(30);
+
+    private static final int SUMMARY_SCAN_COUNT = 500;
+    private static final String LAST_KNOWN_GOOD_SUFFIX = ":lkg";
+
+    private final LettuceConnectionFactory connectionFactory;
+    private final ReentrantLock summaryLock = new ReentrantLock();
+    private volatile Summary summary;
+
+    // Opened on first use, apart from the guard's async connection so monitor scans never queue behind it
+    private volatile StatefulConnection<byte[], byte[]> connection;
+    private volatile RedisClusterAsyncCommands<byte[], byte[]> commands;
+
+    public CacheKeyStats(LettuceConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * One page of keys matching {@code pattern} with their type, TTL and
+     * memory footprint. {@code count} is a SCAN hint: a page may hold fewer
+     * keys (even none) without the walk being over.
+     */
+    public Page page(String cursor, String pattern, int count) {
+        Position position = Position.parse(cursor);
+        List<String> masters = masters();
+        if (position.node >= masters.size())
+            return new Page(List.of(), START);
+
+        KeyScanCursor<byte[]> scanned = await(scan(masters, position, pattern, count));
+        List<byte[]> rawKeys = scanned.getKeys();
+        RedisClusterAsyncCommands<byte[], byte[]> async = async();
+        List<CompletableFuture<KeyStats>> pending = new ArrayList<>(rawKeys.size());
+        for (byte[] rawKey : rawKeys)
+            pending.add(describe(async, rawKey));
+        await(CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)));
+
+        List<KeyStats> keys = new ArrayList<>(pending.size());
+        pending.forEach(future -> keys.add(future.join()));
+        return new Page(keys, position.next(scanned, masters.size()));
+    }
+
+    // Cached keyspace summary, rebuilt at most once per SUMMARY_TTL
+    public Summary summary() {
+        Summary cached = summary;
+        if (cached != null && !cached.isOlderThan(SUMMARY_TTL))
+            return cached;
+        // Someone is already rebuilding it; the previous summary is good enough meanwhile
+        if (cached != null && !summaryLock.tryLock())
+            return cached;
+        if (cached == null)
+            summaryLock.lock();
+        try {
+            cached = summary;
+            if (cached == null || cached.isOlderThan(SUMMARY_TTL)) {
+                cached = aggregate();
+                summary = cached;
+            }
+            return cached;
+        } finally {
+            summaryLock.unlock();
+        }
+    }
+
+    // Walks the whole keyspace, keeping only the running totals; MEMORY USAGE is pipelined per page
+    private Summary aggregate() {
+        long startedAt = System.currentTimeMillis();
+        Map<String, Tally> tallies = new HashMap<>();
+        List<String> masters = masters();
+        RedisClusterAsyncCommands<byte[], byte[]> async = async();
+        String cursor = START;
+        do {
+            Position position = Position.parse(cursor);
+            KeyScanCursor<byte[]> scanned = await(scan(masters, position, "*", SUMMARY_SCAN_COUNT));
+            List<CompletableFuture<Long>> sizes = new ArrayList<>(scanned.getKeys().size());
+            for (byte[] rawKey : scanned.getKeys())
+                sizes.add(memoryUsage(async, rawKey));
+            await(CompletableFuture.allOf(sizes.toArray(CompletableFuture[]::new)));
+            for (int i = 0; i < sizes.size(); i++) {
+                String key = new String(scanned.getKeys().get(i), StandardCharsets.UTF_8);
+                tallies.computeIfAbsent(CacheKeys.namespace(key), ns -> new Tally())
+                        .add(isAuxiliary(key), Math.max(0, sizes.get(i).join()));
+            }
+            cursor = position.next(scanned, masters.size());
+        } while (!START.equals(cursor));
+
+        Map<String, NamespaceStats> namespaces = new TreeMap<>();
+        long keys = 0;
+        long auxKeys = 0;
+        long bytes = 0;
+        for (Map.Entry<String, Tally> tally : tallies.entrySet()) {
+            Tally t = tally.getValue();
+            namespaces.put(tally.getKey(), new NamespaceStats(t.keys, t.auxKeys, t.bytes));
+            keys += t.keys;
+            auxKeys += t.auxKeys;
+            bytes += t.bytes;
+        }
+        return new Summary(Instant.ofEpochMilli(startedAt), System.currentTimeMillis() - startedAt, keys, auxKeys,
+                bytes, namespaces);
+    }
+
+    // Last-known-good copies and the side keys of pre-envelope entries
+    public static boolean isAuxiliary(String key) {
+        if (key.endsWith(LAST_KNOWN_GOOD_SUFFIX))
+            return true;
+        for (String suffix : RedisCacheStore.LEGACY_SUFFIXES) {
+            if (key.endsWith(suffix))
+                return true;
+        }
+        return false;
+    }
+
+    private CompletableFuture<KeyScanCursor<byte[]>> scan(List<String> masters, Position position, String pattern,
+            int count) {
+        ScanArgs args = ScanArgs.Builder.matches(pattern).limit(Math.max(1, count));
+        ScanCursor cursor = ScanCursor.of(position.cursor);
+        if (connection() instanceof StatefulRedisClusterConnection<byte[], byte[]> cluster)
+            return cluster.getConnection(masters.get(position.node)).async().scan(cursor, args).toCompletableFuture();
+        return async().scan(cursor, args).toCompletableFuture();
+    }
+
+    private CompletableFuture<KeyStats> describe(RedisClusterAsyncCommands<byte[], byte[]> async, byte[] rawKey) {
+        String key = new String(rawKey, StandardCharsets.UTF_8);
+        CompletableFuture<String> type = async.type(rawKey).toCompletableFuture().exceptionally(e -> null);
+        CompletableFuture<Long> pttl = async.pttl(rawKey).toCompletableFuture().exceptionally(e -> -2L);
+        CompletableFuture<Long> size = memoryUsage(async, rawKey);
+        // Guarded entries are hashes under "{<logical key>}"; other types just fail the HMGET
+        CompletableFuture<RedisCacheStore.Envelope> envelope = CompletableFuture.completedFuture(null);
+        if (key.equals(CacheKeys.entry(CacheKeys.logical(key)))) {
+            CompletableFuture<List<KeyValue<byte[], byte[]>>> meta = async.hmget(rawKey, RedisCacheStore.META_FIELDS)
+                    .toCompletableFuture().exceptionally(e -> null);
+            CompletableFuture<Long> valueBytes = async.hstrlen(rawKey, RedisCacheStore.VALUE).toCompletableFuture()
+                    .exceptionally(e -> 0L);
+            envelope = meta.thenCombine(valueBytes, CacheKeyStats::toEnvelope);
+        }
+        CompletableFuture<RedisCacheStore.Envelope> envelopeFuture = envelope;
+        return CompletableFuture.allOf(type, pttl, size, envelopeFuture).thenApply(ignored -> new KeyStats(key,
+                type.join(), pttl.join(), size.join(), envelopeFuture.join()));
+    }
+
+    // Bytes the key takes in Redis, or -1 where MEMORY USAGE is unavailable (some managed Redis offerings)
+    private static CompletableFuture<Long> memoryUsage(RedisClusterAsyncCommands<byte[], byte[]> async,
+            byte[] rawKey) {
+        return async.memoryUsage(rawKey).toCompletableFuture()
+                .thenApply(bytes -> bytes != null ? bytes : -1L)
+                .exceptionally(e -> -1L);
+    }
+
+    private static RedisCacheStore.Envelope toEnvelope(List<KeyValue<byte[], byte[]>> meta, Long valueBytes) {
+        if (meta == null || meta.isEmpty() || !meta.get(0).hasValue())
+            return null;
+        List<byte[]> fields = new ArrayList<>(meta.size());
+        meta.forEach(field -> fields.add(field.getValueOrElse(null)));
+        return RedisCacheStore.envelope(fields, valueBytes != null ? valueBytes : 0, null);
+    }
+
+    // Master node ids in a stable order, so a page cursor means the same master on the next call
+    private List<String> masters() {
+        if (connection() instanceof StatefulRedisClusterConnection<byte[], byte[]> cluster) {
+            List<String> masters = new ArrayList<>();
+            for (RedisClusterNode node : cluster.getPartitions()) {
+                if (node.is(RedisClusterNode.NodeFlag.UPSTREAM))
+                    masters.add(node.getNodeId());
+            }
+            masters.sort(Comparator.naturalOrder());
+            return masters;
+        }
+        return List.of("standalone");
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        return future.orTimeout(connectionFactory.getTimeout(), TimeUnit.MILLISECONDS).join();
+    }
+
+    private RedisClusterAsyncCommands<byte[], byte[]> async() {
+        connection();
+        return commands;
+    }
+
+    private StatefulConnection<byte[], byte[]> connection() {
+        StatefulConnection<byte[], byte[]> current = connection;
+        if (current != null)
+            return current;
+        synchronized (this) {
+            if (connection == null) {
+                Object nativeClient = connectionFactory.getNativeClient();
+                if (nativeClient instanceof RedisClusterClient clusterClient) {
+                    StatefulRedisClusterConnection<byte[], byte[]> cluster = clusterClient
+                            .connect(ByteArrayCodec.INSTANCE);
+                    commands = cluster.async();
+                    connection = cluster;
+                } else if (nativeClient instanceof RedisClient standaloneClient) {
+                    StatefulRedisConnection<byte[], byte[]> standalone = standaloneClient
+                            .connect(ByteArrayCodec.INSTANCE);
+                    commands = standalone.async();
+                    connection = standalone;
+                } else {
+                    throw new IllegalStateException("Unsupported Lettuce native client type ["
+                            + (nativeClient == null ? "null" : nativeClient.getClass().getName()) + "]");
+                }
+            }
+            return connection;
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        StatefulConnection<byte[], byte[]> current = connection;
+        if (current != null)
+            current.close();
+    }
+
+    /**
+     * Page cursor: {@code <master index>:<SCAN cursor>}, or a bare SCAN cursor
+     * on the first master. {@link #START} both starts and ends a walk.
+     */
+    private record Position(int node, String cursor) {
+
+        static Position parse(String token) {
+            if (token == null || token.isBlank())
+                return new Position(0, START);
+            int separator = token.indexOf(':');
+            if (separator < 0)
+                return new Position(0, token);
+            try {
+                return new Position(Integer.parseInt(token.substring(0, separator)), token.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cache stats cursor '" + token + "'");
+            }
+        }
+
+        String next(KeyScanCursor<byte[]> scanned, int masters) {
+            if (!scanned.isFinished())
+                return node == 0 ? scanned.getCursor() : node + ":" + scanned.getCursor();
+            return node + 1 < masters ? (node + 1) + ":" + START : START;
+        }
+    }
+
+    private static final class Tally {
+        private long keys;
+        private long auxKeys;
+        private long bytes;
+
+        void add(boolean auxiliary, long size) {
+            keys++;
+            if (auxiliary)
+                auxKeys++;
+            bytes += size;
+        }
+    }
+
+    // One key as the monitor lists it; ttlMs is -1 for persistent keys and -2 once gone, memoryBytes -1 when unknown
+    public record KeyStats(String key, String type, long ttlMs, long memoryBytes, RedisCacheStore.Envelope envelope) {
+    }
+
+    // nextCursor is START once the walk is over
+    public record Page(List<KeyStats> keys, String nextCursor) {
+
+        public boolean done() {
+            return START.equals(nextCursor);
+        }
+    }
+
+    public record NamespaceStats(long keys, long auxKeys, long bytes) {
+    }
+
+    public record Summary(Instant computedAt, long durationMs, long totalKeys, long auxKeys, long totalBytes,
+            Map<String, NamespaceStats> namespaces) {
+
+        boolean isOlderThan(Duration ttl) {
+            return computedAt.plus(ttl).isBefore(Instant.now());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.riyura.backend.common.cache;
+
+import io.lettuce.core.cluster.SlotHash;
+
+/**
+ * Naming scheme for the Redis keys behind {@code CacheStampedeGuard} entries.
+ * Callers work with logical keys ({@code movieDetails:42}); in Redis the whole
+ * logical key becomes the hash tag ({@code {movieDetails:42}}) and every key
+ * derived from an entry reuses that tag, so an entry and its companions always
+ * share a Redis Cluster slot and can be used together in one script,
+ * transaction or pipeline. Tagging the full key rather than the id keeps
+ * namespaces spread over the cluster instead of piling every {@code :20}
+ * list onto one slot.
+ */
+public final class CacheKeys {
+
+    private CacheKeys() {
+    }
+
+    // Namespace is the key prefix before the first ':' or schema version '@'
+    // (e.g. "movieDetails:42" -> "movieDetails", "banners@3f9c01ab" -> "banners")
+    public static String namespace(String key) {
+        if (key == null || key.isEmpty())
+            return "unknown";
+        String logical = logical(key);
+        int separator = 0;
+        while (separator < logical.length() && logical.charAt(separator) != ':' && logical.charAt(separator) != '@')
+            separator++;
+        return separator > 0 ? logical.substring(0, separator) : logical;
+    }
+
+    // Redis key of a guarded entry: "movieDetails:42" -> "{movieDetails:42}"
+    public static String entry(String key) {
+        return "{" + key + "}";
+    }
+
+    // Last-known-good copy of an entry, in the entry's slot
+    public static String lastKnownGood(String key) {
+        return entry(key) + ":lkg";
+    }
+
+    // Logical key of a Redis key ("{movieDetails:42}:lkg" -> "movieDetails:42"); untagged keys are returned as-is
+    public static String logical(String redisKey) {
+        if (redisKey == null || redisKey.isEmpty() || redisKey.charAt(0) != '{')
+            return redisKey;
+        int close = redisKey.indexOf('}');
+        return close > 1 ? redisKey.substring(1, close) : redisKey;
+    }
+
+    // Redis Cluster hash slot (0-16383) of a Redis key, honouring its hash tag
+    public static int slot(String redisKey) {
+        return SlotHash.getSlot(redisKey);
+    }
+}
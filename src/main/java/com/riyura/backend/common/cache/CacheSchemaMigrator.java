@@ -0,0 +1,149 @@
+package com.riyura.backend.common.cache;
+
+import com.riyura.backend.common.config.CacheProperties;
+import com.riyura.backend.common.port.CacheStorePort;
+import com.riyura.backend.common.port.CacheStorePort.Lease;
+import com.riyura.backend.common.port.CacheStorePort.LeaseToken;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional startup pass that re-encodes entries written under a namespace's
+ * previous schema version into the current one, so a fleet that just rolled
+ * out a DTO change starts from a warm keyspace instead of adopting entries
+ * one cold miss at a time. Entries are copied, not moved: nodes still running
+ * the old build keep reading their own keys. Entries that no longer decode,
+ * or whose new key already holds a value or is being loaded, are skipped.
+ * Enabled with {@code riyura.cache.schemas.migrate}; works on the Redis store
+ * only, since an in-memory store starts empty anyway.
+ */
+@Slf4j
+@Component
+public class CacheSchemaMigrator {
+
+    private static final int SCAN_COUNT = 200;
+    private static final long LEASE_MS = 5_000;
+
+    private final CacheSchemas cacheSchemas;
+    private final RedisCacheStore cacheStore;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisSerializer<Object> valueSerializer;
+    private final CacheProperties.Schemas config;
+    private final boolean redisStore;
+
+    @SuppressWarnings("unchecked")
+    public CacheSchemaMigrator(CacheSchemas cacheSchemas, RedisCacheStore cacheStore,
+            RedisTemplate<String, Object> redisTemplate, CacheProperties cacheProperties) {
+        this.cacheSchemas = cacheSchemas;
+        this.cacheStore = cacheStore;
+        this.redisTemplate = redisTemplate;
+        this.valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        this.config = cacheProperties.schemas();
+        this.redisStore = cacheProperties.store() == CacheProperties.Store.REDIS;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!config.enabled() || !config.migrate() || !redisStore)
+            return;
+        Map<String, String> previous = cacheSchemas.previousVersions();
+        if (!previous.isEmpty())
+            Thread.ofVirtual().name("cache-schema-migrator").start(() -> migrate(previous));
+    }
+
+    private void migrate(Map<String, String> previous) {
+        previous.forEach((namespace, version) -> {
+            try {
+                Tally tally = new Tally();
+                for (String oldKey : keysOf(namespace, version))
+                    migrate(oldKey, version, tally);
+                log.info("CacheSchemaMigrator: '{}' {} -> {}: {} copied, {} incompatible, {} skipped", namespace,
+                        version.isEmpty() ? "unversioned" : version, cacheSchemas.versions().get(namespace),
+                        tally.copied, tally.incompatible, tally.skipped);
+            } catch (Exception e) {
+                log.warn("CacheSchemaMigrator: migrating '{}' failed: {}", namespace, e.getMessage());
+            }
+        });
+    }
+
+    // Logical keys of the namespace's entries under the given version ("" for unversioned keys)
+    private List<String> keysOf(String namespace, String version) {
+        String suffix = version.isEmpty() ? "" : "@" + version;
+        ScanOptions options = ScanOptions.scanOptions().match("{" + namespace + "*}").count(SCAN_COUNT).build();
+        List<String> keys = new ArrayList<>();
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            RedisKeyScanner.forEachKey(connection, options, raw -> {
+                String logical = CacheKeys.logical(new String(raw, StandardCharsets.UTF_8));
+                if (!CacheKeys.namespace(logical).equals(namespace))
+                    return;
+                boolean versioned = logical.lastIndexOf('@') > logical.indexOf(':');
+                if (version.isEmpty() ? !versioned : logical.endsWith(suffix))
+                    keys.add(logical);
+            });
+            return null;
+        });
+        return keys;
+    }
+
+    private void migrate(String oldKey, String version, Tally tally) {
+        String base = version.isEmpty() ? oldKey : oldKey.substring(0, oldKey.length() - version.length() - 1);
+        String newKey = cacheSchemas.versioned(base);
+        if (newKey.equals(oldKey) || cacheStore.hasValue(newKey)) {
+            tally.skipped++;
+            return;
+        }
+        CacheStorePort.Read read = cacheStore.peek(oldKey);
+        if (read.value() == null || read.pttlMs() == 0) {
+            tally.skipped++;
+            return;
+        }
+        Object value;
+        try {
+            value = valueSerializer.deserialize(read.value());
+        } catch (Exception e) {
+            tally.incompatible++;
+            return;
+        }
+        if (value == null) {
+            tally.skipped++;
+            return;
+        }
+
+        long token = cacheStore.acquire(newKey, Lease.RECOMPUTE, LEASE_MS);
+        if (token <= 0) {
+            // Someone is loading it right now; their value is fresher anyway
+            tally.skipped++;
+            return;
+        }
+        LeaseToken held = new LeaseToken(Lease.RECOMPUTE, token);
+        byte[] raw = valueSerializer.serialize(value);
+        Duration ttl = read.pttlMs() > 0 ? Duration.ofMillis(read.pttlMs()) : Duration.ofDays(1);
+        Duration softTtl = read.softRemainingMs() < 0 ? null : Duration.ofMillis(Math.max(1, read.softRemainingMs()));
+        long delta = Double.isNaN(read.deltaMs()) ? 0 : (long) read.deltaMs();
+        if (cacheStore.write(newKey, raw, CacheStorePort.fingerprint(raw), ttl, softTtl, delta, held,
+                null) > 0) {
+            tally.copied++;
+        } else {
+            cacheStore.release(newKey, held);
+            tally.skipped++;
+        }
+    }
+
+    private static final class Tally {
+        private long copied;
+        private long incompatible;
+        private long skipped;
+    }
+}
@@ -0,0 +1,255 @@
+package com.riyura.backend.common.cache;
+
+import com.riyura.backend.common.config.CacheProperties;
+import com.riyura.backend.common.port.CacheSchemaPort;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Schema versions of the guarded cache namespaces. Each namespace declared by
+ * a {@link CacheSchemaPort} is versioned by a fingerprint of its DTO's
+ * structure (class names, field names and types, Jackson annotations,
+ * recursively), and that version is appended to its logical keys:
+ * {@code movieDetails:42} becomes {@code movieDetails:42@3f9c01ab}. A build
+ * whose DTO changed shape reads and writes fresh keys, while nodes still
+ * running the old build keep their entries, so neither thrashes the other
+ * during a rollout.
+ * <p>
+ * Every version a node runs is recorded in the {@code cache:schemas} hash
+ * with the time it was first seen. The newest version first seen before the
+ * current one is its previous version; versions that appeared later belong to
+ * newer builds, so an old build restarted mid-rollout or after a rollback
+ * never adopts their entries. {@code CacheStampedeGuard} adopts the previous
+ * version's entries on a cold miss when they still decode into the current
+ * DTO. This dual read stops once the current version has been live for the
+ * dual-read window. A
+ * namespace seen for the first time treats its unversioned keys as the
+ * previous version.
+ */
+@Slf4j
+@Component
+public class CacheSchemas {
+
+    private static final String REGISTRY_KEY = "cache:schemas";
+    private static final char VERSION_SEPARATOR = '@';
+    // Versions kept in the registry per namespace; older ones have long expired
+    private static final int KEPT_VERSIONS = 5;
+
+    private final CacheProperties.Schemas config;
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, String> versions = new HashMap<>();
+    private volatile Map<String, Previous> previous = Map.of();
+
+    public CacheSchemas(List<CacheSchemaPort> sources, StringRedisTemplate redisTemplate,
+            CacheProperties cacheProperties) {
+        this.config = cacheProperties.schemas();
+        this.redisTemplate = redisTemplate;
+        if (config.enabled()) {
+            for (CacheSchemaPort source : sources)
+                source.cacheSchemas().forEach((namespace, type) -> versions.put(namespace, fingerprint(type)));
+        }
+    }
+
+    // Records this build's versions and learns each namespace's previous one
+    @PostConstruct
+    void register() {
+        if (versions.isEmpty())
+            return;
+        try {
+            HashOperations<String, String, String> registry = redisTemplate.opsForHash();
+            Map<String, String> known = registry.entries(REGISTRY_KEY);
+            String now = Long.toString(System.currentTimeMillis());
+            Map<String, Previous> learned = new HashMap<>();
+            for (Map.Entry<String, String> schema : versions.entrySet()) {
+                String namespace = schema.getKey();
+                List<Map.Entry<String, Long>> seen = versionsOf(known, namespace);
+                if (seen.isEmpty()) {
+                    // First versioned build for this namespace: its unversioned keys are the previous version
+                    registry.putIfAbsent(REGISTRY_KEY, namespace + VERSION_SEPARATOR, "0");
+                    seen.add(Map.entry("", 0L));
+                }
+                String field = namespace + VERSION_SEPARATOR + schema.getValue();
+                registry.putIfAbsent(REGISTRY_KEY, field, now);
+                long since = parseLong(known.getOrDefault(field, now));
+
+                seen.removeIf(version -> version.getKey().equals(schema.getValue()));
+                seen.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+                seen.stream()
+                        .filter(version -> version.getValue() < since)
+                        .findFirst()
+                        .ifPresent(older -> learned.put(namespace, new Previous(older.getKey(), since)));
+                for (Map.Entry<String, Long> stale : seen.subList(Math.min(seen.size(), KEPT_VERSIONS - 1),
+                        seen.size()))
+                    registry.delete(REGISTRY_KEY, namespace + VERSION_SEPARATOR + stale.getKey());
+            }
+            previous = Map.copyOf(learned);
+            log.info("CacheSchemas: registered {} namespaces, {} with a previous version", versions.size(),
+                    learned.size());
+        } catch (Exception e) {
+            // Without the registry there is simply no dual read; versioned keys still work
+            log.warn("CacheSchemas: failed to register schema versions: {}", e.getMessage());
+        }
+    }
+
+    private static List<Map.Entry<String, Long>> versionsOf(Map<String, String> known, String namespace) {
+        String prefix = namespace + VERSION_SEPARATOR;
+        List<Map.Entry<String, Long>> seen = new ArrayList<>();
+        known.forEach((field, firstSeen) -> {
+            if (field.startsWith(prefix))
+                seen.add(Map.entry(field.substring(prefix.length()), parseLong(firstSeen)));
+        });
+        return seen;
+    }
+
+    // Logical key with its namespace's schema version; keys of unversioned namespaces are returned as-is
+    public String versioned(String key) {
+        String version = versions.get(CacheKeys.namespace(key));
+        return version == null ? key : key + VERSION_SEPARATOR + version;
+    }
+
+    /**
+     * The same entry under its namespace's previous schema version, or
+     * {@code null} when there is none or the dual-read window has passed.
+     */
+    public String previousVersion(String versionedKey) {
+        Previous prior = previous.get(CacheKeys.namespace(versionedKey));
+        if (prior == null || System.currentTimeMillis() - prior.currentSinceMs() > config.dualReadWindow().toMillis())
+            return null;
+        String base = unversioned(versionedKey);
+        return prior.version().isEmpty() ? base : base + VERSION_SEPARATOR + prior.version();
+    }
+
+    // Logical key without its schema version
+    public String unversioned(String versionedKey) {
+        String version = versions.get(CacheKeys.namespace(versionedKey));
+        String suffix = VERSION_SEPARATOR + (version == null ? "" : version);
+        return version != null && versionedKey.endsWith(suffix)
+                ? versionedKey.substring(0, versionedKey.length() - suffix.length())
+                : versionedKey;
+    }
+
+    // Namespace -> current version
+    public Map<String, String> versions() {
+        return Map.copyOf(versions);
+    }
+
+    // Namespace -> previous version ("" for unversioned keys), within the dual-read window
+    public Map<String, String> previousVersions() {
+        Map<String, String> result = new HashMap<>();
+        long now = System.currentTimeMillis();
+        previous.forEach((namespace, prior) -> {
+            if (now - prior.currentSinceMs() <= config.dualReadWindow().toMillis())
+                result.put(namespace, prior.version());
+        });
+        return result;
+    }
+
+    /**
+     * Structural fingerprint of a DTO: class names, instance field names and
+     * generic types, and Jackson annotations, walked recursively through the
+     * application's own types. Anything that changes how the cached JSON looks
+     * changes the fingerprint; reordering fields or adding methods doesn't.
+     */
+    public static String fingerprint(Class<?> type) {
+        StringBuilder shape = new StringBuilder();
+        describe(type, new HashSet<>(), shape);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(shape.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 4);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void describe(Type type, Set<Class<?>> visited, StringBuilder shape) {
+        if (type instanceof ParameterizedType parameterized) {
+            describe(parameterized.getRawType(), visited, shape);
+            shape.append('<');
+            for (Type argument : parameterized.getActualTypeArguments()) {
+                describe(argument, visited, shape);
+                shape.append(',');
+            }
+            shape.append('>');
+            return;
+        }
+        if (type instanceof GenericArrayType array) {
+            describe(array.getGenericComponentType(), visited, shape);
+            shape.append("[]");
+            return;
+        }
+        if (!(type instanceof Class<?> clazz)) {
+            shape.append(type.getTypeName());
+            return;
+        }
+        if (clazz.isArray()) {
+            describe(clazz.getComponentType(), visited, shape);
+            shape.append("[]");
+            return;
+        }
+        shape.append(clazz.getName());
+        if (!clazz.getName().startsWith("com.riyura.") || !visited.add(clazz))
+            return;
+        if (clazz.isEnum()) {
+            shape.append(Arrays.toString(clazz.getEnumConstants()));
+            return;
+        }
+
+        shape.append('{');
+        jacksonAnnotations(clazz.getDeclaredAnnotations(), shape);
+        for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+            Field[] fields = current.getDeclaredFields();
+            Arrays.sort(fields, Comparator.comparing(Field::getName));
+            for (Field field : fields) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers()))
+                    continue;
+                shape.append(field.getName()).append(':');
+                jacksonAnnotations(field.getDeclaredAnnotations(), shape);
+                describe(field.getGenericType(), visited, shape);
+                shape.append(';');
+            }
+        }
+        shape.append('}');
+    }
+
+    private static void jacksonAnnotations(Annotation[] annotations, StringBuilder shape) {
+        Arrays.stream(annotations)
+                .filter(annotation -> annotation.annotationType().getName().startsWith("com.fasterxml.jackson"))
+                .map(Annotation::toString)
+                .sorted()
+                .forEach(annotation -> shape.append(annotation).append(' '));
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // Previous version of a namespace and since when the current version has been live
+    private record Previous(String version, long currentSinceMs) {
+    }
+}
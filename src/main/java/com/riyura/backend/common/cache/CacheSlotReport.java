@@ -0,0 +1,126 @@
+package com.riyura.backend.common.cache;
+
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Slot distribution of the cache keyspace, per namespace. On Redis Cluster
+ * keys are attributed to the master that serves their slot; on a standalone
+ * server the 16384 slots are split evenly over a simulated shard count, which
+ * shows how the current keys would spread before moving to a sharded
+ * deployment. A namespace whose keys sit mostly on one shard shows up with a
+ * {@code maxShardShare} close to 1.
+ */
+@Component
+public class CacheSlotReport {
+
+    private static final int SLOT_COUNT = 16384;
+    private static final int SCAN_COUNT = 500;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    public CacheSlotReport(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    // Scans the whole keyspace; meant for the cache monitor, not the request path
+    public Report build(int simulatedShards) {
+        return redisTemplate.execute((RedisCallback<Report>) connection -> {
+            List<Shard> shards = shardsOf(connection, Math.max(1, simulatedShards));
+            Map<String, Tally> tallies = new HashMap<>();
+            Map<String, Long> keysPerShard = new TreeMap<>();
+            long[] total = { 0 };
+
+            ScanOptions options = ScanOptions.scanOptions().match("*").count(SCAN_COUNT).build();
+            RedisKeyScanner.forEachKey(connection, options, raw -> {
+                String key = new String(raw, StandardCharsets.UTF_8);
+                int slot = CacheKeys.slot(key);
+                String shard = shardOf(shards, slot);
+                tallies.computeIfAbsent(CacheKeys.namespace(key), ns -> new Tally()).add(slot, shard);
+                keysPerShard.merge(shard, 1L, Long::sum);
+                total[0]++;
+            });
+
+            List<Namespace> namespaces = new ArrayList<>(tallies.size());
+            tallies.forEach((namespace, tally) -> namespaces.add(tally.toNamespace(namespace)));
+            namespaces.sort(Comparator.comparingLong(Namespace::keys).reversed());
+            String topology = connection instanceof RedisClusterConnection ? "cluster" : "simulated";
+            return new Report(topology, shards.size(), total[0], keysPerShard, namespaces);
+        });
+    }
+
+    // Cluster masters with their slot ranges, or evenly split simulated shards
+    private static List<Shard> shardsOf(RedisConnection connection, int simulatedShards) {
+        List<Shard> shards = new ArrayList<>();
+        if (connection instanceof RedisClusterConnection cluster) {
+            for (RedisClusterNode node : cluster.clusterGetNodes()) {
+                if (node.isMaster())
+                    shards.add(new Shard(node.asString(), node.getSlotRange()));
+            }
+            return shards;
+        }
+        for (int i = 0; i < simulatedShards; i++) {
+            int from = i * SLOT_COUNT / simulatedShards;
+            int to = (i + 1) * SLOT_COUNT / simulatedShards - 1;
+            shards.add(new Shard("shard-" + i, new RedisClusterNode.SlotRange(from, to)));
+        }
+        return shards;
+    }
+
+    private static String shardOf(List<Shard> shards, int slot) {
+        for (Shard shard : shards) {
+            if (shard.slots().contains(slot))
+                return shard.name();
+        }
+        return "unassigned";
+    }
+
+    private record Shard(String name, RedisClusterNode.SlotRange slots) {
+    }
+
+    private static final class Tally {
+        private long keys;
+        private final Set<Integer> slots = new HashSet<>();
+        private final Map<String, Long> perShard = new TreeMap<>();
+
+        void add(int slot, String shard) {
+            keys++;
+            slots.add(slot);
+            perShard.merge(shard, 1L, Long::sum);
+        }
+
+        Namespace toNamespace(String namespace) {
+            long busiest = perShard.values().stream().mapToLong(Long::longValue).max().orElse(0);
+            return new Namespace(namespace, keys, slots.size(), new LinkedHashMap<>(perShard),
+                    keys > 0 ? (double) busiest / keys : 0);
+        }
+    }
+
+    /**
+     * @param topology "cluster" for real slot owners, "simulated" for an evenly split standalone keyspace
+     */
+    public record Report(String topology, int shards, long totalKeys, Map<String, Long> keysPerShard,
+            List<Namespace> namespaces) {
+    }
+
+    // maxShardShare is the fraction of the namespace's keys held by its busiest shard
+    public record Namespace(String namespace, long keys, int distinctSlots, Map<String, Long> keysPerShard,
+            double maxShardShare) {
+    }
+}
@@ -0,0 +1,238 @@
+package com.riyura.backend.common.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Value serializer for Redis-cached objects. Every payload starts with a
+ * two-byte header — a magic byte followed by the format id and a compression
+ * flag — so encodings can change without flushing Redis: payloads without the
+ * header are handed to the legacy serializer they were originally written with.
+ * <p>
+ * Both formats use the same polymorphic-typing {@link ObjectMapper}
+ * configuration; Smile is the binary counterpart of JSON and shrinks repeated
+ * field names and {@code @class} ids considerably. Payloads at or above the
+ * compression threshold are Deflate-compressed when that actually saves bytes.
+ */
+public class CacheValueCodec implements RedisSerializer<Object> {
+
+    // Cannot start a JSON document, so legacy payloads are never mistaken for headed ones
+    static final byte MAGIC = (byte) 0xB7;
+    private static final int HEADER_LENGTH = 2;
+    private static final int FORMAT_MASK = 0x0F;
+    private static final int DEFLATED = 0x10;
+
+    private final Format writeFormat;
+    private final int compressThreshold;
+    private final Map<Format, ObjectMapper> mappers = new EnumMap<>(Format.class);
+    private final RedisSerializer<Object> legacy;
+
+    private final Timer encodeTimer;
+    private final Map<String, Timer> decodeTimers;
+    private final DistributionSummary rawBytes;
+    private final DistributionSummary storedBytes;
+
+    /**
+     * @param jsonMapper        mapper for the JSON format (also used to render values for display)
+     * @param smileMapper       identically configured mapper backed by a Smile factory
+     * @param legacy            serializer that wrote the header-less payloads already in Redis
+     * @param compressThreshold payload size in bytes from which Deflate is attempted; 0 disables it
+     */
+    public CacheValueCodec(Format writeFormat, int compressThreshold, ObjectMapper jsonMapper,
+            ObjectMapper smileMapper, RedisSerializer<Object> legacy, MeterRegistry meterRegistry) {
+        this.writeFormat = writeFormat;
+        this.compressThreshold = compressThreshold;
+        this.mappers.put(Format.JSON, jsonMapper);
+        this.mappers.put(Format.SMILE, smileMapper);
+        this.legacy = legacy;
+
+        String format = writeFormat.name().toLowerCase();
+        this.encodeTimer = Timer.builder("cache.codec.encode")
+                .description("Time to encode a cached value")
+                .tag("format", format)
+                .register(meterRegistry);
+        this.decodeTimers = Map.of(
+                "legacy", decodeTimer(meterRegistry, "legacy"),
+                "json", decodeTimer(meterRegistry, "json"),
+                "smile", decodeTimer(meterRegistry, "smile"));
+        this.rawBytes = payloadSummary(meterRegistry, format, "raw");
+        this.storedBytes = payloadSummary(meterRegistry, format, "stored");
+    }
+
+    private static Timer decodeTimer(MeterRegistry meterRegistry, String format) {
+        return Timer.builder("cache.codec.decode")
+                .description("Time to decode a cached value")
+                .tag("format", format)
+                .register(meterRegistry);
+    }
+
+    // raw = encoded size before compression, stored = bytes actually sent to Redis
+    private static DistributionSummary payloadSummary(MeterRegistry meterRegistry, String format, String stage) {
+        return DistributionSummary.builder("cache.codec.payload")
+                .description("Size of encoded cache values")
+                .baseUnit("bytes")
+                .tag("format", format)
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null)
+            return new byte[0];
+
+        long start = System.nanoTime();
+        try {
+            byte[] body = mappers.get(writeFormat).writeValueAsBytes(value);
+            int flags = writeFormat.id;
+            rawBytes.record(body.length);
+
+            if (compressThreshold > 0 && body.length >= compressThreshold) {
+                byte[] deflated = deflate(body);
+                // Already-dense payloads can grow under Deflate; keep whichever is smaller
+                if (deflated.length < body.length) {
+                    body = deflated;
+                    flags |= DEFLATED;
+                }
+            }
+
+            byte[] out = new byte[HEADER_LENGTH + body.length];
+            out[0] = MAGIC;
+            out[1] = (byte) flags;
+            System.arraycopy(body, 0, out, HEADER_LENGTH, body.length);
+            storedBytes.record(out.length);
+            return out;
+        } catch (Exception e) {
+            throw new SerializationException("Could not encode cache value: " + e.getMessage(), e);
+        } finally {
+            encodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0)
+            return null;
+
+        long start = System.nanoTime();
+        String format = "legacy";
+        try {
+            if (!hasHeader(bytes))
+                return legacy.deserialize(bytes);
+
+            Format payloadFormat = Format.of(bytes[1] & FORMAT_MASK);
+            format = payloadFormat.name().toLowerCase();
+            return mappers.get(payloadFormat).readValue(body(bytes), Object.class);
+        } catch (SerializationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SerializationException("Could not decode cache value: " + e.getMessage(), e);
+        } finally {
+            decodeTimers.get(format).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Renders a stored payload as JSON for the cache monitor. Falls back to the
+     * raw bytes as UTF-8 when the payload can't be decoded by this codec.
+     */
+    public String toJson(byte[] bytes) {
+        if (bytes == null)
+            return null;
+        try {
+            return mappers.get(Format.JSON).writeValueAsString(deserialize(bytes));
+        } catch (Exception e) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    // Human-readable encoding of a stored payload, e.g. "smile+deflate" or "legacy"
+    public static String describe(byte[] bytes) {
+        if (bytes == null || !hasHeader(bytes))
+            return "legacy";
+        String format;
+        try {
+            format = Format.of(bytes[1] & FORMAT_MASK).name().toLowerCase();
+        } catch (SerializationException e) {
+            return "unknown";
+        }
+        return (bytes[1] & DEFLATED) != 0 ? format + "+deflate" : format;
+    }
+
+    private static boolean hasHeader(byte[] bytes) {
+        return bytes.length >= HEADER_LENGTH && bytes[0] == MAGIC;
+    }
+
+    // Payload after the header, inflated when the compression flag is set
+    private static byte[] body(byte[] bytes) throws DataFormatException {
+        byte[] body = Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+        return (bytes[1] & DEFLATED) != 0 ? inflate(body) : body;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    throw new DataFormatException("Truncated deflate stream");
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public enum Format {
+        JSON(1),
+        SMILE(2);
+
+        private final int id;
+
+        Format(int id) {
+            this.id = id;
+        }
+
+        static Format of(int id) {
+            for (Format format : values()) {
+                if (format.id == id)
+                    return format;
+            }
+            throw new SerializationException("Unknown cache value format id " + id);
+        }
+    }
+}
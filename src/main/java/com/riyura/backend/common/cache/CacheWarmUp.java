@@ -0,0 +1,176 @@
+package com.riyura.backend.common.cache;
+
+import com.riyura.backend.common.config.CacheProperties;
+import com.riyura.backend.common.config.CacheStampedeGuard;
+import com.riyura.backend.common.port.CacheWarmerPort;
+import com.riyura.backend.common.ratelimit.OutboundPriority;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Startup warm-up of the guarded caches that every first visitor hits. Once
+ * the application is ready, each key in the {@code riyura.cache.warm-up}
+ * manifest is resolved to a loader by a {@link CacheWarmerPort} and run
+ * through {@code CacheStampedeGuard}, a bounded number at a time so a cold
+ * fleet doesn't trip TMDB's rate limit. The whole manifest is first read with
+ * one pipelined {@code getAll}, and keys that are already cached are skipped.
+ * As a health indicator in the readiness group this keeps
+ * {@code /actuator/health/readiness} DOWN until the warm-up has finished or
+ * timed out, so the load balancer only routes to warm instances.
+ */
+@Slf4j
+@Component("cacheWarmUp")
+public class CacheWarmUp implements HealthIndicator {
+
+    private enum Phase {
+        PENDING, RUNNING, COMPLETED, TIMED_OUT, DISABLED
+    }
+
+    private final CacheProperties.WarmUp config;
+    private final List<CacheWarmerPort> warmers;
+    private final Executor cacheRefreshExecutor;
+    private final CacheStampedeGuard cacheStampedeGuard;
+
+    private final AtomicInteger warmed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile Phase phase;
+    private volatile long startedAtMs;
+    private volatile long durationMs;
+    private volatile int alreadyCached;
+    private volatile List<String> unresolved = List.of();
+
+    public CacheWarmUp(CacheProperties cacheProperties, List<CacheWarmerPort> warmers,
+            @Qualifier("cacheRefreshExecutor") Executor cacheRefreshExecutor, CacheStampedeGuard cacheStampedeGuard) {
+        this.config = cacheProperties.warmUp();
+        this.warmers = warmers;
+        this.cacheRefreshExecutor = cacheRefreshExecutor;
+        this.cacheStampedeGuard = cacheStampedeGuard;
+        this.phase = config.enabled() ? Phase.PENDING : Phase.DISABLED;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (phase != Phase.PENDING)
+            return;
+        phase = Phase.RUNNING;
+        startedAtMs = System.currentTimeMillis();
+        Thread.ofVirtual().name("cache-warm-up").start(this::run);
+    }
+
+    private void run() {
+        Map<String, Runnable> tasks = resolve(config.keys());
+        Semaphore permits = new Semaphore(config.concurrency());
+        List<CompletableFuture<Void>> pending = new ArrayList<>(tasks.size());
+        long deadline = System.nanoTime() + config.timeout().toNanos();
+        try {
+            skipCached(tasks, deadline);
+            for (Map.Entry<String, Runnable> task : tasks.entrySet()) {
+                if (!permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS))
+                    throw new TimeoutException();
+                pending.add(CompletableFuture.runAsync(() -> warm(task.getKey(), task.getValue()), cacheRefreshExecutor)
+                        .whenComplete((ignored, e) -> permits.release()));
+            }
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new))
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            finish(Phase.COMPLETED);
+        } catch (TimeoutException e) {
+            // Stragglers keep loading in the background; the instance is warm enough to serve
+            finish(Phase.TIMED_OUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(Phase.TIMED_OUT);
+        } catch (Exception e) {
+            log.warn("Cache warm-up aborted: {}", e.getMessage());
+            finish(Phase.COMPLETED);
+        }
+    }
+
+    private Map<String, Runnable> resolve(List<String> keys) {
+        Map<String, Runnable> tasks = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String key : keys) {
+            Runnable task = null;
+            for (CacheWarmerPort warmer : warmers) {
+                task = warmer.warmUpTask(key);
+                if (task != null)
+                    break;
+            }
+            if (task != null)
+                tasks.put(key, task);
+            else
+                missing.add(key);
+        }
+        if (!missing.isEmpty())
+            log.warn("Cache warm-up: no warmer for {}", missing);
+        unresolved = List.copyOf(missing);
+        return tasks;
+    }
+
+    // One pipelined read of the whole manifest; keys already cached need no loader run
+    private void skipCached(Map<String, Runnable> tasks, long deadline) throws InterruptedException {
+        try {
+            Map<String, Object> cached = cacheStampedeGuard.getAll(tasks.keySet())
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            tasks.keySet().removeAll(cached.keySet());
+            alreadyCached = cached.size();
+        } catch (ExecutionException | TimeoutException e) {
+            // Without the batch read every key simply goes through its loader
+            log.warn("Cache warm-up: could not read cached keys, warming all: {}", e.getMessage());
+        }
+    }
+
+    private void warm(String key, Runnable task) {
+        try {
+            OutboundPriority.background(task);
+            warmed.incrementAndGet();
+        } catch (Exception e) {
+            // A failed key is loaded on first request instead; it must not hold readiness hostage
+            failed.incrementAndGet();
+            log.warn("Cache warm-up failed for '{}': {}", key, e.getMessage());
+        }
+    }
+
+    private void finish(Phase outcome) {
+        durationMs = System.currentTimeMillis() - startedAtMs;
+        phase = outcome;
+        log.info("Cache warm-up {} in {} ms: {} already cached, {} warmed, {} failed",
+                outcome == Phase.COMPLETED ? "completed" : "timed out", durationMs, alreadyCached, warmed.get(),
+                failed.get());
+    }
+
+    @Override
+    public Health health() {
+        Phase current = phase;
+        Health.Builder builder = switch (current) {
+            case PENDING, RUNNING -> Health.down();
+            case COMPLETED, TIMED_OUT, DISABLED -> Health.up();
+        };
+        builder.withDetail("phase", current.name().toLowerCase())
+                .withDetail("keys", config.keys().size())
+                .withDetail("alreadyCached", alreadyCached)
+                .withDetail("warmed", warmed.get())
+                .withDetail("failed", failed.get());
+        if (current == Phase.COMPLETED || current == Phase.TIMED_OUT)
+            builder.withDetail("durationMs", durationMs);
+        if (!unresolved.isEmpty())
+            builder.withDetail("unresolved", unresolved);
+        return builder.build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.riyura.backend.common.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch of key popularity with periodic decay. Each key maps to
+ * one counter per row and its estimate is the smallest of them, so
+ * collisions can only overestimate. After {@code 10 × width} increments every
+ * counter is halved, so the sketch follows what is popular now rather than
+ * what was popular since boot. Memory is fixed at {@code 4 × width} ints
+ * regardless of how many distinct keys pass through.
+ */
+public final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L };
+
+    private final AtomicIntegerArray table;
+    private final int width;
+    private final int shift;
+    private final int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    // width is rounded up to a power of two
+    public FrequencySketch(int width) {
+        this.width = Integer.highestOneBit(Math.max(64, width) - 1) << 1;
+        this.shift = 64 - Integer.numberOfTrailingZeros(this.width);
+        this.table = new AtomicIntegerArray(DEPTH * this.width);
+        this.sampleSize = 10 * this.width;
+    }
+
+    // Counts one occurrence and returns the key's new estimate
+    public int increment(String key) {
+        return increment(key.hashCode());
+    }
+
+    // Same as increment(String) for a caller that only has the key's hash
+    public int increment(long keyHash) {
+        long hash = spread(keyHash);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = indexOf(hash, row);
+            int count = table.get(index);
+            // Saturate instead of wrapping; decay brings it back down
+            if (count < Integer.MAX_VALUE)
+                count = table.incrementAndGet(index);
+            estimate = Math.min(estimate, count);
+        }
+        if (additions.incrementAndGet() >= sampleSize)
+            decay();
+        return estimate;
+    }
+
+    public int estimate(String key) {
+        return estimate(key.hashCode());
+    }
+
+    public int estimate(long keyHash) {
+        long hash = spread(keyHash);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++)
+            estimate = Math.min(estimate, table.get(indexOf(hash, row)));
+        return estimate;
+    }
+
+    // Halves every counter; concurrent increments during the sweep may be kept or halved
+    private void decay() {
+        int seen = additions.get();
+        if (seen < sampleSize || !additions.compareAndSet(seen, seen / 2))
+            return;
+        for (int i = 0; i < table.length(); i++)
+            table.set(i, table.get(i) >>> 1);
+    }
+
+    private int indexOf(long hash, int row) {
+        return row * width + (int) (((hash + SEEDS[row]) * SEEDS[row]) >>> shift);
+    }
+
+    private static long spread(long keyHash) {
+        long hash = keyHash * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+}
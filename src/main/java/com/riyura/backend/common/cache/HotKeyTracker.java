@@ -0,0 +1,193 @@
+package com.riyura.backend.common.cache;
+
+import com.riyura.backend.common.config.CacheProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds the hottest {@code CacheStampedeGuard} keys and refreshes them ahead
+ * of expiry. Every guarded lookup bumps the key in a {@link FrequencySketch};
+ * once its estimate beats the coldest member of the top-K set it joins the set
+ * together with a refresher for its entry. A periodic sweep hands each hot
+ * key's refresher to {@code cacheRefreshExecutor}; the refresher takes the
+ * entry's lease only when it is within the lead window, so across the fleet
+ * one node reloads each hot entry and readers never hit a synchronous miss.
+ */
+@Slf4j
+@Component
+public class HotKeyTracker {
+
+    private final CacheProperties.HotKeys config;
+    private final Executor cacheRefreshExecutor;
+    private final FrequencySketch sketch;
+    private final Map<String, HotKey> hotKeys = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("cache-hot-keys").factory());
+
+    // Smallest estimate that gets a key into the set; the coldest member's estimate once full
+    private volatile int admissionThreshold;
+
+    public HotKeyTracker(CacheProperties cacheProperties,
+            @Qualifier("cacheRefreshExecutor") Executor cacheRefreshExecutor) {
+        this.config = cacheProperties.hotKeys();
+        this.cacheRefreshExecutor = cacheRefreshExecutor;
+        this.sketch = new FrequencySketch(config.sketchWidth());
+        this.admissionThreshold = config.minFrequency();
+        if (config.enabled()) {
+            long period = config.scanInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::sweep, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Counts a lookup of {@code key}.
+     *
+     * @return {@code true} when the key just became hot and the caller should
+     *         {@link #track} it with a refresher
+     */
+    public boolean record(String key) {
+        if (!config.enabled())
+            return false;
+        int frequency = sketch.increment(key);
+        return frequency >= admissionThreshold && !hotKeys.containsKey(key);
+    }
+
+    // Adds a key to the hot set, evicting the coldest member when the set is full
+    public void track(String key, Refresher refresher) {
+        if (hotKeys.putIfAbsent(key, new HotKey(key, refresher)) != null)
+            return;
+        if (hotKeys.size() > config.topK())
+            evictColdest();
+    }
+
+    // Current hot set, hottest first, with decayed frequency estimates
+    public Snapshot snapshot() {
+        List<Entry> entries = new ArrayList<>(hotKeys.size());
+        for (HotKey hot : hotKeys.values())
+            entries.add(new Entry(hot.key, sketch.estimate(hot.key), hot.refreshes.get(), hot.lastRefreshAtMs));
+        entries.sort(Comparator.comparingInt(Entry::frequency).reversed());
+        return new Snapshot(config.enabled(), config.topK(), admissionThreshold, config.lead().toMillis(), entries);
+    }
+
+    public int frequency(String key) {
+        return sketch.estimate(key);
+    }
+
+    public boolean isHot(String key) {
+        return hotKeys.containsKey(key);
+    }
+
+    private synchronized void evictColdest() {
+        while (hotKeys.size() > config.topK()) {
+            HotKey coldest = coldest();
+            if (coldest == null)
+                return;
+            hotKeys.remove(coldest.key);
+        }
+        updateThreshold();
+    }
+
+    private HotKey coldest() {
+        HotKey coldest = null;
+        int lowest = Integer.MAX_VALUE;
+        for (HotKey hot : hotKeys.values()) {
+            int frequency = sketch.estimate(hot.key);
+            if (frequency < lowest) {
+                lowest = frequency;
+                coldest = hot;
+            }
+        }
+        return coldest;
+    }
+
+    private void updateThreshold() {
+        HotKey coldest = hotKeys.size() >= config.topK() ? coldest() : null;
+        int threshold = coldest != null ? sketch.estimate(coldest.key) + 1 : 0;
+        admissionThreshold = Math.max(config.minFrequency(), threshold);
+    }
+
+    // Drops keys that cooled off below the floor, then refreshes the rest ahead of expiry
+    private void sweep() {
+        try {
+            synchronized (this) {
+                hotKeys.values().removeIf(hot -> sketch.estimate(hot.key) < config.minFrequency());
+                updateThreshold();
+            }
+            long leadMs = config.lead().toMillis();
+            for (HotKey hot : hotKeys.values()) {
+                if (!hot.running.compareAndSet(false, true))
+                    continue;
+                try {
+                    cacheRefreshExecutor.execute(() -> refresh(hot, leadMs));
+                } catch (RuntimeException e) {
+                    hot.running.set(false);
+                    throw e;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("HotKeyTracker: sweep failed: {}", e.getMessage());
+        }
+    }
+
+    private void refresh(HotKey hot, long leadMs) {
+        try {
+            if (hot.refresher.refreshIfExpiring(leadMs)) {
+                hot.refreshes.incrementAndGet();
+                hot.lastRefreshAtMs = System.currentTimeMillis();
+            }
+        } catch (Exception e) {
+            log.debug("HotKeyTracker: refresh-ahead failed for '{}': {}", hot.key, e.getMessage());
+        } finally {
+            hot.running.set(false);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Refreshes one hot entry if it expires within the lead window; runs on
+     * {@code cacheRefreshExecutor}.
+     */
+    @FunctionalInterface
+    public interface Refresher {
+        // true when this node took the lease and reloaded the entry
+        boolean refreshIfExpiring(long leadMs);
+    }
+
+    private static final class HotKey {
+        private final String key;
+        private final Refresher refresher;
+        private final AtomicLong refreshes = new AtomicLong();
+        private final AtomicBoolean running = new AtomicBoolean();
+        private volatile long lastRefreshAtMs;
+
+        HotKey(String key, Refresher refresher) {
+            this.key = key;
+            this.refresher = refresher;
+        }
+    }
+
+    // frequency is the decayed sketch estimate; lastRefreshAtMs is 0 until this node refreshed the key
+    public record Entry(String key, int frequency, long refreshes, long lastRefreshAtMs) {
+    }
+
+    public record Snapshot(boolean enabled, int topK, int admissionThreshold, long leadMs, List<Entry> keys) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.riyura.backend.common.cache;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/hotkeys}: the current hot-key set with decayed frequency
+ * estimates and refresh-ahead counts, and {@code /actuator/hotkeys/{key}} for
+ * the estimate of any logical key.
+ */
+@Component
+@Endpoint(id = "hotkeys")
+public class HotKeysEndpoint {
+
+    private final HotKeyTracker hotKeyTracker;
+
+    public HotKeysEndpoint(HotKeyTracker hotKeyTracker) {
+        this.hotKeyTracker = hotKeyTracker;
+    }
+
+    @ReadOperation
+    public HotKeyTracker.Snapshot hotKeys() {
+        return hotKeyTracker.snapshot();
+    }
+
+    @ReadOperation
+    public KeyFrequency key(@Selector String key) {
+        return new KeyFrequency(key, hotKeyTracker.frequency(key), hotKeyTracker.isHot(key));
+    }
+
+    public record KeyFrequency(String key, int frequency, boolean hot) {
+    }
+}
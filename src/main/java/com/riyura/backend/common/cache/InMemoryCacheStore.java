@@ -0,0 +1,343 @@
+package com.riyura.backend.common.cache;
+
+import com.riyura.backend.common.config.CacheProperties;
+import com.riyura.backend.common.port.CacheStorePort;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-process {@link CacheStorePort} with the semantics of
+ * {@code redis/cache-envelope.lua}: every operation runs under the map's
+ * per-key lock, so leases, fencing tokens, the adaptive TTL multiplier and
+ * soft / hard expiry behave exactly as they do in Redis, only on the local
+ * clock. Entries expire lazily when read and in a periodic sweep; an entry
+ * holding only a lease lives as long as the lease. Broadcast events are
+ * delivered synchronously to this node's listeners, since there are no
+ * peers. Selected with {@code riyura.cache.store: in-memory}.
+ */
+public class InMemoryCacheStore implements CacheStorePort, AutoCloseable {
+
+    private static final long SWEEP_INTERVAL_MS = 30_000;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Copy> copies = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    // Last fencing token issued for any key; tokens only ever increase, even across expiry
+    private final AtomicLong lastToken = new AtomicLong();
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("cache-store-sweep").factory());
+
+    public InMemoryCacheStore() {
+        sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_MS, SWEEP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Read xfetch(String key, double factor, long leaseMs, double defaultDeltaMs) {
+        return atomically(key, (entry, now) -> {
+            if (entry.value == null) {
+                long token = lease(entry, Lease.RECOMPUTE, now, leaseMs);
+                return new Read(null, -2, Double.NaN, 0, decision(token), token, null);
+            }
+            long pttl = entry.expiresAtMs - now;
+            double deltaMs = Double.isNaN(entry.deltaMs) ? defaultDeltaMs : entry.deltaMs;
+            long token = 0;
+            if (deltaMs * factor >= pttl)
+                token = lease(entry, Lease.RECOMPUTE, now, leaseMs);
+            return new Read(entry.value, pttl, entry.deltaMs, 0, decision(token), token, entry.fingerprint);
+        });
+    }
+
+    @Override
+    public Read swr(String key, long leaseMs) {
+        return atomically(key, (entry, now) -> {
+            if (entry.value == null) {
+                long token = lease(entry, Lease.RECOMPUTE, now, leaseMs);
+                return new Read(null, -2, Double.NaN, 0, decision(token), token, null);
+            }
+            long softRemaining = entry.softExpiresAtMs - now;
+            long token = 0;
+            if (softRemaining <= 0) {
+                softRemaining = 0;
+                token = lease(entry, Lease.REFRESH, now, leaseMs);
+            }
+            return new Read(entry.value, entry.expiresAtMs - now, entry.deltaMs, softRemaining, decision(token),
+                    token, entry.fingerprint);
+        });
+    }
+
+    @Override
+    public Read ahead(String key, long leadMs, long leaseMs) {
+        return atomically(key, (entry, now) -> {
+            if (entry.value == null)
+                return new Read(null, -2, Double.NaN, 0, 0, 0, null);
+            long pttl = entry.expiresAtMs - now;
+            long softRemaining = 0;
+            long token = 0;
+            if (entry.softExpiresAtMs > 0) {
+                softRemaining = Math.max(0, entry.softExpiresAtMs - now);
+                if (softRemaining <= leadMs)
+                    token = lease(entry, Lease.REFRESH, now, leaseMs);
+            } else if (pttl <= leadMs) {
+                token = lease(entry, Lease.RECOMPUTE, now, leaseMs);
+            }
+            return new Read(null, pttl, entry.deltaMs, softRemaining, decision(token), token, entry.fingerprint);
+        });
+    }
+
+    @Override
+    public Read peek(String key) {
+        return atomically(key, (entry, now) -> {
+            if (entry.value == null)
+                return new Read(null, -2, Double.NaN, 0, 0, 0, null);
+            long softRemaining = entry.softExpiresAtMs > 0 ? Math.max(0, entry.softExpiresAtMs - now) : -1;
+            return new Read(entry.value, entry.expiresAtMs - now, entry.deltaMs, softRemaining, 0, 0,
+                    entry.fingerprint);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Read> xfetchAsync(String key, double factor, long leaseMs, double defaultDeltaMs) {
+        return CompletableFuture.completedFuture(xfetch(key, factor, leaseMs, defaultDeltaMs));
+    }
+
+    @Override
+    public CompletableFuture<Read> swrAsync(String key, long leaseMs) {
+        return CompletableFuture.completedFuture(swr(key, leaseMs));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, byte[]>> getAll(Collection<String> keys) {
+        Map<String, byte[]> values = new LinkedHashMap<>();
+        long now = System.currentTimeMillis();
+        for (String key : keys) {
+            Entry entry = entries.get(key);
+            byte[] value = entry != null && entry.expiresAtMs > now ? entry.value : null;
+            if (value != null)
+                values.put(key, value);
+        }
+        return CompletableFuture.completedFuture(values);
+    }
+
+    @Override
+    public long acquire(String key, Lease lease, long leaseMs) {
+        return atomically(key, (entry, now) -> lease(entry, lease, now, leaseMs));
+    }
+
+    @Override
+    public boolean renew(String key, LeaseToken held, long leaseMs) {
+        return atomically(key, (entry, now) -> {
+            if (entry.holders[held.lease().ordinal()] != held.token())
+                return false;
+            entry.heldUntilMs[held.lease().ordinal()] = now + leaseMs;
+            if (entry.value == null)
+                entry.expiresAtMs = now + leaseMs;
+            return true;
+        });
+    }
+
+    @Override
+    public double write(String key, byte[] value, String fingerprint, Duration ttl, Duration softTtl, long deltaMs,
+            LeaseToken held, CacheProperties.AdaptiveTtl adaptive) {
+        return atomically(key, (entry, now) -> {
+            if (!admit(entry, held, now))
+                return 0.0;
+            double m = 1;
+            if (entry.value != null)
+                m = adapt(entry, adaptive, fingerprint != null && fingerprint.equals(entry.fingerprint));
+            entry.value = value;
+            entry.fingerprint = fingerprint;
+            return stamp(entry, now, m, ttl, softTtl, deltaMs);
+        });
+    }
+
+    @Override
+    public double touch(String key, String fingerprint, Duration ttl, Duration softTtl, long deltaMs,
+            LeaseToken held, CacheProperties.AdaptiveTtl adaptive) {
+        return atomically(key, (entry, now) -> {
+            if (entry.value == null || fingerprint == null || !fingerprint.equals(entry.fingerprint))
+                return -1.0;
+            if (!admit(entry, held, now))
+                return 0.0;
+            return stamp(entry, now, adapt(entry, adaptive, true), ttl, softTtl, deltaMs);
+        });
+    }
+
+    @Override
+    public void release(String key, LeaseToken held) {
+        atomically(key, (entry, now) -> {
+            if (entry.holders[held.lease().ordinal()] == held.token())
+                entry.clear(held.lease());
+            return null;
+        });
+    }
+
+    @Override
+    public boolean hasValue(String key) {
+        return atomically(key, (entry, now) -> entry.value != null);
+    }
+
+    @Override
+    public Long delete(Collection<String> keys) {
+        long now = System.currentTimeMillis();
+        long deleted = 0;
+        for (String key : keys) {
+            Entry entry = entries.remove(key);
+            if (entry != null && entry.expiresAtMs > now)
+                deleted++;
+        }
+        return deleted;
+    }
+
+    @Override
+    public void saveLastKnownGood(String key, byte[] value, Duration ttl) {
+        copies.put(key, new Copy(value, System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    @Override
+    public void touchLastKnownGood(String key, Duration ttl) {
+        long now = System.currentTimeMillis();
+        copies.computeIfPresent(key, (k, copy) -> copy.expiresAtMs > now
+                ? new Copy(copy.value, now + ttl.toMillis())
+                : null);
+    }
+
+    @Override
+    public byte[] loadLastKnownGood(String key) {
+        Copy copy = copies.get(key);
+        return copy != null && copy.expiresAtMs > System.currentTimeMillis() ? copy.value : null;
+    }
+
+    @Override
+    public void deleteLastKnownGood(String key) {
+        copies.remove(key);
+    }
+
+    @Override
+    public void publish(String message) {
+        listeners.forEach(listener -> listener.accept(message));
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Runs {@code operation} on the key's live entry (a blank one when it is
+     * missing or expired) under the map's lock for that key. The entry is
+     * kept only while it still has time to live afterwards, so reads of a
+     * missing key leave nothing behind.
+     */
+    private <R> R atomically(String key, Operation<R> operation) {
+        Object[] result = new Object[1];
+        entries.compute(key, (k, existing) -> {
+            long now = System.currentTimeMillis();
+            Entry entry = existing != null && existing.expiresAtMs > now ? existing : new Entry();
+            result[0] = operation.apply(entry, now);
+            return entry.expiresAtMs > now ? entry : null;
+        });
+        @SuppressWarnings("unchecked")
+        R value = (R) result[0];
+        return value;
+    }
+
+    // Takes the lease unless a live one exists; an entry without a value lives only as long as its lease
+    private long lease(Entry entry, Lease lease, long now, long leaseMs) {
+        if (entry.heldUntilMs[lease.ordinal()] > now)
+            return -1;
+        long token = lastToken.accumulateAndGet(now, (last, ts) -> Math.max(ts, last + 1));
+        entry.heldUntilMs[lease.ordinal()] = now + leaseMs;
+        entry.holders[lease.ordinal()] = token;
+        if (entry.value == null)
+            entry.expiresAtMs = now + leaseMs;
+        return token;
+    }
+
+    private static long decision(long token) {
+        return token > 0 ? 1 : token;
+    }
+
+    // Same admission rule as the script: refuse when a newer token wrote or another caller holds a live lease
+    private static boolean admit(Entry entry, LeaseToken held, long now) {
+        if (held == null)
+            return true;
+        int index = held.lease().ordinal();
+        if (entry.writtenToken > held.token())
+            return false;
+        boolean owns = entry.holders[index] == held.token();
+        if (entry.heldUntilMs[index] > now && !owns)
+            return false;
+        if (owns)
+            entry.clear(held.lease());
+        entry.writtenToken = held.token();
+        return true;
+    }
+
+    private static double adapt(Entry entry, CacheProperties.AdaptiveTtl adaptive, boolean unchanged) {
+        if (adaptive == null || !adaptive.enabled())
+            return 1;
+        double m = entry.multiplier * (unchanged ? adaptive.growth() : adaptive.shrink());
+        return Math.min(adaptive.maxFactor(), Math.max(adaptive.minFactor(), m));
+    }
+
+    // Stores the bookkeeping of a refresh with both TTLs scaled by m; returns m rounded down to thousandths
+    private static double stamp(Entry entry, long now, double m, Duration ttl, Duration softTtl, long deltaMs) {
+        long softMs = softTtl != null ? softTtl.toMillis() : 0;
+        entry.softExpiresAtMs = softMs > 0 ? now + (long) Math.floor(softMs * m) : 0;
+        entry.deltaMs = deltaMs;
+        entry.multiplier = m;
+        entry.expiresAtMs = now + (long) Math.floor(ttl.toMillis() * m);
+        return Math.floor(m * 1000) / 1000.0;
+    }
+
+    // Expired entries are never mutated again (a new Entry replaces them), so removing them here is safe
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAtMs <= now);
+        copies.values().removeIf(copy -> copy.expiresAtMs <= now);
+    }
+
+    @FunctionalInterface
+    private interface Operation<R> {
+        R apply(Entry entry, long now);
+    }
+
+    // One guarded entry; only touched under the map's lock for its key
+    private static final class Entry {
+        byte[] value;
+        String fingerprint;
+        long softExpiresAtMs;
+        double deltaMs = Double.NaN;
+        double multiplier = 1;
+        long writtenToken;
+        final long[] heldUntilMs = new long[Lease.values().length];
+        final long[] holders = new long[Lease.values().length];
+        // Read without the lock by the sweep
+        volatile long expiresAtMs;
+
+        void clear(Lease lease) {
+            heldUntilMs[lease.ordinal()] = 0;
+            holders[lease.ordinal()] = 0;
+        }
+    }
+
+    private record Copy(byte[] value, long expiresAtMs) {
+    }
+}
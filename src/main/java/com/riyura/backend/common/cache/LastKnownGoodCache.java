@@ -0,0 +1,144 @@
+package com.riyura.backend.common.cache;
+
+import com.riyura.backend.common.config.CacheProperties;
+import com.riyura.backend.common.port.CacheStorePort;
+import com.riyura.backend.common.ratelimit.OutboundPriority;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * "Last known good" tier for {@code CacheStampedeGuard}. Every value the guard
+ * stores in one of the configured namespaces is also copied through the
+ * {@link CacheStorePort} (in Redis, as a bare string under {@code {<key>}:lkg}
+ * in the entry's cluster slot) with the entry's TTL plus a grace period. When
+ * the loader later fails (for instance because the TMDB circuit breaker is
+ * open) the guard serves that copy flagged as stale and schedules a background
+ * retry that rewrites the real entry once the upstream recovers. A copy holds
+ * the full value for longer than the entry, so a covered namespace needs
+ * roughly twice its memory; namespaces outside the list have no fallback.
+ */
+@Slf4j
+@Component
+public class LastKnownGoodCache {
+
+    private final CacheStorePort cacheStore;
+    private final Executor cacheRefreshExecutor;
+    private final CacheProperties.LastKnownGood config;
+
+    // Keys with a retry already scheduled, so repeated stale hits don't stack retries
+    private final Set<String> retrying = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("cache-lkg-retry").factory());
+
+    public LastKnownGoodCache(CacheStorePort cacheStore,
+            @Qualifier("cacheRefreshExecutor") Executor cacheRefreshExecutor,
+            CacheProperties cacheProperties) {
+        this.cacheStore = cacheStore;
+        this.cacheRefreshExecutor = cacheRefreshExecutor;
+        this.config = cacheProperties.lastKnownGood();
+    }
+
+    // Keep a copy of a freshly stored value for ttl + grace; failures only cost the fallback
+    public void save(String key, byte[] value, Duration ttl) {
+        if (!config.covers(CacheKeys.namespace(key)) || value == null)
+            return;
+        try {
+            cacheStore.saveLastKnownGood(key, value, ttl.plus(config.grace()));
+        } catch (Exception e) {
+            log.debug("LastKnownGood: failed to save '{}': {}", key, e.getMessage());
+        }
+    }
+
+    // Extends the copy's expiry after an unchanged refresh, without resending the value
+    public void touch(String key, Duration ttl) {
+        if (!config.covers(CacheKeys.namespace(key)))
+            return;
+        try {
+            cacheStore.touchLastKnownGood(key, ttl.plus(config.grace()));
+        } catch (Exception e) {
+            log.debug("LastKnownGood: failed to touch '{}': {}", key, e.getMessage());
+        }
+    }
+
+    // The last good serialized value, or null when there is none (or the store is unreachable)
+    public byte[] load(String key) {
+        if (!config.covers(CacheKeys.namespace(key)))
+            return null;
+        try {
+            return cacheStore.loadLastKnownGood(key);
+        } catch (Exception e) {
+            log.debug("LastKnownGood: failed to load '{}': {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    public void delete(String key) {
+        if (!config.covers(CacheKeys.namespace(key)))
+            return;
+        try {
+            cacheStore.deleteLastKnownGood(key);
+        } catch (Exception e) {
+            log.debug("LastKnownGood: failed to delete '{}': {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Retries {@code refresh} with exponential backoff until it reports success
+     * or the grace period runs out. At most one retry chain runs per key.
+     *
+     * @param refresh reloads and stores the entry; returns {@code true} once the upstream answered
+     */
+    public void scheduleRetry(String key, BooleanSupplier refresh) {
+        if (!config.enabled() || !retrying.add(key))
+            return;
+        long deadline = System.nanoTime() + config.grace().toNanos();
+        schedule(key, refresh, config.retryInterval(), deadline);
+    }
+
+    private void schedule(String key, BooleanSupplier refresh, Duration delay, long deadlineNanos) {
+        try {
+            scheduler.schedule(() -> cacheRefreshExecutor.execute(() -> attempt(key, refresh, delay, deadlineNanos)),
+                    delay.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // Scheduler shut down — a later stale hit will start a new chain
+            retrying.remove(key);
+        }
+    }
+
+    private void attempt(String key, BooleanSupplier refresh, Duration delay, long deadlineNanos) {
+        boolean refreshed = false;
+        try {
+            refreshed = OutboundPriority.background(refresh::getAsBoolean);
+        } catch (Exception e) {
+            log.debug("LastKnownGood: retry for '{}' failed: {}", key, e.getMessage());
+        }
+
+        if (refreshed) {
+            log.info("LastKnownGood: '{}' refreshed after upstream recovery", key);
+            retrying.remove(key);
+        } else if (System.nanoTime() >= deadlineNanos) {
+            log.warn("LastKnownGood: giving up retrying '{}' after the grace period", key);
+            retrying.remove(key);
+        } else {
+            Duration next = delay.multipliedBy(2);
+            schedule(key, refresh, next.compareTo(config.maxRetryInterval()) > 0 ? config.maxRetryInterval() : next,
+                    deadlineNanos);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
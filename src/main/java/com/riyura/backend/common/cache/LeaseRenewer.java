@@ -0,0 +1,98 @@
+package com.riyura.backend.common.cache;
+
+import com.riyura.backend.common.port.CacheStorePort;
+import com.riyura.backend.common.port.CacheStorePort.LeaseToken;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps {@code CacheStampedeGuard} leases alive while their loader runs, so a
+ * slow recompute (a season fan-out, a throttled upstream) doesn't let the
+ * lease lapse and a second node start the same work. Leases are renewed at a
+ * third of their duration; a renewal that finds the lease taken over stops
+ * renewing and reports it, and the holder's eventual write is then fenced off
+ * by its token.
+ */
+@Slf4j
+@Component
+public class LeaseRenewer {
+
+    private final CacheStorePort cacheStore;
+    private final Executor cacheRefreshExecutor;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("cache-lease-renew").factory());
+
+    public LeaseRenewer(CacheStorePort cacheStore,
+            @Qualifier("cacheRefreshExecutor") Executor cacheRefreshExecutor) {
+        this.cacheStore = cacheStore;
+        this.cacheRefreshExecutor = cacheRefreshExecutor;
+    }
+
+    /**
+     * Starts renewing {@code held} until the returned renewal is closed.
+     *
+     * @param onLost called once if the lease turns out to be held by someone else
+     */
+    public Renewal start(String key, LeaseToken held, long leaseMs, Runnable onLost) {
+        Renewal renewal = new Renewal();
+        long period = Math.max(1, leaseMs / 3);
+        try {
+            renewal.future = scheduler.scheduleAtFixedRate(
+                    () -> cacheRefreshExecutor.execute(() -> renew(key, held, leaseMs, renewal, onLost)),
+                    period, period, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // Scheduler shut down — the lease simply runs its fixed course
+            log.debug("LeaseRenewer: not renewing '{}': {}", key, e.getMessage());
+        }
+        return renewal;
+    }
+
+    private void renew(String key, LeaseToken held, long leaseMs, Renewal renewal, Runnable onLost) {
+        if (renewal.closed) {
+            // Closed before its future was published — cancel the leftover schedule
+            renewal.close();
+            return;
+        }
+        try {
+            if (cacheStore.renew(key, held, leaseMs))
+                return;
+        } catch (Exception e) {
+            // Redis hiccup — the next tick retries while the lease is still valid
+            log.debug("LeaseRenewer: failed to renew '{}': {}", key, e.getMessage());
+            return;
+        }
+        if (!renewal.closed) {
+            log.warn("LeaseRenewer: {} lease on '{}' was taken over while loading", held.lease(), key);
+            renewal.close();
+            onLost.run();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    // Stops renewing on close; closing twice is harmless
+    public static final class Renewal implements AutoCloseable {
+
+        private volatile boolean closed;
+        private volatile ScheduledFuture<?> future;
+
+        @Override
+        public void close() {
+            closed = true;
+            ScheduledFuture<?> scheduled = future;
+            if (scheduled != null)
+                scheduled.cancel(false);
+        }
+    }
+}
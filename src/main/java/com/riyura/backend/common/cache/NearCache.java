@@ -0,0 +1,132 @@
+package com.riyura.backend.common.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.riyura.backend.common.config.CacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * In-process L1 tier in front of Redis for {@code CacheStampedeGuard} keys.
+ * One bounded Caffeine (W-TinyLFU) cache per namespace, weighed by the
+ * serialized payload size. Entries never outlive their Redis TTL and are
+ * additionally capped at {@code riyura.cache.near-cache.max-ttl} so a missed
+ * invalidation message can only ever serve a briefly outdated value.
+ * Cached objects are shared between callers and must be treated as read-only.
+ */
+@Slf4j
+@Component
+public class NearCache {
+
+    private final CacheProperties.Near properties;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Cache<String, Entry>> namespaces = new ConcurrentHashMap<>();
+    // Consulted on a miss while a warm-restart snapshot is being restored
+    private volatile Function<String, Entry> restorer;
+
+    public NearCache(CacheProperties cacheProperties, MeterRegistry meterRegistry) {
+        this.properties = cacheProperties.nearCache();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Entry get(String key) {
+        if (!properties.enabled())
+            return null;
+        Cache<String, Entry> cache = cacheFor(CacheKeys.namespace(key));
+        Entry entry = cache.getIfPresent(key);
+        Function<String, Entry> source = restorer;
+        if (entry == null && source != null) {
+            entry = source.apply(key);
+            if (entry != null)
+                cache.put(key, entry);
+        }
+        return entry;
+    }
+
+    public void put(String key, Entry entry) {
+        if (!properties.enabled() || entry == null || entry.value() == null)
+            return;
+        cacheFor(CacheKeys.namespace(key)).put(key, entry);
+    }
+
+    public void invalidate(String key) {
+        Cache<String, Entry> cache = namespaces.get(CacheKeys.namespace(key));
+        if (cache != null)
+            cache.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        namespaces.values().forEach(Cache::invalidateAll);
+    }
+
+    // Source of entries restored lazily on a miss; null once it has nothing left to give
+    public void restoreFrom(Function<String, Entry> restorer) {
+        this.restorer = restorer;
+    }
+
+    /**
+     * The hottest entries of every namespace within {@code maxBytes} in total,
+     * each namespace getting a share proportional to its size budget. Each
+     * entry's {@code expiresAtMs} is the moment it leaves the near cache, so
+     * the max-ttl cap still holds after it is restored elsewhere.
+     */
+    public List<Map.Entry<String, Entry>> hottest(long maxBytes) {
+        List<Map.Entry<String, Entry>> hottest = new ArrayList<>();
+        long totalBudget = namespaces.keySet().stream().mapToLong(properties::maxBytesFor).sum();
+        long now = System.currentTimeMillis();
+        namespaces.forEach((namespace, cache) -> {
+            long share = totalBudget > 0 ? maxBytes * properties.maxBytesFor(namespace) / totalBudget : 0;
+            var expiry = cache.policy().expireVariably().orElseThrow();
+            cache.policy().eviction().orElseThrow().hottestWeighted(share).forEach((key, entry) -> {
+                var remaining = expiry.getExpiresAfter(key, TimeUnit.MILLISECONDS);
+                if (remaining.isPresent() && remaining.getAsLong() > 0)
+                    hottest.add(Map.entry(key, new Entry(entry.value(), entry.weight(),
+                            now + remaining.getAsLong(), entry.softExpiresAtMs(), entry.deltaMs())));
+            });
+        });
+        return hottest;
+    }
+
+    // Lazily builds the bounded cache for a namespace and binds its hit/miss metrics
+    private Cache<String, Entry> cacheFor(String namespace) {
+        return namespaces.computeIfAbsent(namespace, ns -> {
+            Cache<String, Entry> cache = Caffeine.newBuilder()
+                    .maximumWeight(properties.maxBytesFor(ns))
+                    .weigher((String key, Entry entry) -> Math.max(1, entry.weight()))
+                    .expireAfter(Expiry.writing((String key, Entry entry) -> lifetimeOf(entry)))
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, ns, "tier", "near");
+            log.debug("NearCache: initialised namespace '{}' with {} bytes", ns, properties.maxBytesFor(ns));
+            return cache;
+        });
+    }
+
+    private Duration lifetimeOf(Entry entry) {
+        long remainingMs = entry.expiresAtMs() - System.currentTimeMillis();
+        if (remainingMs <= 0)
+            return Duration.ZERO;
+        return Duration.ofMillis(Math.min(remainingMs, properties.maxTtl().toMillis()));
+    }
+
+    /**
+     * @param value          deserialized cached value
+     * @param weight         serialized payload size in bytes
+     * @param expiresAtMs    epoch millis at which the Redis entry expires
+     * @param softExpiresAtMs epoch millis at which an SWR entry turns stale (0 for XFetch)
+     * @param deltaMs        last observed recompute time, used by XFetch
+     */
+    public record Entry(Object value, int weight, long expiresAtMs, long softExpiresAtMs, double deltaMs) {
+    }
+}
@@ -0,0 +1,273 @@
+package com.riyura.backend.common.cache;
+
+import com.riyura.backend.common.config.CacheProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Warm-restart snapshot of the {@link NearCache}. On graceful shutdown the
+ * hottest entries of every namespace, up to
+ * {@code riyura.cache.near-cache.snapshot.max-size}, are written to a local
+ * file; on the next boot that file is memory-mapped and indexed, and entries
+ * are decoded lazily the first time a lookup misses the near cache. Each
+ * record carries the moment it would have left the near cache, so restored
+ * entries are never served past the usual max-ttl bound and a long outage
+ * restores nothing. Every record has its own CRC32C: a torn or corrupt record
+ * is skipped rather than poisoning the rest of the file.
+ * <p>
+ * Layout: {@code magic:int version:int createdAtMs:long}, then per record
+ * {@code length:int crc32c:int payload}, where the payload is
+ * {@code expiresAtMs:long softExpiresAtMs:long deltaMs:double weight:int
+ * keyLength:short key value}.
+ */
+@Slf4j
+@Component
+public class NearCacheSnapshot {
+
+    private static final int MAGIC = 0x524E4353; // "RNCS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 8;
+    // Fixed part of a payload before the key bytes
+    private static final int PAYLOAD_FIXED_BYTES = 8 + 8 + 8 + 4 + 2;
+    private static final int WRITE_BUFFER_BYTES = 256 * 1024;
+
+    private final NearCache nearCache;
+    private final RedisSerializer<Object> valueSerializer;
+    private final CacheProperties.Near.Snapshot config;
+    private final boolean enabled;
+
+    // Key -> record offset in the mapped file, drained as entries are restored
+    private final Map<String, Integer> index = new ConcurrentHashMap<>();
+    private volatile MappedByteBuffer mapped;
+
+    @SuppressWarnings("unchecked")
+    public NearCacheSnapshot(NearCache nearCache, RedisTemplate<String, Object> redisTemplate,
+            CacheProperties cacheProperties) {
+        this.nearCache = nearCache;
+        this.valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        this.config = cacheProperties.nearCache().snapshot();
+        this.enabled = config.enabled() && cacheProperties.nearCache().enabled();
+    }
+
+    // Maps and indexes the previous run's snapshot; values stay encoded until first asked for
+    @PostConstruct
+    void load() {
+        if (!enabled)
+            return;
+        Path path = Path.of(config.path());
+        if (!Files.isRegularFile(path))
+            return;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            long latestExpiry = index(buffer);
+            if (!index.isEmpty()) {
+                mapped = buffer;
+                nearCache.restoreFrom(this::restore);
+                scheduleRelease(latestExpiry);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("NearCacheSnapshot: could not read '{}': {}", path, e.getMessage());
+            index.clear();
+        } finally {
+            // A snapshot is restored at most once; a crash later must not resurrect it
+            deleteQuietly(path);
+        }
+    }
+
+    // Fills the index with live records and returns the latest expiry among them
+    private long index(ByteBuffer buffer) {
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            log.warn("NearCacheSnapshot: '{}' is not a snapshot of this format, ignoring it", config.path());
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        long latestExpiry = 0;
+        int expired = 0;
+        int position = HEADER_BYTES;
+        while (position + RECORD_HEADER_BYTES <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            int payload = position + RECORD_HEADER_BYTES;
+            if (length < PAYLOAD_FIXED_BYTES || payload + length > buffer.limit())
+                break; // Truncated tail; everything before it is still good
+            long expiresAtMs = buffer.getLong(payload);
+            int keyLength = Short.toUnsignedInt(buffer.getShort(payload + PAYLOAD_FIXED_BYTES - 2));
+            if (expiresAtMs <= now) {
+                expired++;
+            } else if (PAYLOAD_FIXED_BYTES + keyLength <= length) {
+                byte[] key = new byte[keyLength];
+                buffer.get(payload + PAYLOAD_FIXED_BYTES, key);
+                index.put(new String(key, StandardCharsets.UTF_8), position);
+                latestExpiry = Math.max(latestExpiry, expiresAtMs);
+            }
+            position = payload + length;
+        }
+        log.info("NearCacheSnapshot: indexed {} entries from '{}' ({} already expired)", index.size(),
+                config.path(), expired);
+        return latestExpiry;
+    }
+
+    // Decodes one indexed entry; null when it is unknown, expired, corrupt or no longer decodes
+    private NearCache.Entry restore(String key) {
+        Integer position = index.remove(key);
+        MappedByteBuffer buffer = mapped;
+        if (position == null || buffer == null)
+            return null;
+        try {
+            int length = buffer.getInt(position);
+            int crc = buffer.getInt(position + 4);
+            ByteBuffer payload = buffer.slice(position + RECORD_HEADER_BYTES, length);
+            CRC32C checksum = new CRC32C();
+            checksum.update(payload.duplicate());
+            if ((int) checksum.getValue() != crc) {
+                log.debug("NearCacheSnapshot: checksum mismatch for '{}', skipping it", key);
+                return null;
+            }
+            long expiresAtMs = payload.getLong(0);
+            if (expiresAtMs <= System.currentTimeMillis())
+                return null;
+            long softExpiresAtMs = payload.getLong(8);
+            double deltaMs = payload.getDouble(16);
+            int weight = payload.getInt(24);
+            int valueOffset = PAYLOAD_FIXED_BYTES + Short.toUnsignedInt(payload.getShort(28));
+            byte[] raw = new byte[length - valueOffset];
+            payload.get(valueOffset, raw);
+            Object value = valueSerializer.deserialize(raw);
+            return value == null ? null : new NearCache.Entry(value, weight, expiresAtMs, softExpiresAtMs, deltaMs);
+        } catch (Exception e) {
+            // Typically a DTO that changed shape since the snapshot was taken
+            log.debug("NearCacheSnapshot: could not restore '{}': {}", key, e.getMessage());
+            return null;
+        } finally {
+            if (index.isEmpty())
+                release();
+        }
+    }
+
+    // Drops whatever was never asked for once the last indexed entry would have expired anyway
+    private void scheduleRelease(long latestExpiry) {
+        Thread.ofVirtual().name("near-cache-snapshot").start(() -> {
+            try {
+                Thread.sleep(Math.max(0, latestExpiry - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release();
+        });
+    }
+
+    private void release() {
+        if (mapped == null)
+            return;
+        nearCache.restoreFrom(null);
+        mapped = null;
+        index.clear();
+    }
+
+    // Writes the hottest entries to a temporary file and moves it into place
+    @PreDestroy
+    void save() {
+        if (!enabled)
+            return;
+        release();
+        Path path = Path.of(config.path());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        long startedAt = System.currentTimeMillis();
+        int written = 0;
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            List<Map.Entry<String, NearCache.Entry>> hottest = nearCache.hottest(config.maxSize().toBytes());
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+                buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(startedAt);
+                for (Map.Entry<String, NearCache.Entry> entry : hottest) {
+                    byte[] record = encode(entry.getKey(), entry.getValue());
+                    if (record == null)
+                        continue;
+                    if (buffer.remaining() < record.length)
+                        drain(channel, buffer);
+                    if (buffer.remaining() < record.length)
+                        write(channel, ByteBuffer.wrap(record));
+                    else
+                        buffer.put(record);
+                    written++;
+                }
+                drain(channel, buffer);
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("NearCacheSnapshot: wrote {} entries to '{}' in {} ms", written, path,
+                    System.currentTimeMillis() - startedAt);
+        } catch (IOException | RuntimeException e) {
+            log.warn("NearCacheSnapshot: could not write '{}': {}", path, e.getMessage());
+            deleteQuietly(temp);
+        }
+    }
+
+    // One length-prefixed, checksummed record; null for keys too long or values that don't serialize
+    private byte[] encode(String key, NearCache.Entry entry) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > 0xFFFF)
+            return null;
+        byte[] raw;
+        try {
+            raw = valueSerializer.serialize(entry.value());
+        } catch (Exception e) {
+            return null;
+        }
+        if (raw == null)
+            return null;
+        int length = PAYLOAD_FIXED_BYTES + keyBytes.length + raw.length;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + length);
+        record.putInt(length).putInt(0)
+                .putLong(entry.expiresAtMs())
+                .putLong(entry.softExpiresAtMs())
+                .putDouble(entry.deltaMs())
+                .putInt(entry.weight())
+                .putShort((short) keyBytes.length)
+                .put(keyBytes)
+                .put(raw);
+        CRC32C checksum = new CRC32C();
+        checksum.update(record.array(), RECORD_HEADER_BYTES, length);
+        record.putInt(4, (int) checksum.getValue());
+        return record.array();
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        write(channel, buffer);
+        buffer.clear();
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("NearCacheSnapshot: could not delete '{}': {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.riyura.backend.common.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Cached marker for a value that does not exist upstream. {@code CacheStampedeGuard}
+ * stores it with a short per-namespace TTL and answers {@code null} for it, so
+ * repeated lookups of a missing id stay off the upstream API. Deliberately not
+ * final so the typed cache codec records its class id.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class NegativeCacheEntry {
+
+    // Upstream status that produced the entry, e.g. 404
+    private int status;
+}
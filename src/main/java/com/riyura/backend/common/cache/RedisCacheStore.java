@@ -0,0 +1,613 @@
+package com.riyura.backend.common.cache;
+
+import com.riyura.backend.common.config.CacheProperties;
+import com.riyura.backend.common.port.CacheStorePort;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import jakarta.annotation.PreDestroy;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Redis {@link CacheStorePort} behind {@code CacheStampedeGuard}. Each entry is one hash
+ * holding the serialized value together with its bookkeeping (computed-at,
+ * soft expiry, recompute delta and the recompute / refresh leases), replacing
+ * the former {@code :lock}, {@code :fresh}, {@code :refreshing} and
+ * {@code :delta} side keys. Entries live under hash-tagged keys
+ * ({@link CacheKeys#entry}), so every script call touches exactly one slot and
+ * runs unchanged on Redis Cluster.
+ * <p>
+ * Entries written before the tags are plain strings under the bare logical
+ * key, with {@code :delta} and {@code :fresh} side keys. For
+ * {@code riyura.cache.legacy-read-window} after startup (7 days, the longest
+ * TTL those entries were written with), an envelope miss on an XFetch or SWR
+ * read falls back to plain GET / PTTL commands on them (never the script,
+ * which only sees the tagged key). A hit is served, and the caller that won
+ * the recompute lease copies it into the envelope with its remaining TTL
+ * under that lease, so a deploy doesn't cold-miss the whole cache. Once the
+ * window has passed these reads stop, and the fallback can be removed in the
+ * release after.
+ * Leases carry a fencing token: release is compare-and-delete and a leased
+ * write is refused once a newer token has written the entry or taken over
+ * the lease. See {@code redis/cache-envelope.lua} for the field layout.
+ * <p>
+ * Reads also have non-blocking variants on a dedicated Lettuce connection:
+ * the returned futures complete on the Redis I/O thread, and commands issued
+ * back to back are pipelined on that connection without waiting for replies.
+ * Last-known-good copies are plain strings under {@code {<key>}:lkg}, in the
+ * entry's slot, and cache events travel over the {@code cache:events} pub/sub
+ * channel.
+ */
+@Component
+public class RedisCacheStore implements CacheStorePort {
+
+    // Side keys of untagged pre-envelope entries: :delta and :fresh are read while adopting an
+    // entry during the legacy window, and all of them are deleted along with the entry
+    public static final List<String> LEGACY_SUFFIXES = List.of(":delta", ":fresh", ":lock", ":refreshing");
+
+    static final String CHANNEL = "cache:events";
+
+    static final byte[] VALUE = bytes("v");
+    private static final byte[] DELTA = bytes("d");
+    private static final byte[] FINGERPRINT = bytes("h");
+    static final byte[][] META_FIELDS = {
+            bytes("ver"), bytes("at"), bytes("soft"), bytes("d"), bytes("lk"), bytes("rf") };
+
+    // Pass-through serializers: the guard decodes (and weighs) raw payloads itself
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static final RedisSerializer<List> RAW_REPLY = (RedisSerializer) RedisSerializer.byteArray();
+    // Integer replies pass through untouched; only bulk replies would hit this serializer
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static final RedisSerializer<Long> LONG_REPLY = (RedisSerializer) RedisSerializer.byteArray();
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static final RedisSerializer<Object> RAW_ARGS = (RedisSerializer) RedisSerializer.byteArray();
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> readScript = RedisScript.of(new ClassPathResource("redis/cache-envelope.lua"),
+            List.class);
+    private final RedisScript<Long> writeScript = RedisScript.of(new ClassPathResource("redis/cache-envelope.lua"),
+            Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final LettuceConnectionFactory connectionFactory;
+    // Epoch millis after which envelope misses no longer look for an untagged legacy entry
+    private final long legacyReadsUntilMs;
+
+    // Opened on first async use; the factory's native client only exists once it has started
+    private volatile StatefulConnection<byte[], byte[]> asyncConnection;
+    private volatile RedisClusterAsyncCommands<byte[], byte[]> asyncCommands;
+
+    public RedisCacheStore(RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer listenerContainer, LettuceConnectionFactory connectionFactory,
+            CacheProperties cacheProperties) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.connectionFactory = connectionFactory;
+        this.legacyReadsUntilMs = System.currentTimeMillis() + cacheProperties.legacyReadWindow().toMillis();
+    }
+
+    // XFetch read in one round trip; the script applies the early-recompute formula and takes the lease
+    @Override
+    public Read xfetch(String key, double factor, long leaseMs, double defaultDeltaMs) {
+        return orLegacy(key, false,
+                read(key, "xfetch", Double.toString(factor), Long.toString(leaseMs), Double.toString(defaultDeltaMs)));
+    }
+
+    // XFetch read as plain HMGET + PTTL, with a separate lease call only when a recompute is due
+    @Override
+    public Read xfetchWithCommands(String key, double factor, long leaseMs, double defaultDeltaMs) {
+        byte[] rawKey = bytes(CacheKeys.entry(key));
+        List<byte[]> fields = redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection
+                .hashCommands().hMGet(rawKey, VALUE, DELTA, FINGERPRINT));
+        Long pttl = redisTemplate.execute((RedisCallback<Long>) connection -> connection.keyCommands().pTtl(rawKey));
+
+        byte[] value = fields == null || fields.isEmpty() ? null : fields.get(0);
+        if (value == null) {
+            long token = acquire(key, Lease.RECOMPUTE, leaseMs);
+            return orLegacy(key, false, new Read(null, -2, defaultDeltaMs, 0, token > 0 ? 1 : -1, token, null));
+        }
+
+        long remainingTtlMs = pttl != null ? pttl : -2;
+        double deltaMs = parseDelta(fields.size() > 1 ? fields.get(1) : null, defaultDeltaMs);
+        long token = 0;
+        if (remainingTtlMs > 0 && deltaMs * factor >= remainingTtlMs) {
+            token = acquire(key, Lease.RECOMPUTE, leaseMs);
+        }
+        String fingerprint = fields.size() > 2 && fields.get(2) != null
+                ? new String(fields.get(2), StandardCharsets.UTF_8)
+                : null;
+        return new Read(value, remainingTtlMs, deltaMs, 0, token > 0 ? 1 : token, token, fingerprint);
+    }
+
+    // SWR read in one round trip; cold misses race for the recompute lease, stale hits for the refresh lease
+    @Override
+    public Read swr(String key, long leaseMs) {
+        return orLegacy(key, true, read(key, "swr", Long.toString(leaseMs)));
+    }
+
+    /**
+     * Refresh-ahead probe for a hot key: takes the refresh lease (SWR entries)
+     * or the recompute lease (XFetch entries) when the entry expires within
+     * {@code leadMs}. The reply carries no value; a missing entry never takes a
+     * lease.
+     */
+    @Override
+    public Read ahead(String key, long leadMs, long leaseMs) {
+        return read(key, "ahead", Long.toString(leadMs), Long.toString(leaseMs));
+    }
+
+    // Lease-free read of an entry; softRemainingMs is -1 for XFetch entries
+    @Override
+    public Read peek(String key) {
+        return read(key, "peek");
+    }
+
+    // Non-blocking counterpart of xfetch
+    @Override
+    public CompletableFuture<Read> xfetchAsync(String key, double factor, long leaseMs, double defaultDeltaMs) {
+        return readAsync(key, "xfetch", Double.toString(factor), Long.toString(leaseMs),
+                Double.toString(defaultDeltaMs))
+                .thenCompose(read -> orLegacyAsync(key, false, read));
+    }
+
+    // Non-blocking counterpart of swr
+    @Override
+    public CompletableFuture<Read> swrAsync(String key, long leaseMs) {
+        return readAsync(key, "swr", Long.toString(leaseMs))
+                .thenCompose(read -> orLegacyAsync(key, true, read));
+    }
+
+    /**
+     * Serialized values of several entries, read with one HGET per key pipelined
+     * on the async connection. Read-only: no leases are taken, so missing and
+     * lease-only entries are simply absent from the result. On Redis Cluster
+     * each HGET is routed to the node owning its slot.
+     */
+    @Override
+    public CompletableFuture<Map<String, byte[]>> getAll(Collection<String> keys) {
+        RedisClusterAsyncCommands<byte[], byte[]> commands = async();
+        Map<String, CompletableFuture<byte[]>> pending = new LinkedHashMap<>();
+        for (String key : keys) {
+            // Errors (e.g. a node failing over) are treated like a miss
+            pending.put(key, commands.hget(bytes(CacheKeys.entry(key)), VALUE).toCompletableFuture()
+                    .exceptionally(e -> null));
+        }
+
+        return CompletableFuture.allOf(pending.values().toArray(CompletableFuture[]::new))
+                .orTimeout(connectionFactory.getTimeout(), TimeUnit.MILLISECONDS)
+                .thenApply(ignored -> {
+                    Map<String, byte[]> values = new LinkedHashMap<>();
+                    pending.forEach((key, future) -> {
+                        byte[] value = future.join();
+                        if (value != null)
+                            values.put(key, value);
+                    });
+                    return values;
+                });
+    }
+
+    // Fencing token of the acquired lease, or -1 when another caller holds it
+    @Override
+    public long acquire(String key, Lease lease, long leaseMs) {
+        Long token = redisTemplate.execute(writeScript, RAW_ARGS, LONG_REPLY, keys(key),
+                args("lock", field(lease), Long.toString(leaseMs)));
+        return token != null ? token : -1;
+    }
+
+    // Extends a held lease; false once it was taken over or the entry is gone
+    @Override
+    public boolean renew(String key, LeaseToken held, long leaseMs) {
+        Long renewed = redisTemplate.execute(writeScript, RAW_ARGS, LONG_REPLY, keys(key),
+                args("renew", field(held.lease()), Long.toString(held.token()), Long.toString(leaseMs)));
+        return renewed != null && renewed == 1;
+    }
+
+    /**
+     * Writes a fresh envelope, replacing whatever the entry held. A write under
+     * a lease is fenced: it is refused when a newer token already wrote the
+     * entry or another caller holds a live lease, and releases the writer's
+     * lease otherwise. Both TTLs are base TTLs, scaled by the entry's adaptive
+     * multiplier.
+     *
+     * @param fingerprint fingerprint of {@code value}, compared by later refreshes
+     * @param softTtl     soft expiry for SWR entries, {@code null} for XFetch entries
+     * @param held        lease the value was computed under, or {@code null} for an unfenced write
+     * @param adaptive    TTL multiplier bounds, or {@code null} to keep the TTLs as given
+     * @return the TTL multiplier applied, or 0 when the write was fenced off
+     */
+    @Override
+    public double write(String key, byte[] value, String fingerprint, Duration ttl, Duration softTtl, long deltaMs,
+            LeaseToken held, CacheProperties.AdaptiveTtl adaptive) {
+        Long factor = redisTemplate.execute(writeScript, RAW_ARGS, LONG_REPLY, keys(key),
+                refreshArgs("write", value, fingerprint, ttl, softTtl, deltaMs, held, adaptive));
+        return factor == null ? 1 : factor / 1000.0;
+    }
+
+    /**
+     * Refreshes an entry whose stored fingerprint matches without resending the
+     * payload: TTLs, computed-at and delta are updated, the lease released and
+     * the multiplier grown, exactly as a write of the same value would.
+     *
+     * @return the TTL multiplier applied, 0 when fenced off, or -1 when the
+     *         stored value differs and a full {@link #write} is needed
+     */
+    @Override
+    public double touch(String key, String fingerprint, Duration ttl, Duration softTtl, long deltaMs,
+            LeaseToken held, CacheProperties.AdaptiveTtl adaptive) {
+        Long factor = redisTemplate.execute(writeScript, RAW_ARGS, LONG_REPLY, keys(key),
+                refreshArgs("touch", new byte[0], fingerprint, ttl, softTtl, deltaMs, held, adaptive));
+        if (factor == null || factor < 0)
+            return -1;
+        return factor / 1000.0;
+    }
+
+    private static Object[] refreshArgs(String op, byte[] value, String fingerprint, Duration ttl,
+            Duration softTtl, long deltaMs, LeaseToken held, CacheProperties.AdaptiveTtl adaptive) {
+        boolean adapting = adaptive != null && adaptive.enabled();
+        return args(op, value, Long.toString(ttl.toMillis()),
+                Long.toString(softTtl != null ? softTtl.toMillis() : 0), Long.toString(deltaMs),
+                held != null ? field(held.lease()) : "", held != null ? Long.toString(held.token()) : "",
+                fingerprint != null ? fingerprint : "",
+                adapting ? adaptive.minFactor().toString() : "",
+                adapting ? adaptive.maxFactor().toString() : "",
+                adapting ? adaptive.growth().toString() : "",
+                adapting ? adaptive.shrink().toString() : "");
+    }
+
+    // Compare-and-delete: only removes the lease while it is still held under the caller's token
+    @Override
+    public void release(String key, LeaseToken held) {
+        redisTemplate.execute(writeScript, RAW_ARGS, LONG_REPLY, keys(key),
+                args("release", field(held.lease()), Long.toString(held.token())));
+    }
+
+    // True once the entry holds a value (a lease-only entry means a fill is still in flight)
+    @Override
+    public boolean hasValue(String key) {
+        Long has = redisTemplate.execute(writeScript, RAW_ARGS, LONG_REPLY, keys(key), args("has"));
+        return has != null && has == 1;
+    }
+
+    // Deletes the entries along with any untagged leftovers; Lettuce splits the DEL per slot on Redis Cluster
+    @Override
+    public Long delete(Collection<String> keys) {
+        List<String> all = new ArrayList<>();
+        keys.forEach(key -> {
+            all.add(CacheKeys.entry(key));
+            all.add(key);
+            LEGACY_SUFFIXES.forEach(suffix -> all.add(key + suffix));
+        });
+        return redisTemplate.delete(all);
+    }
+
+    /**
+     * Envelope metadata for the cache monitor, or {@code null} when the key is
+     * not an envelope hash. The value bytes are only fetched on request.
+     */
+    public Envelope inspect(String key, boolean withValue) {
+        byte[] rawKey = bytes(CacheKeys.entry(key));
+        return redisTemplate.execute((RedisCallback<Envelope>) connection -> {
+            if (connection.keyCommands().type(rawKey) != DataType.HASH)
+                return null;
+            List<byte[]> meta = connection.hashCommands().hMGet(rawKey, META_FIELDS);
+            if (meta == null || meta.get(0) == null)
+                return null;
+            byte[] value = withValue ? connection.hashCommands().hGet(rawKey, VALUE) : null;
+            Long valueBytes = connection.hashCommands().hStrLen(rawKey, VALUE);
+            return envelope(meta, valueBytes != null ? valueBytes : 0, value);
+        });
+    }
+
+    // Envelope from the META_FIELDS of a hash, in order
+    static Envelope envelope(List<byte[]> meta, long valueBytes, byte[] value) {
+        return new Envelope(
+                (int) parseLong(meta.get(0)),
+                parseLong(meta.get(1)),
+                parseLong(meta.get(2)),
+                parseDelta(meta.get(3), 0),
+                parseLong(meta.get(4)),
+                parseLong(meta.get(5)),
+                valueBytes,
+                value);
+    }
+
+    private Read read(String key, String op, String... params) {
+        Object[] arguments = new Object[params.length + 1];
+        arguments[0] = bytes(op);
+        for (int i = 0; i < params.length; i++)
+            arguments[i + 1] = bytes(params[i]);
+
+        return toRead(redisTemplate.execute(readScript, RAW_ARGS, RAW_REPLY, keys(key), arguments));
+    }
+
+    // Script reply: value, pttl, delta, decision, soft remaining, fencing token, fingerprint
+    private static Read toRead(List<?> reply) {
+        if (reply == null || reply.size() < 6) {
+            return new Read(null, -2, 0, 0, -1, 0, null);
+        }
+        return new Read(
+                reply.get(0) instanceof byte[] raw ? raw : null,
+                reply.get(1) instanceof Number n ? n.longValue() : -2,
+                parseDelta(reply.get(2), Double.NaN),
+                reply.get(4) instanceof Number n ? n.longValue() : 0,
+                reply.get(3) instanceof Number n ? n.longValue() : -1,
+                reply.get(5) instanceof Number n ? n.longValue() : 0,
+                reply.size() > 6 && reply.get(6) instanceof byte[] h ? new String(h, StandardCharsets.UTF_8) : null);
+    }
+
+    // Envelope read on the async connection
+    private CompletableFuture<Read> readAsync(String key, String op, String... params) {
+        byte[][] arguments = new byte[params.length + 1][];
+        arguments[0] = bytes(op);
+        for (int i = 0; i < params.length; i++)
+            arguments[i + 1] = bytes(params[i]);
+
+        return this.<List<?>>evalAsync(readScript, ScriptOutputType.MULTI, key, arguments)
+                .thenApply(RedisCacheStore::toRead);
+    }
+
+    // EVALSHA on the async connection, falling back to EVAL the first time a node hasn't cached the script
+    private <R> CompletableFuture<R> evalAsync(RedisScript<?> script, ScriptOutputType type, String key,
+            Object[] arguments) {
+        byte[][] rawKeys = keys(key).stream().map(RedisCacheStore::bytes).toArray(byte[][]::new);
+        byte[][] rawArguments = new byte[arguments.length][];
+        for (int i = 0; i < arguments.length; i++)
+            rawArguments[i] = (byte[]) arguments[i];
+
+        RedisClusterAsyncCommands<byte[], byte[]> commands = async();
+        CompletableFuture<R> reply = commands.<R>evalsha(script.getSha1(), type, rawKeys, rawArguments)
+                .toCompletableFuture();
+        return reply
+                .exceptionallyCompose(e -> unwrap(e) instanceof RedisNoScriptException
+                        ? commands.<R>eval(script.getScriptAsString(), type, rawKeys, rawArguments)
+                                .toCompletableFuture()
+                        : CompletableFuture.failedFuture(e))
+                .orTimeout(connectionFactory.getTimeout(), TimeUnit.MILLISECONDS);
+    }
+
+    // Envelope miss inside the legacy window: serve the untagged entry, adopting it under a won lease
+    private Read orLegacy(String key, boolean swr, Read read) {
+        if (!legacyReadable(read))
+            return read;
+        Legacy legacy;
+        try {
+            legacy = redisTemplate.execute((RedisCallback<Legacy>) connection -> {
+                byte[] value = connection.stringCommands().get(bytes(key));
+                if (value == null)
+                    return null;
+                return Legacy.of(value, connection.keyCommands().pTtl(bytes(key)),
+                        swr ? connection.keyCommands().pTtl(bytes(key + ":fresh")) : null,
+                        connection.stringCommands().get(bytes(key + ":delta")));
+            });
+        } catch (Exception e) {
+            // Not a string (or Redis hiccup) — nothing to adopt
+            return read;
+        }
+        if (legacy == null)
+            return read;
+        if (read.token() > 0)
+            write(key, legacy.value(), legacy.fingerprint(), legacy.ttl(), legacy.softTtl(swr),
+                    legacy.deltaMs(0), new LeaseToken(Lease.RECOMPUTE, read.token()), null);
+        return legacy.toRead(swr, read.deltaMs());
+    }
+
+    // Async counterpart of orLegacy: the GET / PTTL commands and the adopting write are pipelined
+    private CompletableFuture<Read> orLegacyAsync(String key, boolean swr, Read read) {
+        if (!legacyReadable(read))
+            return CompletableFuture.completedFuture(read);
+        RedisClusterAsyncCommands<byte[], byte[]> commands = async();
+        CompletableFuture<byte[]> value = commands.get(bytes(key)).toCompletableFuture();
+        CompletableFuture<Long> pttl = commands.pttl(bytes(key)).toCompletableFuture();
+        CompletableFuture<Long> fresh = swr ? commands.pttl(bytes(key + ":fresh")).toCompletableFuture()
+                : CompletableFuture.completedFuture(null);
+        CompletableFuture<byte[]> delta = commands.get(bytes(key + ":delta")).toCompletableFuture();
+
+        return CompletableFuture.allOf(value, pttl, fresh, delta)
+                .orTimeout(connectionFactory.getTimeout(), TimeUnit.MILLISECONDS)
+                .thenApply(ignored -> Legacy.of(value.join(), pttl.join(), fresh.join(), delta.join()))
+                .exceptionally(e -> null)
+                .thenCompose(legacy -> {
+                    if (legacy == null)
+                        return CompletableFuture.completedFuture(read);
+                    if (read.token() <= 0)
+                        return CompletableFuture.completedFuture(legacy.toRead(swr, read.deltaMs()));
+                    Object[] arguments = refreshArgs("write", legacy.value(), legacy.fingerprint(), legacy.ttl(),
+                            legacy.softTtl(swr), legacy.deltaMs(0), new LeaseToken(Lease.RECOMPUTE, read.token()),
+                            null);
+                    return evalAsync(writeScript, ScriptOutputType.INTEGER, key, arguments)
+                            .handle((written, e) -> legacy.toRead(swr, read.deltaMs()));
+                });
+    }
+
+    private boolean legacyReadable(Read read) {
+        return read.value() == null && System.currentTimeMillis() < legacyReadsUntilMs;
+    }
+
+    private RedisClusterAsyncCommands<byte[], byte[]> async() {
+        RedisClusterAsyncCommands<byte[], byte[]> commands = asyncCommands;
+        if (commands != null)
+            return commands;
+        synchronized (this) {
+            if (asyncCommands == null) {
+                Object nativeClient = connectionFactory.getNativeClient();
+                if (nativeClient instanceof RedisClusterClient clusterClient) {
+                    StatefulRedisClusterConnection<byte[], byte[]> connection = clusterClient
+                            .connect(ByteArrayCodec.INSTANCE);
+                    asyncConnection = connection;
+                    asyncCommands = connection.async();
+                } else if (nativeClient instanceof RedisClient standaloneClient) {
+                    StatefulRedisConnection<byte[], byte[]> connection = standaloneClient
+                            .connect(ByteArrayCodec.INSTANCE);
+                    asyncConnection = connection;
+                    asyncCommands = connection.async();
+                } else {
+                    throw new IllegalStateException("Unsupported Lettuce native client type ["
+                            + (nativeClient == null ? "null" : nativeClient.getClass().getName()) + "]");
+                }
+            }
+            return asyncCommands;
+        }
+    }
+
+    @Override
+    public void saveLastKnownGood(String key, byte[] value, Duration ttl) {
+        byte[] rawKey = bytes(CacheKeys.lastKnownGood(key));
+        redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands()
+                .set(rawKey, value, Expiration.from(ttl), RedisStringCommands.SetOption.upsert()));
+    }
+
+    @Override
+    public void touchLastKnownGood(String key, Duration ttl) {
+        redisTemplate.expire(CacheKeys.lastKnownGood(key), ttl);
+    }
+
+    @Override
+    public byte[] loadLastKnownGood(String key) {
+        byte[] rawKey = bytes(CacheKeys.lastKnownGood(key));
+        return redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(rawKey));
+    }
+
+    @Override
+    public void deleteLastKnownGood(String key) {
+        redisTemplate.delete(CacheKeys.lastKnownGood(key));
+    }
+
+    @Override
+    public void publish(String message) {
+        stringRedisTemplate.convertAndSend(CHANNEL, message);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> listener.accept(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CHANNEL));
+    }
+
+    @PreDestroy
+    void closeAsyncConnection() {
+        StatefulConnection<byte[], byte[]> connection = asyncConnection;
+        if (connection != null)
+            connection.close();
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    // The script's only key, so every call stays within one cluster slot
+    private static List<String> keys(String key) {
+        return List.of(CacheKeys.entry(key));
+    }
+
+    // Script arguments travel as raw bytes so serialized values are passed through unchanged
+    private static Object[] args(Object... values) {
+        Object[] raw = new Object[values.length];
+        for (int i = 0; i < values.length; i++)
+            raw[i] = values[i] instanceof String s ? bytes(s) : values[i];
+        return raw;
+    }
+
+    private static double parseDelta(Object raw, double fallback) {
+        if (raw instanceof byte[] bytes) {
+            try {
+                return Double.parseDouble(new String(bytes, StandardCharsets.UTF_8).trim());
+            } catch (NumberFormatException ignored) {
+                // Fall through to the fallback delta
+            }
+        }
+        return fallback;
+    }
+
+    private static long parseLong(byte[] raw) {
+        if (raw == null)
+            return 0;
+        try {
+            return Long.parseLong(new String(raw, StandardCharsets.UTF_8).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Hash field of a lease in the envelope
+    private static String field(Lease lease) {
+        return lease == Lease.RECOMPUTE ? "lk" : "rf";
+    }
+
+    // An untagged pre-cluster entry: its value, remaining TTL, soft window (SWR) and recompute delta
+    private record Legacy(byte[] value, long pttlMs, long freshMs, double deltaMs) {
+
+        // Null unless the value is still alive with a TTL, which every guarded write set
+        static Legacy of(byte[] value, Long pttl, Long fresh, byte[] delta) {
+            if (value == null || pttl == null || pttl <= 0)
+                return null;
+            return new Legacy(value, pttl, fresh != null && fresh > 0 ? fresh : 0, parseDelta(delta, Double.NaN));
+        }
+
+        String fingerprint() {
+            return CacheStorePort.fingerprint(value);
+        }
+
+        Duration ttl() {
+            return Duration.ofMillis(pttlMs);
+        }
+
+        // An already stale SWR entry gets a 1 ms soft window, so its next read schedules a refresh
+        Duration softTtl(boolean swr) {
+            return swr ? Duration.ofMillis(Math.max(1, freshMs)) : null;
+        }
+
+        long deltaMs(long fallback) {
+            return Double.isNaN(deltaMs) ? fallback : (long) deltaMs;
+        }
+
+        // Served like an envelope hit that needs nothing further
+        Read toRead(boolean swr, double fallbackDeltaMs) {
+            return new Read(value, pttlMs, Double.isNaN(deltaMs) ? fallbackDeltaMs : deltaMs, swr ? freshMs : 0,
+                    0, 0, fingerprint());
+        }
+    }
+
+    /**
+     * Envelope metadata as stored in Redis; all timestamps are epoch millis on the Redis clock.
+     */
+    public record Envelope(int version, long computedAtMs, long softExpiresAtMs, double deltaMs,
+            long lockedUntilMs, long refreshingUntilMs, long valueBytes, byte[] value) {
+    }
+}
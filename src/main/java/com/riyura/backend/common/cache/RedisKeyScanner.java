@@ -0,0 +1,36 @@
+package com.riyura.backend.common.cache;
+
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.util.function.Consumer;
+
+/**
+ * Topology-aware SCAN. A SCAN cursor only walks the keyspace of the node it
+ * was issued on, so on Redis Cluster every master is scanned in turn;
+ * standalone and Sentinel connections use a single cursor.
+ */
+public final class RedisKeyScanner {
+
+    private RedisKeyScanner() {
+    }
+
+    public static void forEachKey(RedisConnection connection, ScanOptions options, Consumer<byte[]> action) {
+        if (connection instanceof RedisClusterConnection cluster) {
+            for (RedisClusterNode node : cluster.clusterGetNodes()) {
+                if (!node.isMaster())
+                    continue;
+                try (Cursor<byte[]> cursor = cluster.scan(node, options)) {
+                    cursor.forEachRemaining(action);
+                }
+            }
+            return;
+        }
+        try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+            cursor.forEachRemaining(action);
+        }
+    }
+}
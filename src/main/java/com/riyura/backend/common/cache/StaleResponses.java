@@ -0,0 +1,31 @@
+package com.riyura.backend.common.cache;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Marks the current HTTP response as served from the last-known-good tier;
+ * {@link StaleResponseAdvice} turns the mark into an {@code X-Cache-Stale}
+ * header. The mark is a request attribute, so it only reaches the response
+ * when the lookup runs with the request's attributes bound to its thread. It
+ * is set on the servlet request itself, because a controller that returns a
+ * future has already left its initial dispatch, and Spring rejects attribute
+ * writes through the request attributes after that point.
+ */
+public final class StaleResponses {
+
+    public static final String HEADER = "X-Cache-Stale";
+    static final String ATTRIBUTE = StaleResponses.class.getName() + ".stale";
+
+    private StaleResponses() {
+    }
+
+    public static void mark() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servlet)
+            servlet.getRequest().setAttribute(ATTRIBUTE, Boolean.TRUE);
+        else if (attributes != null)
+            attributes.setAttribute(ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+    }
+}
@@ -0,0 +1,71 @@
+package com.riyura.backend.common.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Per-user cache generation counter. User-scoped {@code @Cacheable} keys embed
+ * the current generation via SpEL ({@code @userCacheGenerations.current(#userId)}),
+ * so a single INCR makes every cached page of that user's watchlist, history
+ * and recommendations unreachable at once; the orphaned entries simply age out
+ * on their TTL. Reads slide the counter's TTL so it can only expire once every
+ * entry written under it is long gone, which keeps generations from repeating.
+ */
+@Slf4j
+@Component("userCacheGenerations")
+public class UserCacheGenerations {
+
+    private static final String KEY_PREFIX = "cachegen:";
+    // Comfortably longer than the largest user-cache TTL (1 day + 20 % jitter)
+    private static final Duration GENERATION_TTL = Duration.ofDays(30);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    public UserCacheGenerations(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    // Current generation for the user's caches; 0 until the first invalidation
+    public long current(UUID userId) {
+        String value = stringRedisTemplate.opsForValue().getAndExpire(KEY_PREFIX + userId, GENERATION_TTL);
+        if (value == null)
+            return 0;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // Invalidate every user-scoped cache entry for the user with one INCR, after the
+    // surrounding transaction commits so readers can't re-cache pre-commit rows
+    public void bump(UUID userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(userId);
+                }
+            });
+            return;
+        }
+        increment(userId);
+    }
+
+    private void increment(UUID userId) {
+        String key = KEY_PREFIX + userId;
+        try {
+            stringRedisTemplate.opsForValue().increment(key);
+            stringRedisTemplate.expire(key, GENERATION_TTL);
+        } catch (Exception e) {
+            // Entries written under the old generation stay reachable until their TTL
+            log.warn("UserCacheGenerations: failed to bump generation for user {}: {}", userId, e.getMessage());
+        }
+    }
+}
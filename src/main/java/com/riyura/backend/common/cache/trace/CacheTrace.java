@@ -0,0 +1,166 @@
+package com.riyura.backend.common.cache.trace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Binary format of the cache access trace shared by {@link CacheTraceRecorder}
+ * and {@link CacheTraceSimulator}. A trace is a ring of segment files
+ * ({@code trace-<n>.bin}), each starting with
+ * {@code magic:int version:int createdAtMs:long} followed by records:
+ * <ul>
+ * <li>namespace definition: {@code type=2:byte 0:byte id:short length:short name}.
+ * Every segment repeats the definitions it uses, so each segment reads on its
+ * own after older ones were overwritten.</li>
+ * <li>event: {@code type=1:byte flags:byte namespace:short sizeBytes:int
+ * timestampMs:long keyHash:long loaderMicros:int ttlSeconds:int
+ * softTtlSeconds:int}, 36 bytes. The low nibble of the flags is the
+ * {@link Outcome}; loads of an unchanged value set {@link #FLAG_UNCHANGED}.</li>
+ * </ul>
+ * Keys are stored as a 64-bit hash only.
+ */
+public final class CacheTrace {
+
+    static final int MAGIC = 0x52435452; // "RCTR"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final byte TYPE_EVENT = 1;
+    static final byte TYPE_NAMESPACE = 2;
+    static final int EVENT_BYTES = 36;
+    static final int FLAG_UNCHANGED = 0x10;
+    static final String SEGMENT_PREFIX = "trace-";
+    static final String SEGMENT_SUFFIX = ".bin";
+
+    private CacheTrace() {
+    }
+
+    /**
+     * What a traced event was. Hits and misses are guarded lookups; a load is a
+     * value written to Redis after the loader ran, whether for a miss, an early
+     * recompute or a background refresh, and carries the loader time and TTLs.
+     */
+    public enum Outcome {
+        NEAR_HIT, REDIS_HIT, MISS, LOAD;
+
+        static Outcome of(int code) {
+            Outcome[] values = values();
+            return code >= 0 && code < values.length ? values[code] : null;
+        }
+    }
+
+    // One decoded event; TTLs are only set on loads, and softTtlSeconds stays 0 for XFetch entries
+    public record Event(Outcome outcome, String namespace, long keyHash, long timestampMs, int sizeBytes,
+            int loaderMicros, int ttlSeconds, int softTtlSeconds, boolean unchanged) {
+
+        public boolean isLookup() {
+            return outcome != Outcome.LOAD;
+        }
+    }
+
+    // 64-bit FNV-1a of the key, finished with a mix step so nearby keys spread over the whole range
+    public static long hash(String key) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        return hash ^ (hash >>> 33);
+    }
+
+    static Path segment(Path directory, int index) {
+        return directory.resolve(SEGMENT_PREFIX + index + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Replays every event in the trace directory, oldest segment first. A torn
+     * record at the end of a segment (the one being written when the trace was
+     * copied) ends that segment.
+     */
+    public static void read(Path directory, Consumer<Event> consumer) throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).toList();
+        }
+        List<Map.Entry<Path, Long>> ordered = new ArrayList<>();
+        for (Path segment : segments) {
+            long createdAt = createdAt(segment);
+            if (createdAt > 0)
+                ordered.add(Map.entry(segment, createdAt));
+        }
+        ordered.sort(Map.Entry.comparingByValue(Comparator.naturalOrder()));
+        for (Map.Entry<Path, Long> segment : ordered)
+            readSegment(segment.getKey(), consumer);
+    }
+
+    private static long createdAt(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) > 0) {
+                // keep reading until the header is complete or the file ends
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION)
+                return 0;
+            return header.getLong(8);
+        }
+    }
+
+    private static void readSegment(Path segment, Consumer<Event> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Map<Short, String> namespaces = new HashMap<>();
+            buffer.position(HEADER_BYTES);
+            while (buffer.remaining() >= 6) {
+                byte type = buffer.get(buffer.position());
+                if (type == TYPE_NAMESPACE) {
+                    int length = Short.toUnsignedInt(buffer.getShort(buffer.position() + 4));
+                    if (buffer.remaining() < 6 + length)
+                        return;
+                    buffer.get();
+                    buffer.get();
+                    short id = buffer.getShort();
+                    buffer.getShort();
+                    byte[] name = new byte[length];
+                    buffer.get(name);
+                    namespaces.put(id, new String(name, StandardCharsets.UTF_8));
+                } else if (type == TYPE_EVENT) {
+                    if (buffer.remaining() < EVENT_BYTES)
+                        return;
+                    buffer.get();
+                    int flags = buffer.get();
+                    short namespace = buffer.getShort();
+                    int size = buffer.getInt();
+                    long timestamp = buffer.getLong();
+                    long keyHash = buffer.getLong();
+                    int loaderMicros = buffer.getInt();
+                    int ttl = buffer.getInt();
+                    int softTtl = buffer.getInt();
+                    Outcome outcome = Outcome.of(flags & 0x0F);
+                    if (outcome != null)
+                        consumer.accept(new Event(outcome, namespaces.getOrDefault(namespace, "unknown"), keyHash,
+                                timestamp, size, loaderMicros, ttl, softTtl, (flags & FLAG_UNCHANGED) != 0));
+                } else {
+                    // Zero-filled or torn tail
+                    return;
+                }
+            }
+        }
+    }
+}
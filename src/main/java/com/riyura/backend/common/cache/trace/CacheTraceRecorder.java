@@ -0,0 +1,246 @@
+package com.riyura.backend.common.cache.trace;
+
+import com.riyura.backend.common.cache.CacheGuardMetrics.Tier;
+import com.riyura.backend.common.cache.CacheKeys;
+import com.riyura.backend.common.config.CacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opt-in recorder of {@code CacheStampedeGuard} accesses for offline replay
+ * with {@link CacheTraceSimulator}. Lookups only hand a small event to a
+ * bounded queue; a single writer thread appends them in the
+ * {@link CacheTrace} format to a ring of {@code segments} files of
+ * {@code segment-size} each, overwriting the oldest segment once the ring is
+ * full, so the trace never takes more than {@code segments × segment-size} on
+ * disk. When the writer falls behind, events are dropped and counted in
+ * {@code cache.trace.dropped} rather than slowing requests down.
+ */
+@Slf4j
+@Component
+public class CacheTraceRecorder {
+
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+    private final CacheProperties.Trace config;
+    private final boolean enabled;
+    private final long sampleThreshold;
+    private final BlockingQueue<Pending> queue;
+    private final Map<String, Short> namespaceIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextNamespaceId = new AtomicInteger();
+    private final Counter dropped;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public CacheTraceRecorder(CacheProperties cacheProperties, MeterRegistry meterRegistry) {
+        this.config = cacheProperties.trace();
+        this.enabled = config.enabled();
+        // Keys whose hash falls below this fraction of the range are traced
+        this.sampleThreshold = (long) (config.sampleRate() * (1L << 53));
+        this.queue = new ArrayBlockingQueue<>(config.bufferSize());
+        this.dropped = Counter.builder("cache.trace.dropped")
+                .description("Cache trace events dropped because the writer fell behind")
+                .register(meterRegistry);
+        this.writer = enabled ? Thread.ofVirtual().name("cache-trace-writer").start(this::writeLoop) : null;
+    }
+
+    public void hit(String key, Tier tier, int sizeBytes) {
+        record(key, tier == Tier.NEAR ? CacheTrace.Outcome.NEAR_HIT : CacheTrace.Outcome.REDIS_HIT, sizeBytes, 0,
+                null, null, false);
+    }
+
+    public void miss(String key) {
+        record(key, CacheTrace.Outcome.MISS, 0, 0, null, null, false);
+    }
+
+    // A value written after its loader ran; ttl and softTtl are the effective TTLs the entry got
+    public void load(String key, int sizeBytes, long loaderMs, Duration ttl, Duration softTtl, boolean unchanged) {
+        record(key, CacheTrace.Outcome.LOAD, sizeBytes, loaderMs, ttl, softTtl, unchanged);
+    }
+
+    private void record(String key, CacheTrace.Outcome outcome, int sizeBytes, long loaderMs, Duration ttl,
+            Duration softTtl, boolean unchanged) {
+        if (!enabled)
+            return;
+        long keyHash = CacheTrace.hash(key);
+        if ((keyHash >>> 11) >= sampleThreshold)
+            return;
+        int flags = outcome.ordinal() | (unchanged ? CacheTrace.FLAG_UNCHANGED : 0);
+        Pending event = new Pending((byte) flags, namespaceId(CacheKeys.namespace(key)), sizeBytes,
+                System.currentTimeMillis(), keyHash, (int) Math.min(Integer.MAX_VALUE, loaderMs * 1000),
+                seconds(ttl), seconds(softTtl));
+        if (!queue.offer(event))
+            dropped.increment();
+    }
+
+    private short namespaceId(String namespace) {
+        Short id = namespaceIds.get(namespace);
+        if (id != null)
+            return id;
+        return namespaceIds.computeIfAbsent(namespace, ignored -> (short) nextNamespaceId.getAndIncrement());
+    }
+
+    private static int seconds(Duration ttl) {
+        return ttl == null ? 0 : (int) Math.min(Integer.MAX_VALUE, ttl.toSeconds());
+    }
+
+    private void writeLoop() {
+        Segment segment = null;
+        int index = 0;
+        List<Pending> batch = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+        try {
+            Files.createDirectories(Path.of(config.directory()));
+            index = oldestSegment();
+            segment = Segment.open(Path.of(config.directory()), index);
+            while (running || !queue.isEmpty()) {
+                Pending first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+                queue.drainTo(batch);
+                for (Pending event : batch) {
+                    if (segment.position + buffer.position() + 256 > config.segmentSize().toBytes()) {
+                        segment.write(buffer);
+                        segment.close();
+                        index = (index + 1) % config.segments();
+                        segment = Segment.open(Path.of(config.directory()), index);
+                    }
+                    String namespace = segment.define(event.namespace, namespaceIds);
+                    if (namespace != null)
+                        putNamespace(buffer, event.namespace, namespace, segment);
+                    if (buffer.remaining() < CacheTrace.EVENT_BYTES)
+                        segment.write(buffer);
+                    putEvent(buffer, event);
+                }
+                batch.clear();
+                segment.write(buffer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            log.warn("CacheTraceRecorder: tracing stopped: {}", e.getMessage());
+            running = false;
+        } finally {
+            if (segment != null) {
+                try {
+                    segment.write(buffer);
+                    segment.close();
+                } catch (IOException e) {
+                    log.debug("CacheTraceRecorder: failed to close segment: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Continue the ring where the previous run left it: overwrite its oldest segment first
+    private int oldestSegment() throws IOException {
+        int oldest = 0;
+        long oldestModified = Long.MAX_VALUE;
+        for (int i = 0; i < config.segments(); i++) {
+            Path file = CacheTrace.segment(Path.of(config.directory()), i);
+            if (!Files.exists(file))
+                return i;
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            if (modified < oldestModified) {
+                oldestModified = modified;
+                oldest = i;
+            }
+        }
+        return oldest;
+    }
+
+    private void putNamespace(ByteBuffer buffer, short id, String namespace, Segment segment) throws IOException {
+        byte[] name = namespace.getBytes(StandardCharsets.UTF_8);
+        if (buffer.remaining() < 6 + name.length)
+            segment.write(buffer);
+        buffer.put(CacheTrace.TYPE_NAMESPACE).put((byte) 0).putShort(id).putShort((short) name.length).put(name);
+    }
+
+    private static void putEvent(ByteBuffer buffer, Pending event) {
+        buffer.put(CacheTrace.TYPE_EVENT)
+                .put(event.flags)
+                .putShort(event.namespace)
+                .putInt(event.sizeBytes)
+                .putLong(event.timestampMs)
+                .putLong(event.keyHash)
+                .putInt(event.loaderMicros)
+                .putInt(event.ttlSeconds)
+                .putInt(event.softTtlSeconds);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        if (writer != null)
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private record Pending(byte flags, short namespace, int sizeBytes, long timestampMs, long keyHash,
+            int loaderMicros, int ttlSeconds, int softTtlSeconds) {
+    }
+
+    // The segment file being appended to and the namespace definitions it already holds
+    private static final class Segment {
+        private final FileChannel channel;
+        private final Set<Short> defined = new HashSet<>();
+        private long position;
+
+        private Segment(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        static Segment open(Path directory, int index) throws IOException {
+            FileChannel channel = FileChannel.open(CacheTrace.segment(directory, index), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            Segment segment = new Segment(channel);
+            ByteBuffer header = ByteBuffer.allocate(CacheTrace.HEADER_BYTES);
+            header.putInt(CacheTrace.MAGIC).putInt(CacheTrace.FORMAT_VERSION).putLong(System.currentTimeMillis());
+            segment.write(header);
+            return segment;
+        }
+
+        // Name of a namespace this segment hasn't defined yet, or null when it already has
+        String define(short id, Map<String, Short> namespaceIds) {
+            if (!defined.add(id))
+                return null;
+            for (Map.Entry<String, Short> namespace : namespaceIds.entrySet())
+                if (namespace.getValue() == id)
+                    return namespace.getKey();
+            return "unknown";
+        }
+
+        void write(ByteBuffer buffer) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining())
+                position += channel.write(buffer);
+            buffer.clear();
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
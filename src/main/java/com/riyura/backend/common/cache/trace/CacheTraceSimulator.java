@@ -0,0 +1,400 @@
+package com.riyura.backend.common.cache.trace;
+
+import com.riyura.backend.common.cache.FrequencySketch;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Offline replay of a {@link CacheTraceRecorder} trace against alternative
+ * cache configurations, for tuning TTLs, the XFetch beta and the near-cache
+ * size without experimenting in production. Every lookup in the trace is fed
+ * through a model of the two tiers: an optional byte-bounded L1 evicting by
+ * LRU or TinyLFU admission (capped at the near-cache max-ttl), in front of an
+ * unbounded Redis tier that expires entries by TTL, recomputes XFetch entries
+ * early and revalidates stale SWR entries in the background. Each key's value
+ * size, loader time and TTLs come from what the trace recorded for it. The
+ * first {@code warm-up} fraction of the lookups (10% by default) only fills
+ * the model's tiers and is left out of every count, so a trace that starts
+ * mid-stream isn't scored as a cold start.
+ * <p>
+ * For every combination of the given options the report lists the hit ratios
+ * per tier, the TMDB (loader) calls and the bytes read from and written to
+ * Redis, next to what the recorded run actually did:
+ *
+ * <pre>
+ * java -cp backend.jar -Dloader.main=com.riyura.backend.common.cache.trace.CacheTraceSimulator \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher /var/tmp/riyura/cache-trace \
+ *     --l1=on,off --policy=lru,tinylfu --l1-size=64MB,256MB --ttl-scale=0.5,1,2 --beta=0.5,1,2
+ * </pre>
+ */
+public final class CacheTraceSimulator {
+
+    private static final int DEFAULT_TTL_SECONDS = 3600;
+    private static final double DEFAULT_LOADER_MS = 200;
+
+    private CacheTraceSimulator() {
+    }
+
+    public enum Policy {
+        LRU, TINYLFU
+    }
+
+    // One configuration to replay; l1Bytes == 0 turns the near cache off
+    public record Scenario(Policy policy, long l1Bytes, Duration l1MaxTtl, double ttlScale, double beta,
+            double warmUp) {
+
+        String describe() {
+            String l1 = l1Bytes == 0 ? "off" : policy.name().toLowerCase(Locale.ROOT) + " "
+                    + DataSize.ofBytes(l1Bytes).toMegabytes() + "MB";
+            return String.format(Locale.ROOT, "L1 %-14s ttl x%-5s beta %-5s", l1, ttlScale, beta);
+        }
+    }
+
+    public record Result(String scenario, long lookups, long l1Hits, long l2Hits, long loaderCalls,
+            long redisBytesRead, long redisBytesWritten) {
+
+        double hitRatio() {
+            return lookups == 0 ? 0 : (double) (l1Hits + l2Hits) / lookups;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || args[0].startsWith("--")) {
+            System.err.println("usage: CacheTraceSimulator <trace-dir> [--l1=on,off] [--policy=lru,tinylfu]"
+                    + " [--l1-size=64MB] [--l1-max-ttl=5m] [--ttl-scale=1] [--beta=1] [--warm-up=0.1]");
+            System.exit(2);
+        }
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            String[] option = args[i].replaceFirst("^--", "").split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "");
+        }
+
+        List<CacheTrace.Event> events = new ArrayList<>();
+        CacheTrace.read(Path.of(args[0]), events::add);
+        List<Scenario> scenarios = scenarios(options);
+        double warmUp = Double.parseDouble(options.getOrDefault("warm-up", "0.1"));
+        print(System.out, recorded(events, warmUp),
+                scenarios.stream().map(scenario -> simulate(events, scenario)).toList());
+    }
+
+    private static List<Scenario> scenarios(Map<String, String> options) {
+        Duration maxTtl = parseDuration(options.getOrDefault("l1-max-ttl", "5m"));
+        double warmUp = Double.parseDouble(options.getOrDefault("warm-up", "0.1"));
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String l1 : list(options, "l1", "on,off"))
+            for (String policy : l1.equals("off") ? List.of("lru") : list(options, "policy", "lru,tinylfu"))
+                for (String size : l1.equals("off") ? List.of("0B") : list(options, "l1-size", "64MB"))
+                    for (String scale : list(options, "ttl-scale", "1"))
+                        for (String beta : list(options, "beta", "1"))
+                            scenarios.add(new Scenario(Policy.valueOf(policy.toUpperCase(Locale.ROOT)),
+                                    DataSize.parse(size).toBytes(), maxTtl, Double.parseDouble(scale),
+                                    Double.parseDouble(beta), warmUp));
+        return scenarios;
+    }
+
+    private static List<String> list(Map<String, String> options, String name, String fallback) {
+        return List.of(options.getOrDefault(name, fallback).split(","));
+    }
+
+    private static Duration parseDuration(String value) {
+        char unit = value.charAt(value.length() - 1);
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (unit) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> Duration.parse(value);
+        };
+    }
+
+    // What the traced run itself did, counted straight from its outcomes after the warm-up
+    public static Result recorded(List<CacheTrace.Event> events, double warmUp) {
+        long skip = warmUpLookups(events, warmUp);
+        long lookups = 0, l1Hits = 0, l2Hits = 0, loads = 0, read = 0, written = 0;
+        for (CacheTrace.Event event : events) {
+            if (skip > 0) {
+                if (event.isLookup())
+                    skip--;
+                continue;
+            }
+            switch (event.outcome()) {
+                case NEAR_HIT -> {
+                    lookups++;
+                    l1Hits++;
+                }
+                case REDIS_HIT -> {
+                    lookups++;
+                    l2Hits++;
+                    read += event.sizeBytes();
+                }
+                case MISS -> lookups++;
+                case LOAD -> {
+                    loads++;
+                    if (!event.unchanged())
+                        written += event.sizeBytes();
+                }
+            }
+        }
+        return new Result("recorded", lookups, l1Hits, l2Hits, loads, read, written);
+    }
+
+    /**
+     * Replays the trace's lookups under one scenario. Loads in the trace only
+     * teach the model each key's size, loader time and TTLs; the scenario
+     * decides itself when to call the loader.
+     */
+    public static Result simulate(List<CacheTrace.Event> events, Scenario scenario) {
+        Map<Long, KeyProfile> profiles = profiles(events);
+        Model model = new Model(scenario, profiles);
+        long skip = warmUpLookups(events, scenario.warmUp());
+        Tally warmUp = new Tally();
+        Tally tally = new Tally();
+        for (CacheTrace.Event event : events) {
+            if (!event.isLookup())
+                continue;
+            if (skip > 0) {
+                skip--;
+                model.lookup(event, warmUp);
+            } else {
+                model.lookup(event, tally);
+            }
+        }
+        return new Result(scenario.describe(), tally.lookups, tally.l1Hits, tally.l2Hits, tally.loads, tally.read,
+                tally.written);
+    }
+
+    private static long warmUpLookups(List<CacheTrace.Event> events, double fraction) {
+        if (fraction <= 0)
+            return 0;
+        long lookups = events.stream().filter(CacheTrace.Event::isLookup).count();
+        return (long) (lookups * Math.min(fraction, 1));
+    }
+
+    private static final class Tally {
+        private long lookups, l1Hits, l2Hits, loads, read, written;
+    }
+
+    // Both tiers of one scenario, fed one lookup at a time
+    private static final class Model {
+        private final Scenario scenario;
+        private final Map<Long, KeyProfile> profiles;
+        private final SplittableRandom random = new SplittableRandom(42);
+        private final Map<Long, Remote> redis = new HashMap<>();
+        private final NearTier near;
+
+        Model(Scenario scenario, Map<Long, KeyProfile> profiles) {
+            this.scenario = scenario;
+            this.profiles = profiles;
+            this.near = scenario.l1Bytes() > 0 ? new NearTier(scenario, profiles.size()) : null;
+        }
+
+        void lookup(CacheTrace.Event event, Tally tally) {
+            tally.lookups++;
+            long now = event.timestampMs();
+            KeyProfile profile = profiles.get(event.keyHash());
+            long hardTtlMs = (long) (profile.ttlSeconds * 1000L * scenario.ttlScale());
+            long softTtlMs = (long) (profile.softTtlSeconds * 1000L * scenario.ttlScale());
+            double xfetch = scenario.beta() * -Math.log(1.0 - random.nextDouble());
+
+            if (near != null && near.get(event.keyHash(), now, profile, xfetch)) {
+                tally.l1Hits++;
+                return;
+            }
+
+            Remote remote = redis.get(event.keyHash());
+            if (remote != null && remote.expiresAtMs > now) {
+                tally.l2Hits++;
+                tally.read += profile.sizeBytes;
+                boolean refresh = softTtlMs > 0
+                        ? remote.softExpiresAtMs <= now
+                        : profile.loaderMs * xfetch >= remote.expiresAtMs - now;
+                if (refresh) {
+                    // XFetch early recompute or SWR background revalidation; the caller is served either way
+                    remote = load(event.keyHash(), profile, now, hardTtlMs, softTtlMs, tally);
+                }
+                if (near != null && (softTtlMs == 0 || remote.softExpiresAtMs > now))
+                    near.put(event.keyHash(), profile, now, remote.freshUntil(softTtlMs));
+                return;
+            }
+
+            remote = load(event.keyHash(), profile, now, hardTtlMs, softTtlMs, tally);
+            if (near != null)
+                near.put(event.keyHash(), profile, now, remote.freshUntil(softTtlMs));
+        }
+
+        private Remote load(long keyHash, KeyProfile profile, long now, long hardTtlMs, long softTtlMs,
+                Tally tally) {
+            tally.loads++;
+            tally.written += profile.sizeBytes;
+            Remote remote = new Remote(now + hardTtlMs, now + softTtlMs);
+            redis.put(keyHash, remote);
+            return remote;
+        }
+    }
+
+    // Last size, loader time and TTLs seen per key, falling back to the namespace's averages
+    private static Map<Long, KeyProfile> profiles(List<CacheTrace.Event> events) {
+        Map<Long, KeyProfile> profiles = new HashMap<>();
+        Map<String, KeyProfile> namespaces = new HashMap<>();
+        for (CacheTrace.Event event : events) {
+            KeyProfile key = profiles.computeIfAbsent(event.keyHash(), hash -> new KeyProfile(event.namespace()));
+            KeyProfile namespace = namespaces.computeIfAbsent(event.namespace(), KeyProfile::new);
+            if (event.sizeBytes() > 0) {
+                key.sizeBytes = event.sizeBytes();
+                namespace.observeSize(event.sizeBytes());
+            }
+            if (event.outcome() == CacheTrace.Outcome.LOAD) {
+                key.observeLoad(event);
+                namespace.observeLoad(event);
+            }
+        }
+        profiles.values().forEach(profile -> profile.fillFrom(namespaces.get(profile.namespace)));
+        return profiles;
+    }
+
+    private static void print(PrintStream out, Result recorded, List<Result> results) {
+        out.printf(Locale.ROOT, "%-46s %10s %7s %7s %7s %10s %12s %12s%n", "scenario", "lookups", "L1 hit",
+                "L2 hit", "hit", "loads", "redis read", "redis write");
+        for (Result result : prepend(recorded, results)) {
+            out.printf(Locale.ROOT, "%-46s %10d %6.2f%% %6.2f%% %6.2f%% %10d %12s %12s%n", result.scenario(),
+                    result.lookups(), percent(result.l1Hits(), result.lookups()),
+                    percent(result.l2Hits(), result.lookups()), result.hitRatio() * 100, result.loaderCalls(),
+                    megabytes(result.redisBytesRead()), megabytes(result.redisBytesWritten()));
+        }
+    }
+
+    private static List<Result> prepend(Result first, List<Result> rest) {
+        List<Result> all = new ArrayList<>(rest.size() + 1);
+        all.add(first);
+        all.addAll(rest);
+        return all;
+    }
+
+    private static double percent(long part, long total) {
+        return total == 0 ? 0 : part * 100.0 / total;
+    }
+
+    private static String megabytes(long bytes) {
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    private static final class KeyProfile {
+        private final String namespace;
+        private int sizeBytes;
+        private double loaderMs = -1;
+        private int ttlSeconds;
+        private int softTtlSeconds = -1;
+        // Running sums, only used on namespace profiles
+        private long sizeSum, sizeCount, loaderSum, loadCount, ttlSum, softTtlSum;
+
+        KeyProfile(String namespace) {
+            this.namespace = namespace;
+        }
+
+        void observeSize(int size) {
+            sizeSum += size;
+            sizeCount++;
+            sizeBytes = (int) (sizeSum / sizeCount);
+        }
+
+        void observeLoad(CacheTrace.Event load) {
+            loadCount++;
+            loaderSum += load.loaderMicros();
+            ttlSum += load.ttlSeconds();
+            softTtlSum += load.softTtlSeconds();
+            loaderMs = loaderSum / 1000.0 / loadCount;
+            ttlSeconds = (int) (ttlSum / loadCount);
+            softTtlSeconds = (int) (softTtlSum / loadCount);
+        }
+
+        void fillFrom(KeyProfile namespace) {
+            if (sizeBytes == 0)
+                sizeBytes = namespace.sizeBytes;
+            if (loaderMs < 0)
+                loaderMs = namespace.loaderMs >= 0 ? namespace.loaderMs : DEFAULT_LOADER_MS;
+            if (ttlSeconds == 0)
+                ttlSeconds = namespace.ttlSeconds > 0 ? namespace.ttlSeconds : DEFAULT_TTL_SECONDS;
+            if (softTtlSeconds < 0)
+                softTtlSeconds = Math.max(0, namespace.softTtlSeconds);
+        }
+    }
+
+    private record Remote(long expiresAtMs, long softExpiresAtMs) {
+
+        // The near cache only keeps SWR entries while they are fresh
+        long freshUntil(long softTtlMs) {
+            return softTtlMs > 0 ? softExpiresAtMs : expiresAtMs;
+        }
+    }
+
+    /**
+     * Byte-bounded L1 model. Recency order comes from an access-ordered map;
+     * with TinyLFU a new key only enters a full cache when the frequency
+     * sketch rates it above each entry it would evict.
+     */
+    private static final class NearTier {
+        private final Scenario scenario;
+        private final LinkedHashMap<Long, Local> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final FrequencySketch sketch;
+        private long usedBytes;
+
+        NearTier(Scenario scenario, int distinctKeys) {
+            this.scenario = scenario;
+            this.sketch = scenario.policy() == Policy.TINYLFU ? new FrequencySketch(distinctKeys) : null;
+        }
+
+        boolean get(long keyHash, long now, KeyProfile profile, double xfetch) {
+            if (sketch != null)
+                sketch.increment(keyHash);
+            Local local = entries.get(keyHash);
+            if (local == null)
+                return false;
+            long remaining = local.expiresAtMs - now;
+            if (remaining <= 0) {
+                remove(keyHash);
+                return false;
+            }
+            // XFetch entries fall through to Redis once the early-recompute formula fires
+            return profile.softTtlSeconds > 0 || profile.loaderMs * xfetch < remaining;
+        }
+
+        void put(long keyHash, KeyProfile profile, long now, long expiresAtMs) {
+            int size = Math.max(1, profile.sizeBytes);
+            if (size > scenario.l1Bytes())
+                return;
+            remove(keyHash);
+            var eldest = entries.entrySet().iterator();
+            while (usedBytes + size > scenario.l1Bytes() && eldest.hasNext()) {
+                Map.Entry<Long, Local> victim = eldest.next();
+                if (sketch != null && sketch.estimate(keyHash) <= sketch.estimate(victim.getKey()))
+                    return;
+                usedBytes -= victim.getValue().sizeBytes;
+                eldest.remove();
+            }
+            long capped = Math.min(expiresAtMs, now + scenario.l1MaxTtl().toMillis());
+            entries.put(keyHash, new Local(capped, size));
+            usedBytes += size;
+        }
+
+        private void remove(long keyHash) {
+            Local removed = entries.remove(keyHash);
+            if (removed != null)
+                usedBytes -= removed.sizeBytes;
+        }
+
+        private record Local(long expiresAtMs, int sizeBytes) {
+        }
+    }
+}
@@ -1,19 +1,29 @@
 package com.riyura.backend.common.config;
 
+import com.riyura.backend.common.cache.InMemoryCacheStore;
+import com.riyura.backend.common.cache.RedisCacheStore;
+import com.riyura.backend.common.cache.RedisKeyScanner;
+import com.riyura.backend.common.port.CacheStorePort;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.cache.CacheStatistics;
 import org.springframework.data.redis.cache.CacheStatisticsCollector;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadLocalRandom;
@@ -22,8 +32,12 @@ import java.util.concurrent.ThreadLocalRandom;
 @EnableCaching
 public class CacheConfig {
 
+    // Keys per SCAN page and per UNLINK call when clearing a cache
+    private static final int CLEAR_BATCH_SIZE = 500;
+
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory, CacheProperties cacheProperties,
+            MeterRegistry meterRegistry) {
 
         RedisCacheWriter defaultWriter = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory);
 
@@ -52,8 +66,25 @@ public class CacheConfig {
                 defaultWriter.remove(name, key);
             }
 
+            // Clear the matching keys with incremental SCAN (every master on Redis Cluster) and
+            // UNLINK batches, so neither KEYS nor a large DEL blocks Redis. Lettuce splits a
+            // cross-slot UNLINK per slot on cluster connections
             @Override
             public void clear(String name, byte[] pattern) {
+                ScanOptions options = ScanOptions.scanOptions().match(pattern).count(CLEAR_BATCH_SIZE).build();
+                try (RedisConnection connection = connectionFactory.getConnection()) {
+                    List<byte[]> batch = new ArrayList<>(CLEAR_BATCH_SIZE);
+                    RedisKeyScanner.forEachKey(connection, options, key -> {
+                        batch.add(key);
+                        if (batch.size() == CLEAR_BATCH_SIZE) {
+                            connection.keyCommands().unlink(batch.toArray(byte[][]::new));
+                            batch.clear();
+                        }
+                    });
+                    if (!batch.isEmpty()) {
+                        connection.keyCommands().unlink(batch.toArray(byte[][]::new));
+                    }
+                }
             }
 
             // Clear the cache statistics from the Redis cache
@@ -117,8 +148,10 @@ public class CacheConfig {
                 .entryTtl(Duration.ofDays(1)) // Base TTL of 1 day
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
+                // Entries written before the codec header existed used the default typed JSON serializer
                 .serializeValuesWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new GenericJackson2JsonRedisSerializer()))
+                        .fromSerializer(RedisConfig.valueCodec(cacheProperties.codec(),
+                                new GenericJackson2JsonRedisSerializer(), meterRegistry)))
                 .disableCachingNullValues();
 
         // Build the Redis cache manager
@@ -127,6 +160,16 @@ public class CacheConfig {
                 .build();
     }
 
+    // Storage behind CacheStampedeGuard. IN_MEMORY only swaps the guard's storage, for tests and benchmarks;
+    // RedisCacheStore and the other Redis-backed beans are still created, so Redis must stay reachable
+    @Bean
+    @Primary
+    public CacheStorePort cacheStore(CacheProperties cacheProperties, RedisCacheStore redisCacheStore) {
+        if (cacheProperties.store() == CacheProperties.Store.IN_MEMORY)
+            return new InMemoryCacheStore();
+        return redisCacheStore;
+    }
+
     // Dedicated thread pool for background cache refreshes
     @Bean(name = "cacheRefreshExecutor")
     public Executor cacheRefreshExecutor() {
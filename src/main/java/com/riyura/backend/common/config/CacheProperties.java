@@ -0,0 +1,293 @@
+package com.riyura.backend.common.config;
+
+import com.riyura.backend.common.cache.CacheValueCodec;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@ConfigurationProperties(prefix = "riyura.cache")
+public record CacheProperties(
+                FetchMode fetchMode,
+                Store store,
+                Duration fillWaitTimeout,
+                Near nearCache,
+                Codec codec,
+                Negative negative,
+                LastKnownGood lastKnownGood,
+                AdaptiveTtl adaptiveTtl,
+                HotKeys hotKeys,
+                WarmUp warmUp,
+                Schemas schemas,
+                Trace trace,
+                Duration legacyReadWindow) {
+
+        public CacheProperties {
+                if (fetchMode == null)
+                        fetchMode = FetchMode.LUA;
+                if (store == null)
+                        store = Store.REDIS;
+                if (fillWaitTimeout == null)
+                        fillWaitTimeout = Duration.ofSeconds(5);
+                if (nearCache == null)
+                        nearCache = new Near(null, null, null, null, null);
+                if (codec == null)
+                        codec = new Codec(null, null);
+                if (negative == null)
+                        negative = new Negative(null, null);
+                if (lastKnownGood == null)
+                        lastKnownGood = new LastKnownGood(null, null, null, null, null);
+                if (adaptiveTtl == null)
+                        adaptiveTtl = new AdaptiveTtl(null, null, null, null, null);
+                if (hotKeys == null)
+                        hotKeys = new HotKeys(null, null, null, null, null, null);
+                if (warmUp == null)
+                        warmUp = new WarmUp(null, null, null, null);
+                if (schemas == null)
+                        schemas = new Schemas(null, null, null);
+                if (trace == null)
+                        trace = new Trace(null, null, null, null, null, null);
+                // How long after startup an envelope miss still reads the untagged pre-cluster entry;
+                // long enough for every old entry to expire, 0 turns the fallback off
+                if (legacyReadWindow == null)
+                        legacyReadWindow = Duration.ofDays(7);
+        }
+
+        // How XFetch reads value, PTTL and delta from Redis
+        public enum FetchMode {
+                // One EVALSHA round trip that also decides the recompute lock server-side
+                LUA,
+                // Sequential HMGET (value, delta, fingerprint) and PTTL on the envelope, then the lease
+                // script only on a miss or when a recompute is due
+                MULTI_CALL
+        }
+
+        // Where guarded entries, last-known-good copies and cache events live
+        public enum Store {
+                // Shared by every node; the production setting
+                REDIS,
+                // In this JVM only, for tests and benchmarks; the other Redis-backed beans still need Redis
+                IN_MEMORY
+        }
+
+        // In-process L1 tier that sits in front of Redis for CacheStampedeGuard keys
+        public record Near(
+                        Boolean enabled,
+                        Duration maxTtl,
+                        DataSize defaultMaxSize,
+                        Map<String, DataSize> namespaces,
+                        Snapshot snapshot) {
+
+                public Near {
+                        if (enabled == null)
+                                enabled = true;
+                        if (maxTtl == null)
+                                maxTtl = Duration.ofMinutes(5);
+                        if (defaultMaxSize == null)
+                                defaultMaxSize = DataSize.ofMegabytes(16);
+                        if (namespaces == null)
+                                namespaces = Map.of();
+                        if (snapshot == null)
+                                snapshot = new Snapshot(null, null, null);
+                }
+
+                // Byte budget for a namespace, falling back to the default size
+                public long maxBytesFor(String namespace) {
+                        return namespaces.getOrDefault(namespace, defaultMaxSize).toBytes();
+                }
+
+                // Local file the hottest entries are written to on graceful shutdown and restored from on boot
+                public record Snapshot(
+                                Boolean enabled,
+                                String path,
+                                DataSize maxSize) {
+
+                        public Snapshot {
+                                if (enabled == null)
+                                        enabled = false;
+                                if (path == null)
+                                        path = System.getProperty("java.io.tmpdir") + "/riyura/near-cache.snap";
+                                if (maxSize == null)
+                                        maxSize = DataSize.ofMegabytes(64);
+                        }
+                }
+        }
+
+        // Encoding of cached values written to Redis
+        public record Codec(
+                        CacheValueCodec.Format format,
+                        DataSize compressThreshold) {
+
+                public Codec {
+                        if (format == null)
+                                format = CacheValueCodec.Format.SMILE;
+                        // Payloads at or above this size are Deflate-compressed; 0 disables compression
+                        if (compressThreshold == null)
+                                compressThreshold = DataSize.ofKilobytes(1);
+                }
+        }
+
+        // Negative caching of values the upstream API reports as missing
+        public record Negative(
+                        Duration defaultTtl,
+                        Map<String, Duration> namespaces) {
+
+                public Negative {
+                        if (defaultTtl == null)
+                                defaultTtl = Duration.ofMinutes(5);
+                        if (namespaces == null)
+                                namespaces = Map.of();
+                }
+
+                // TTL for a namespace's negative entries, falling back to the default
+                public Duration ttlFor(String namespace) {
+                        return namespaces.getOrDefault(namespace, defaultTtl);
+                }
+        }
+
+        // Expired values kept past their TTL and served stale when the loader fails. Each copy costs
+        // as much memory as the entry itself, so only the listed namespaces keep one
+        public record LastKnownGood(
+                        Boolean enabled,
+                        Duration grace,
+                        Duration retryInterval,
+                        Duration maxRetryInterval,
+                        Set<String> namespaces) {
+
+                public LastKnownGood {
+                        if (enabled == null)
+                                enabled = true;
+                        if (grace == null)
+                                grace = Duration.ofDays(3);
+                        if (retryInterval == null)
+                                retryInterval = Duration.ofSeconds(30);
+                        if (maxRetryInterval == null)
+                                maxRetryInterval = Duration.ofMinutes(5);
+                        // The home and browse lists: few keys, and the pages that should never go blank
+                        if (namespaces == null)
+                                namespaces = Set.of("banners", "explore", "animeTrending",
+                                                "moviesNowPlaying", "moviesTrending", "moviesPopular",
+                                                "moviesUpcoming", "tvAiringToday", "tvTrending", "tvPopular",
+                                                "tvOnTheAir");
+                }
+
+                public boolean covers(String namespace) {
+                        return enabled && namespaces.contains(namespace);
+                }
+        }
+
+        // Per-key TTL multiplier for guarded entries: grows while refreshes return the same value,
+        // shrinks when it changes, and always stays within [minFactor, maxFactor] of the coded TTL
+        public record AdaptiveTtl(
+                        Boolean enabled,
+                        Double minFactor,
+                        Double maxFactor,
+                        Double growth,
+                        Double shrink) {
+
+                public AdaptiveTtl {
+                        if (enabled == null)
+                                enabled = true;
+                        if (minFactor == null)
+                                minFactor = 0.5;
+                        if (maxFactor == null)
+                                maxFactor = 4.0;
+                        if (growth == null)
+                                growth = 1.5;
+                        if (shrink == null)
+                                shrink = 0.5;
+                }
+        }
+
+        // Hot-key tracking: a decaying count-min sketch over guarded lookups picks the top-K keys,
+        // which are refreshed in the background once they are within `lead` of expiring
+        public record HotKeys(
+                        Boolean enabled,
+                        Integer topK,
+                        Integer sketchWidth,
+                        Integer minFrequency,
+                        Duration scanInterval,
+                        Duration lead) {
+
+                public HotKeys {
+                        if (enabled == null)
+                                enabled = true;
+                        if (topK == null)
+                                topK = 128;
+                        if (sketchWidth == null)
+                                sketchWidth = 65536;
+                        if (minFrequency == null)
+                                minFrequency = 20;
+                        if (scanInterval == null)
+                                scanInterval = Duration.ofSeconds(5);
+                        if (lead == null)
+                                lead = Duration.ofSeconds(30);
+                }
+        }
+
+        // Guarded cache keys loaded at startup before readiness goes UP; keys use the services' cache key format
+        public record WarmUp(
+                        Boolean enabled,
+                        List<String> keys,
+                        Integer concurrency,
+                        Duration timeout) {
+
+                public WarmUp {
+                        if (enabled == null)
+                                enabled = true;
+                        if (keys == null)
+                                keys = List.of("banners", "moviesTrending:12", "moviesNowPlaying:12", "tvTrending:12",
+                                                "tvPopular:12", "animeTrending:12", "explore:1::");
+                        if (concurrency == null)
+                                concurrency = 3;
+                        if (timeout == null)
+                                timeout = Duration.ofSeconds(60);
+                }
+        }
+
+        // Schema-versioned cache keys: entries of the previous DTO version are adopted on a cold miss
+        // during the dual-read window, and optionally re-encoded in bulk at startup
+        public record Schemas(
+                        Boolean enabled,
+                        Duration dualReadWindow,
+                        Boolean migrate) {
+
+                public Schemas {
+                        if (enabled == null)
+                                enabled = true;
+                        if (dualReadWindow == null)
+                                dualReadWindow = Duration.ofDays(7);
+                        if (migrate == null)
+                                migrate = false;
+                }
+        }
+
+        // Opt-in access trace for offline replay with CacheTraceSimulator; keys are sampled by hash
+        // so a sampled key keeps its whole access history
+        public record Trace(
+                        Boolean enabled,
+                        String directory,
+                        DataSize segmentSize,
+                        Integer segments,
+                        Double sampleRate,
+                        Integer bufferSize) {
+
+                public Trace {
+                        if (enabled == null)
+                                enabled = false;
+                        if (directory == null)
+                                directory = System.getProperty("java.io.tmpdir") + "/riyura/cache-trace";
+                        if (segmentSize == null)
+                                segmentSize = DataSize.ofMegabytes(64);
+                        if (segments == null || segments < 2)
+                                segments = 4;
+                        if (sampleRate == null || sampleRate <= 0 || sampleRate > 1)
+                                sampleRate = 1.0;
+                        if (bufferSize == null || bufferSize < 1)
+                                bufferSize = 65_536;
+                }
+        }
+}
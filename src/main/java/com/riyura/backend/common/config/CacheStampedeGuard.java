@@ -1,206 +1,940 @@
 package com.riyura.backend.common.config;
 
+import com.riyura.backend.common.cache.CacheEventBus;
+import com.riyura.backend.common.cache.CacheFillRegistry;
+import com.riyura.backend.common.cache.CacheGuardMetrics;
+import com.riyura.backend.common.cache.CacheGuardMetrics.Strategy;
+import com.riyura.backend.common.cache.CacheGuardMetrics.Tier;
+import com.riyura.backend.common.cache.CacheKeys;
+import com.riyura.backend.common.cache.CacheSchemas;
+import com.riyura.backend.common.cache.HotKeyTracker;
+import com.riyura.backend.common.cache.LastKnownGoodCache;
+import com.riyura.backend.common.cache.LeaseRenewer;
+import com.riyura.backend.common.cache.NearCache;
+import com.riyura.backend.common.cache.NegativeCacheEntry;
+import com.riyura.backend.common.cache.StaleResponses;
+import com.riyura.backend.common.cache.trace.CacheTraceRecorder;
+import com.riyura.backend.common.exception.UpstreamNotFoundException;
+import com.riyura.backend.common.port.CacheStorePort;
+import com.riyura.backend.common.port.CacheStorePort.Lease;
+import com.riyura.backend.common.port.CacheStorePort.LeaseToken;
+import com.riyura.backend.common.ratelimit.OutboundPriority;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiPredicate;
+import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 
 @Slf4j
 @Component
 public class CacheStampedeGuard {
 
-    private static final String LOCK_SUFFIX = ":lock";
-    private static final String FRESH_SUFFIX = ":fresh";
-    private static final String REFRESHING_SUFFIX = ":refreshing";
-    private static final String DELTA_SUFFIX = ":delta";
-
-    private static final long LOCK_TTL_SECONDS = 30;
+    // Lease duration; holders renew it every third of this while their loader runs
+    private static final long LOCK_TTL_MS = 30_000;
     private static final double DEFAULT_DELTA_MS = 200.0;
 
-    // Redis template for the CacheStampedeGuard
-    private final RedisTemplate<String, Object> redisTemplate;
+    // Envelope store and serializer for the CacheStampedeGuard
+    private final CacheStorePort cacheStore;
+    private final RedisSerializer<Object> valueSerializer;
     private final Executor cacheRefreshExecutor;
+    private final NearCache nearCache;
+    private final CacheEventBus cacheEventBus;
+    private final CacheFillRegistry fillRegistry;
+    private final CacheGuardMetrics guardMetrics;
+    private final LastKnownGoodCache lastKnownGood;
+    private final LeaseRenewer leaseRenewer;
+    private final HotKeyTracker hotKeys;
+    private final CacheSchemas cacheSchemas;
+    private final CacheTraceRecorder trace;
+    private final CacheProperties.FetchMode fetchMode;
+    private final Duration fillWaitTimeout;
+    private final CacheProperties.Negative negativeCache;
+    private final CacheProperties.AdaptiveTtl adaptiveTtl;
+
+    // Per-path latency timers for the XFetch read
+    private final Timer luaFetchTimer;
+    private final Timer luaAsyncFetchTimer;
+    private final Timer multiCallFetchTimer;
 
     // Constructor for the CacheStampedeGuard
+    @SuppressWarnings("unchecked")
     public CacheStampedeGuard(
+            CacheStorePort cacheStore,
             RedisTemplate<String, Object> redisTemplate,
-            @Qualifier("cacheRefreshExecutor") Executor cacheRefreshExecutor) {
-        this.redisTemplate = redisTemplate;
+            @Qualifier("cacheRefreshExecutor") Executor cacheRefreshExecutor,
+            NearCache nearCache,
+            CacheEventBus cacheEventBus,
+            CacheFillRegistry fillRegistry,
+            CacheGuardMetrics guardMetrics,
+            LastKnownGoodCache lastKnownGood,
+            LeaseRenewer leaseRenewer,
+            HotKeyTracker hotKeys,
+            CacheSchemas cacheSchemas,
+            CacheTraceRecorder trace,
+            CacheProperties cacheProperties,
+            MeterRegistry meterRegistry) {
+        this.cacheStore = cacheStore;
+        this.valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
         this.cacheRefreshExecutor = cacheRefreshExecutor;
+        this.nearCache = nearCache;
+        this.cacheEventBus = cacheEventBus;
+        this.fillRegistry = fillRegistry;
+        this.guardMetrics = guardMetrics;
+        this.lastKnownGood = lastKnownGood;
+        this.leaseRenewer = leaseRenewer;
+        this.hotKeys = hotKeys;
+        this.cacheSchemas = cacheSchemas;
+        this.trace = trace;
+        this.fetchMode = cacheProperties.fetchMode();
+        this.fillWaitTimeout = cacheProperties.fillWaitTimeout();
+        this.negativeCache = cacheProperties.negative();
+        this.adaptiveTtl = cacheProperties.adaptiveTtl();
+        this.luaFetchTimer = fetchTimer(meterRegistry, "lua");
+        this.luaAsyncFetchTimer = fetchTimer(meterRegistry, "lua-async");
+        this.multiCallFetchTimer = fetchTimer(meterRegistry, "multi-call");
+    }
+
+    // p50/p99 of the Redis read path so LUA and MULTI_CALL can be compared under real load
+    private static Timer fetchTimer(MeterRegistry meterRegistry, String path) {
+        return Timer.builder("cache.guard.fetch")
+                .description("Latency of the XFetch Redis read path")
+                .tag("path", path)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
     }
 
     // Perform XFetch
     @SuppressWarnings("unchecked")
-    public <T> T xfetch(String key, Duration ttl, double beta, Supplier<T> loader) {
-        while (true) {
-            Object cached;
-            try {
-                cached = redisTemplate.opsForValue().get(key);
-            } catch (Exception e) {
-                log.warn("XFetch: failed to deserialize '{}', evicting stale entry: {}", key, e.getMessage());
-                redisTemplate.delete(key);
-                cached = null;
+    public <T> T xfetch(String logicalKey, Duration ttl, double beta, Supplier<T> loader) {
+        String key = cacheSchemas.versioned(logicalKey);
+        CacheGuardMetrics.Meters metrics = guardMetrics.of(key, Strategy.XFETCH);
+        recordLookup(key, null, ttl, loader);
+
+        // Near-cache hit — run the XFetch formula locally without touching Redis
+        NearCache.Entry near = nearCache.get(key);
+        if (near != null) {
+            long remainingTtlMs = near.expiresAtMs() - System.currentTimeMillis();
+            if (remainingTtlMs > 0 && near.deltaMs() * xfetchFactor(beta) < remainingTtlMs) {
+                return serve(key, near.value(), near.weight(), Tier.NEAR, metrics);
+            }
+        }
+
+        return xfetchFromRedis(key, ttl, beta, loader, metrics, null);
+    }
+
+    /**
+     * Non-blocking XFetch. Near-cache hits complete immediately; otherwise the
+     * probe goes out on the async Redis connection and the rest of the lookup
+     * (decode, early recompute, waiting on another caller's fill) continues on
+     * the cache executor's virtual threads, so no request thread is held while
+     * Redis or the loader is busy. Several calls can be started before joining
+     * any of them. In {@code multi-call} fetch mode the whole lookup runs on
+     * the cache executor with the blocking commands. Continuations run with
+     * the caller's request and outbound TMDB lane.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> xfetchAsync(String logicalKey, Duration ttl, double beta, Supplier<T> loader) {
+        String key = cacheSchemas.versioned(logicalKey);
+        CacheGuardMetrics.Meters metrics = guardMetrics.of(key, Strategy.XFETCH);
+        recordLookup(key, null, ttl, loader);
+        double factor = xfetchFactor(beta);
+
+        NearCache.Entry near = nearCache.get(key);
+        if (near != null) {
+            long remainingTtlMs = near.expiresAtMs() - System.currentTimeMillis();
+            if (remainingTtlMs > 0 && near.deltaMs() * factor < remainingTtlMs) {
+                return CompletableFuture.completedFuture(serve(key, near.value(), near.weight(), Tier.NEAR, metrics));
             }
-            Long remainingTtlMs = redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+        }
+
+        CallerScope caller = CallerScope.capture();
+        // A local load to join, or no async read in multi-call mode — the blocking path runs on a virtual thread
+        if (fillRegistry.isLoadingLocally(key) || fetchMode == CacheProperties.FetchMode.MULTI_CALL) {
+            return CompletableFuture.supplyAsync(() -> caller.run(
+                    () -> xfetchFromRedis(key, ttl, beta, loader, metrics, null)), cacheRefreshExecutor);
+        }
 
-            if (cached != null && remainingTtlMs != null && remainingTtlMs > 0) {
-                // Cache is warm — apply XFetch formula
-                double deltaMs = getStoredDelta(key);
-                double rand = ThreadLocalRandom.current().nextDouble();
-                // Recompute early when (beta * delta * -ln(rand)) > remainingTtl
-                double xfetchScore = deltaMs * beta * -Math.log(rand);
+        long start = System.nanoTime();
+        return cacheStore.xfetchAsync(key, factor, LOCK_TTL_MS, DEFAULT_DELTA_MS)
+                .whenComplete((read, e) -> luaAsyncFetchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                .thenApplyAsync(read -> caller.run(
+                        () -> xfetchFromRedis(key, ttl, beta, loader, metrics, toProbe(key, read))),
+                        cacheRefreshExecutor);
+    }
 
-                if (xfetchScore < remainingTtlMs) {
-                    return (T) cached;
+    // XFetch past the near cache; a prefetched probe replaces the first Redis read
+    @SuppressWarnings("unchecked")
+    private <T> T xfetchFromRedis(String key, Duration ttl, double beta, Supplier<T> loader,
+            CacheGuardMetrics.Meters metrics, XFetchProbe prefetched) {
+        long fillDeadline = System.nanoTime() + fillWaitTimeout.toNanos();
+        boolean missed = false;
+        while (true) {
+            XFetchProbe probe = prefetched;
+            prefetched = null;
+            if (probe == null) {
+                // This JVM is already loading the key — join it instead of probing Redis
+                if (fillRegistry.isLoadingLocally(key)) {
+                    missed = recordMiss(key, metrics, missed);
+                    FillWait wait = awaitFill(key, fillDeadline, metrics);
+                    if (wait != FillWait.FILLED)
+                        return onFillWaitExpired(key, wait, "XFetch", loader,
+                                xfetchRetry(key, ttl, loader, metrics), metrics);
+                    continue;
                 }
+                probe = probe(key, beta);
+            }
+
+            CachedValue cached = probe.cached();
+            long remainingTtlMs = probe.remainingTtlMs();
 
-                // XFetch triggered — try to acquire the distributed recompute lock
-                Boolean lockAcquired = redisTemplate.opsForValue()
-                        .setIfAbsent(key + LOCK_SUFFIX, "1", Duration.ofSeconds(LOCK_TTL_SECONDS));
-                if (!Boolean.TRUE.equals(lockAcquired)) {
-                    // Another node already recomputing; return the still-valid cached value
-                    return (T) cached;
+            if (cached != null && remainingTtlMs > 0) {
+                // Cache is warm — the probe already applied the XFetch formula
+                switch (probe.lock()) {
+                    case NOT_NEEDED -> {
+                        nearCache.put(key, new NearCache.Entry(cached.value(), cached.sizeBytes(),
+                                System.currentTimeMillis() + remainingTtlMs, 0, probe.deltaMs()));
+                        return serve(key, cached.value(), cached.sizeBytes(), Tier.REDIS, metrics);
+                    }
+                    case CONTENDED -> {
+                        // Another node already recomputing; return the still-valid cached value
+                        return serve(key, cached.value(), cached.sizeBytes(), Tier.REDIS, metrics);
+                    }
+                    case ACQUIRED -> {
+                        log.debug("XFetch: early recomputation triggered for '{}'", key);
+                        metrics.earlyRecompute();
+                        return recomputeAndStore(key, ttl, loader, metrics, cached.value(),
+                                new LeaseToken(Lease.RECOMPUTE, probe.token()), probe.fingerprint());
+                    }
                 }
-                log.debug("XFetch: early recomputation triggered for '{}'", key);
-                return recomputeAndStore(key, ttl, loader);
             }
 
             if (cached != null) {
                 // Persistent key (TTL == -1) — serve it as-is
-                return (T) cached;
+                if (remainingTtlMs == -1) {
+                    nearCache.put(key, new NearCache.Entry(cached.value(), cached.sizeBytes(),
+                            Long.MAX_VALUE, 0, DEFAULT_DELTA_MS));
+                }
+                return serve(key, cached.value(), cached.sizeBytes(), Tier.REDIS, metrics);
             }
 
-            // Cold miss — try to win the distributed lock
-            Boolean lockAcquired = redisTemplate.opsForValue()
-                    .setIfAbsent(key + LOCK_SUFFIX, "1", Duration.ofSeconds(LOCK_TTL_SECONDS));
-            if (Boolean.TRUE.equals(lockAcquired)) {
-                return recomputeAndStore(key, ttl, loader);
+            // Undecodable entry was just evicted — retry as a plain cold miss
+            if (probe.evicted()) {
+                continue;
             }
 
-            // Another thread won the lock — wait and retry until the cache is populated
-            try {
-                Thread.sleep(java.time.Duration.ofMillis(50));
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return null;
+            // Cold miss — the probe already raced for the recompute lease
+            missed = recordMiss(key, metrics, missed);
+            if (probe.lock() == LockDecision.ACQUIRED) {
+                fillRegistry.beginLocalLoad(key);
+                LeaseToken held = new LeaseToken(Lease.RECOMPUTE, probe.token());
+                Object adopted = adoptPreviousVersion(key, null, ttl, held, metrics);
+                if (adopted != null)
+                    return (T) adopted;
+                return recomputeAndStore(key, ttl, loader, metrics, null, held, null);
             }
+
+            // Another node won the lease — park until it announces the fill, then re-read
+            metrics.lockContended();
+            FillWait wait = awaitFill(key, fillDeadline, metrics);
+            if (wait != FillWait.FILLED)
+                return onFillWaitExpired(key, wait, "XFetch", loader,
+                        xfetchRetry(key, ttl, loader, metrics), metrics);
+            NearCache.Entry filled = nearCache.get(key);
+            if (filled != null)
+                return (T) unwrapNegative(filled.value());
         }
     }
 
     // Perform SWR
     @SuppressWarnings("unchecked")
-    public <T> T staleWhileRevalidate(String key, Duration softTtl, Duration hardTtl, Supplier<T> loader) {
-        String freshKey = key + FRESH_SUFFIX;
-        String refreshingKey = key + REFRESHING_SUFFIX;
+    public <T> T staleWhileRevalidate(String logicalKey, Duration softTtl, Duration hardTtl, Supplier<T> loader) {
+        String key = cacheSchemas.versioned(logicalKey);
+        CacheGuardMetrics.Meters metrics = guardMetrics.of(key, Strategy.SWR);
+        recordLookup(key, softTtl, hardTtl, loader);
 
-        // Loop to perform SWR
-        while (true) {
-            Object cached;
+        // Near-cache hit inside the fresh window — nothing to revalidate
+        NearCache.Entry near = nearCache.get(key);
+        if (near != null && near.softExpiresAtMs() > System.currentTimeMillis()) {
+            return serve(key, near.value(), near.weight(), Tier.NEAR, metrics);
+        }
+
+        return swrFromRedis(key, softTtl, hardTtl, loader, metrics, null);
+    }
+
+    /**
+     * Non-blocking stale-while-revalidate; see {@link #xfetchAsync} for which
+     * parts run where. Stale hits still complete with the stale value and
+     * schedule the background refresh as usual.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> swrAsync(String logicalKey, Duration softTtl, Duration hardTtl, Supplier<T> loader) {
+        String key = cacheSchemas.versioned(logicalKey);
+        CacheGuardMetrics.Meters metrics = guardMetrics.of(key, Strategy.SWR);
+        recordLookup(key, softTtl, hardTtl, loader);
+
+        NearCache.Entry near = nearCache.get(key);
+        if (near != null && near.softExpiresAtMs() > System.currentTimeMillis()) {
+            return CompletableFuture.completedFuture(serve(key, near.value(), near.weight(), Tier.NEAR, metrics));
+        }
+
+        CallerScope caller = CallerScope.capture();
+        if (fillRegistry.isLoadingLocally(key)) {
+            return CompletableFuture.supplyAsync(() -> caller.run(
+                    () -> swrFromRedis(key, softTtl, hardTtl, loader, metrics, null)), cacheRefreshExecutor);
+        }
+
+        return cacheStore.swrAsync(key, LOCK_TTL_MS)
+                .thenApplyAsync(read -> caller.run(
+                        () -> swrFromRedis(key, softTtl, hardTtl, loader, metrics, read)), cacheRefreshExecutor);
+    }
+
+    /**
+     * Cached values for several keys in one pipelined round trip, near cache
+     * first. This is a plain read: absent or expired keys are left out rather
+     * than recomputed and no leases are taken, so callers follow up with
+     * {@link #xfetchAsync} / {@link #swrAsync} for whatever is missing.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<Map<String, T>> getAll(Collection<String> keys) {
+        Map<String, T> found = new LinkedHashMap<>();
+        List<String> remote = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (String key : keys) {
+            String entry = cacheSchemas.versioned(key);
+            NearCache.Entry near = nearCache.get(entry);
+            if (near == null || near.expiresAtMs() <= now)
+                remote.add(entry);
+            else if (!(near.value() instanceof NegativeCacheEntry))
+                // Not-found markers are left out like any other absent key
+                found.put(key, (T) near.value());
+        }
+        if (remote.isEmpty())
+            return CompletableFuture.completedFuture(found);
+
+        // Decoding can evict undecodable entries, which blocks — keep it off the Redis I/O thread
+        return cacheStore.getAll(remote).thenApplyAsync(values -> {
+            Map<String, T> result = new LinkedHashMap<>();
+            for (String key : keys) {
+                if (found.containsKey(key)) {
+                    result.put(key, found.get(key));
+                    continue;
+                }
+                String entry = cacheSchemas.versioned(key);
+                byte[] raw = values.get(entry);
+                CachedValue cached = raw != null ? decode(entry, raw, "getAll") : null;
+                if (cached != null && !(cached.value() instanceof NegativeCacheEntry))
+                    result.put(key, (T) cached.value());
+            }
+            return result;
+        }, cacheRefreshExecutor);
+    }
+
+    // Count the lookup for hot-key detection; a key that just turned hot gets a refresh-ahead hook
+    private <T> void recordLookup(String key, Duration softTtl, Duration hardTtl, Supplier<T> loader) {
+        if (hotKeys.record(key))
+            hotKeys.track(key, leadMs -> refreshAhead(key, softTtl, hardTtl, loader, leadMs));
+    }
+
+    /**
+     * Refresh-ahead for a hot key ({@code softTtl} is null for XFetch entries).
+     * The lead is capped at a quarter of the TTL so short-lived entries are not
+     * reloaded on every sweep. Only the node that wins the entry's lease
+     * reloads it; returns {@code true} when that was this node.
+     */
+    private <T> boolean refreshAhead(String key, Duration softTtl, Duration hardTtl, Supplier<T> loader,
+            long leadMs) {
+        Duration ttl = softTtl != null ? softTtl : hardTtl;
+        CacheStorePort.Read read = cacheStore.ahead(key, Math.min(leadMs, ttl.toMillis() / 4), LOCK_TTL_MS);
+        if (LockDecision.of(read.decision()) != LockDecision.ACQUIRED)
+            return false;
+        CacheGuardMetrics.Meters metrics = guardMetrics.of(key, softTtl != null ? Strategy.SWR : Strategy.XFETCH);
+        metrics.refreshAhead();
+        LeaseToken held = new LeaseToken(softTtl != null ? Lease.REFRESH : Lease.RECOMPUTE, read.token());
+        backgroundRefresh(key, softTtl, hardTtl, loader, metrics, held, read.fingerprint());
+        return true;
+    }
+
+    /**
+     * What an async continuation carries over from the calling thread: its
+     * request, so a stale mark reaches the response, and its outbound TMDB
+     * lane, so a loader started by warm-up or a background refresh stays in
+     * the background lane on the cache executor.
+     */
+    private record CallerScope(RequestAttributes request, OutboundPriority priority) {
+
+        static CallerScope capture() {
+            return new CallerScope(RequestContextHolder.getRequestAttributes(), OutboundPriority.current());
+        }
+
+        <T> T run(Supplier<T> action) {
+            Supplier<T> inLane = priority == OutboundPriority.BACKGROUND ? () -> OutboundPriority.background(action)
+                    : action;
+            if (request == null)
+                return inLane.get();
+            RequestContextHolder.setRequestAttributes(request);
             try {
-                cached = redisTemplate.opsForValue().get(key);
-            } catch (Exception e) {
-                log.warn("SWR: failed to deserialize '{}', evicting stale entry: {}", key, e.getMessage());
-                redisTemplate.delete(key);
-                cached = null;
+                return inLane.get();
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        }
+    }
+
+    // SWR past the near cache; a prefetched read replaces the first Redis read
+    @SuppressWarnings("unchecked")
+    private <T> T swrFromRedis(String key, Duration softTtl, Duration hardTtl, Supplier<T> loader,
+            CacheGuardMetrics.Meters metrics, CacheStorePort.Read prefetched) {
+        long fillDeadline = System.nanoTime() + fillWaitTimeout.toNanos();
+        boolean missed = false;
+        while (true) {
+            CacheStorePort.Read read = prefetched;
+            prefetched = null;
+            if (read == null) {
+                // This JVM is already loading the key — join it instead of probing Redis
+                if (fillRegistry.isLoadingLocally(key)) {
+                    missed = recordMiss(key, metrics, missed);
+                    FillWait wait = awaitFill(key, fillDeadline, metrics);
+                    if (wait != FillWait.FILLED)
+                        return onFillWaitExpired(key, wait, "SWR", loader,
+                                swrRetry(key, softTtl, hardTtl, loader, metrics), metrics);
+                    continue;
+                }
+
+                // One round trip: value, soft-expiry window and the lease decision
+                read = cacheStore.swr(key, LOCK_TTL_MS);
             }
+            CachedValue cached = read.value() != null ? decode(key, read.value(), "SWR") : null;
 
             // Condition to check if the cache is warm and not stale
             if (cached != null) {
-                Boolean isFresh = redisTemplate.hasKey(freshKey);
-                if (!Boolean.TRUE.equals(isFresh)) {
-                    // Trigger background refresh if cache is stale
-                    Boolean lockAcquired = redisTemplate.opsForValue()
-                            .setIfAbsent(refreshingKey, "1", Duration.ofSeconds(LOCK_TTL_SECONDS));
-                    if (Boolean.TRUE.equals(lockAcquired)) {
-                        log.debug("SWR: background refresh triggered for '{}'", key);
-                        cacheRefreshExecutor.execute(
-                                () -> backgroundRefresh(key, freshKey, refreshingKey, softTtl, hardTtl, loader));
-                    }
+                if (read.softRemainingMs() > 0) {
+                    // Only fresh values enter the near cache; stale ones must keep triggering refreshes
+                    long softExpiresAt = System.currentTimeMillis() + read.softRemainingMs();
+                    nearCache.put(key, new NearCache.Entry(cached.value(), cached.sizeBytes(),
+                            softExpiresAt, softExpiresAt, 0));
+                } else if (LockDecision.of(read.decision()) == LockDecision.ACQUIRED) {
+                    // Stale and this caller won the refresh lease — revalidate in the background
+                    log.debug("SWR: background refresh triggered for '{}'", key);
+                    metrics.backgroundRefresh();
+                    LeaseToken refresh = new LeaseToken(Lease.REFRESH, read.token());
+                    String previous = read.fingerprint();
+                    cacheRefreshExecutor.execute(
+                            () -> backgroundRefresh(key, softTtl, hardTtl, loader, metrics, refresh, previous));
                 }
-                return (T) cached;
+                return serve(key, cached.value(), cached.sizeBytes(), Tier.REDIS, metrics);
             }
 
-            // Cold miss — try to win the distributed lock
-            Boolean lockAcquired = redisTemplate.opsForValue()
-                    .setIfAbsent(key + LOCK_SUFFIX, "1", Duration.ofSeconds(LOCK_TTL_SECONDS));
-            if (Boolean.TRUE.equals(lockAcquired)) {
-                return recomputeAndStoreWithSwr(key, freshKey, softTtl, hardTtl, loader);
+            // Undecodable entry was just evicted — retry as a plain cold miss
+            if (read.value() != null) {
+                continue;
             }
 
-            // Another thread won the lock — wait and retry until the cache is populated
-            try {
-                Thread.sleep(java.time.Duration.ofMillis(50));
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return null;
+            // Cold miss — the read already raced for the recompute lease
+            missed = recordMiss(key, metrics, missed);
+            if (LockDecision.of(read.decision()) == LockDecision.ACQUIRED) {
+                fillRegistry.beginLocalLoad(key);
+                LeaseToken held = new LeaseToken(Lease.RECOMPUTE, read.token());
+                Object adopted = adoptPreviousVersion(key, softTtl, hardTtl, held, metrics);
+                if (adopted != null)
+                    return (T) adopted;
+                return recomputeAndStoreWithSwr(key, softTtl, hardTtl, loader, metrics, held);
             }
+
+            // Another node won the lease — park until it announces the fill, then re-read
+            metrics.lockContended();
+            FillWait wait = awaitFill(key, fillDeadline, metrics);
+            if (wait != FillWait.FILLED)
+                return onFillWaitExpired(key, wait, "SWR", loader,
+                        swrRetry(key, softTtl, hardTtl, loader, metrics), metrics);
+            NearCache.Entry filled = nearCache.get(key);
+            if (filled != null)
+                return (T) unwrapNegative(filled.value());
         }
     }
 
-    // Recompute and store value with XFetch
-    private <T> T recomputeAndStore(String key, Duration ttl, Supplier<T> loader) {
+    // Park on the per-key fill future until the winner (local or remote) finishes or the deadline passes
+    private FillWait awaitFill(String key, long deadlineNanos, CacheGuardMetrics.Meters metrics) {
+        long start = System.nanoTime();
+        FillWait wait = awaitFill(key, deadlineNanos);
+        metrics.fillWait(System.nanoTime() - start, wait == FillWait.FILLED);
+        return wait;
+    }
+
+    private FillWait awaitFill(String key, long deadlineNanos) {
+        CompletableFuture<Void> pending = fillRegistry.register(key);
+        try {
+            // The winner may have finished between our probe and the registration
+            if (!fillRegistry.isLoadingLocally(key) && cacheStore.hasValue(key)) {
+                return FillWait.FILLED;
+            }
+
+            long remainingNanos = deadlineNanos - System.nanoTime();
+            if (remainingNanos <= 0)
+                throw new TimeoutException();
+            pending.get(remainingNanos, TimeUnit.NANOSECONDS);
+            return FillWait.FILLED;
+        } catch (TimeoutException e) {
+            return FillWait.TIMED_OUT;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return FillWait.INTERRUPTED;
+        } catch (ExecutionException e) {
+            // Futures are only ever completed normally; treat anything else as a wake-up
+            return FillWait.FILLED;
+        } finally {
+            // Other waiters may still be parked on the same future; only the last one out removes it
+            fillRegistry.leave(key, pending);
+        }
+    }
+
+    // The winner never announced a fill in time — serve this caller straight from the loader
+    private <T> T onFillWaitExpired(String key, FillWait wait, String strategy, Supplier<T> loader,
+            BooleanSupplier retry, CacheGuardMetrics.Meters metrics) {
+        if (wait == FillWait.INTERRUPTED)
+            return null;
+        log.warn("{}: no fill for '{}' within {}, calling loader directly", strategy, key, fillWaitTimeout);
+        Loaded<T> loaded;
+        try {
+            loaded = load(loader, metrics);
+        } catch (RuntimeException e) {
+            return serveLastKnownGood(key, e, retry, metrics);
+        }
+        if (loaded.value() == null && !loaded.absent())
+            return serveLastKnownGood(key, null, retry, metrics);
+        return loaded.value();
+    }
+
+    // Count a lookup as a miss once, however many times it loops
+    private boolean recordMiss(String key, CacheGuardMetrics.Meters metrics, boolean alreadyRecorded) {
+        if (!alreadyRecorded) {
+            metrics.miss();
+            trace.miss(key);
+        }
+        return true;
+    }
+
+    // Run the loader, recording its latency and failures; the elapsed time becomes the XFetch delta.
+    // A not-found from upstream is a result, not a failure: it comes back as an absent Loaded.
+    private static <T> Loaded<T> load(Supplier<T> loader, CacheGuardMetrics.Meters metrics) {
+        long start = System.nanoTime();
         try {
-            long start = System.currentTimeMillis();
             T value = loader.get();
-            long delta = System.currentTimeMillis() - start;
+            long elapsed = System.nanoTime() - start;
+            metrics.loaderCompleted(elapsed, value == null);
+            return new Loaded<>(value, TimeUnit.NANOSECONDS.toMillis(elapsed), false);
+        } catch (RuntimeException e) {
+            if (UpstreamNotFoundException.find(e) != null) {
+                long elapsed = System.nanoTime() - start;
+                metrics.loaderCompleted(elapsed, false);
+                return new Loaded<>(null, TimeUnit.NANOSECONDS.toMillis(elapsed), true);
+            }
+            metrics.loaderFailed(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    // Recompute and store value with XFetch; current and previous are the still-valid value and its
+    // fingerprint on an early recompute
+    @SuppressWarnings("unchecked")
+    private <T> T recomputeAndStore(String key, Duration ttl, Supplier<T> loader,
+            CacheGuardMetrics.Meters metrics, Object current, LeaseToken held, String previous) {
+        boolean released = false;
+        try {
+            Loaded<T> loaded;
+            try {
+                loaded = loadUnderLease(key, held, loader, metrics);
+            } catch (RuntimeException e) {
+                if (current != null)
+                    return (T) unwrapNegative(current);
+                return serveLastKnownGood(key, e, xfetchRetry(key, ttl, loader, metrics), metrics);
+            }
+            T value = loaded.value();
+            long delta = loaded.deltaMs();
             if (value != null) {
-                storeDelta(key, delta);
-                redisTemplate.opsForValue().set(key, toCacheable(value), addJitter(ttl));
+                // The write releases the recompute lease in the same round trip
+                released = storeXFetchValue(key, value, delta, ttl, held, previous, metrics);
+            } else if (loaded.absent()) {
+                released = storeNegative(key, delta, false, held, metrics);
+            } else if (current != null) {
+                return (T) unwrapNegative(current);
+            } else {
+                return serveLastKnownGood(key, null, xfetchRetry(key, ttl, loader, metrics), metrics);
             }
             return value;
         } finally {
-            redisTemplate.delete(key + LOCK_SUFFIX);
+            releaseFill(key, held, released);
         }
     }
 
     // Recompute and store value with SWR
-    private <T> T recomputeAndStoreWithSwr(
-            String key, String freshKey, Duration softTtl, Duration hardTtl, Supplier<T> loader) {
+    private <T> T recomputeAndStoreWithSwr(String key, Duration softTtl, Duration hardTtl, Supplier<T> loader,
+            CacheGuardMetrics.Meters metrics, LeaseToken held) {
+        boolean released = false;
         try {
-            long start = System.currentTimeMillis();
-            T value = loader.get();
-            long delta = System.currentTimeMillis() - start;
+            Loaded<T> loaded;
+            try {
+                loaded = loadUnderLease(key, held, loader, metrics);
+            } catch (RuntimeException e) {
+                return serveLastKnownGood(key, e, swrRetry(key, softTtl, hardTtl, loader, metrics), metrics);
+            }
+            T value = loaded.value();
+            long delta = loaded.deltaMs();
             if (value != null) {
-                storeDelta(key, delta);
-                redisTemplate.opsForValue().set(key, toCacheable(value), addJitter(hardTtl));
-                redisTemplate.opsForValue().set(freshKey, "1", addJitter(softTtl));
+                released = storeSwrValue(key, value, delta, softTtl, hardTtl, held, null, metrics);
+            } else if (loaded.absent()) {
+                released = storeNegative(key, delta, true, held, metrics);
+            } else {
+                return serveLastKnownGood(key, null, swrRetry(key, softTtl, hardTtl, loader, metrics), metrics);
             }
             return value;
         } finally {
-            // Release the cold-miss lock so waiting threads can read the populated value
-            redisTemplate.delete(key + LOCK_SUFFIX);
+            releaseFill(key, held, released);
         }
     }
 
-    // Perform background refresh
-    private <T> void backgroundRefresh(
-            String key, String freshKey, String refreshingKey,
-            Duration softTtl, Duration hardTtl, Supplier<T> loader) {
+    /**
+     * Cold miss under a new schema version: adopt the entry the previous version
+     * wrote if it still decodes into the current DTO, re-encoding it under this
+     * key with what was left of its TTLs, so a rollout doesn't turn every cached
+     * title into a TMDB call. Returns null, with the lease still held, when there
+     * is nothing to adopt. The previous entry stays in place for nodes still
+     * running the old build.
+     */
+    private Object adoptPreviousVersion(String key, Duration softTtl, Duration hardTtl, LeaseToken held,
+            CacheGuardMetrics.Meters metrics) {
+        String previousKey = cacheSchemas.previousVersion(key);
+        if (previousKey == null)
+            return null;
+        CacheStorePort.Read read;
         try {
-            long start = System.currentTimeMillis();
-            T value = loader.get();
-            long delta = System.currentTimeMillis() - start;
+            read = cacheStore.peek(previousKey);
+        } catch (Exception e) {
+            log.debug("Schema: failed to read previous version of '{}': {}", key, e.getMessage());
+            return null;
+        }
+        if (read.value() == null)
+            return null;
+        Object value;
+        try {
+            value = valueSerializer.deserialize(read.value());
+        } catch (Exception e) {
+            log.debug("Schema: previous version of '{}' no longer decodes: {}", key, e.getMessage());
+            metrics.schemaAdoption(false);
+            return null;
+        }
+        if (value == null || value instanceof NegativeCacheEntry)
+            return null;
+
+        metrics.schemaAdoption(true);
+        long delta = Double.isNaN(read.deltaMs()) ? (long) DEFAULT_DELTA_MS : (long) read.deltaMs();
+        Duration ttl = read.pttlMs() > 0 ? Duration.ofMillis(Math.min(hardTtl.toMillis(), read.pttlMs())) : hardTtl;
+        boolean released = false;
+        try {
+            if (softTtl == null) {
+                released = storeXFetchValue(key, value, delta, ttl, held, null, metrics);
+            } else {
+                long softMs = read.softRemainingMs() < 0 ? softTtl.toMillis()
+                        : Math.min(softTtl.toMillis(), read.softRemainingMs());
+                // An already stale entry gets a 1 ms soft window, so its next read schedules a refresh
+                released = storeSwrValue(key, value, delta, Duration.ofMillis(Math.max(1, softMs)), ttl, held,
+                        null, metrics);
+            }
+        } finally {
+            releaseFill(key, held, released);
+        }
+        return value;
+    }
+
+    // Run the loader while the lease is renewed in the background, so a slow load never lets it lapse
+    private <T> Loaded<T> loadUnderLease(String key, LeaseToken held, Supplier<T> loader,
+            CacheGuardMetrics.Meters metrics) {
+        try (LeaseRenewer.Renewal ignored = leaseRenewer.start(key, held, LOCK_TTL_MS, metrics::leaseLost)) {
+            return load(loader, metrics);
+        }
+    }
+
+    /**
+     * The loader failed or produced nothing: answer with the last known good
+     * value, flag the response as stale and keep retrying in the background
+     * until the upstream recovers. Without a last known good value the failure
+     * surfaces exactly as before.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T serveLastKnownGood(String key, RuntimeException failure, BooleanSupplier retry,
+            CacheGuardMetrics.Meters metrics) {
+        byte[] raw = lastKnownGood.load(key);
+        Object value = null;
+        if (raw != null) {
+            try {
+                value = valueSerializer.deserialize(raw);
+            } catch (Exception e) {
+                log.warn("LastKnownGood: failed to deserialize '{}', dropping it: {}", key, e.getMessage());
+                lastKnownGood.delete(key);
+            }
+        }
+        if (value == null) {
+            if (failure != null)
+                throw failure;
+            return null;
+        }
+
+        log.debug("Serving last known good value for '{}' after a loader failure", key);
+        metrics.staleServed();
+        StaleResponses.mark();
+        lastKnownGood.scheduleRetry(key, retry);
+        return (T) value;
+    }
+
+    // Background retry for an XFetch entry served from the last-known-good tier
+    private <T> BooleanSupplier xfetchRetry(String key, Duration ttl, Supplier<T> loader,
+            CacheGuardMetrics.Meters metrics) {
+        return () -> retryUnderLease(key, loader, metrics, (loaded, held) -> loaded.value() != null
+                ? storeXFetchValue(key, loaded.value(), loaded.deltaMs(), ttl, held, null, metrics)
+                : storeNegative(key, loaded.deltaMs(), false, held, metrics));
+    }
+
+    // Background retry for an SWR entry served from the last-known-good tier
+    private <T> BooleanSupplier swrRetry(String key, Duration softTtl, Duration hardTtl, Supplier<T> loader,
+            CacheGuardMetrics.Meters metrics) {
+        return () -> retryUnderLease(key, loader, metrics, (loaded, held) -> loaded.value() != null
+                ? storeSwrValue(key, loaded.value(), loaded.deltaMs(), softTtl, hardTtl, held, null, metrics)
+                : storeNegative(key, loaded.deltaMs(), true, held, metrics));
+    }
+
+    /**
+     * One last-known-good retry: takes the recompute lease so the write is
+     * fenced like any other fill, and skips the attempt while another caller
+     * holds it. A write fenced off by a newer holder still counts as recovered,
+     * since that holder has just stored a fresh value.
+     */
+    private <T> boolean retryUnderLease(String key, Supplier<T> loader, CacheGuardMetrics.Meters metrics,
+            BiPredicate<Loaded<T>, LeaseToken> store) {
+        long token = cacheStore.acquire(key, Lease.RECOMPUTE, LOCK_TTL_MS);
+        if (token < 0)
+            return false;
+        LeaseToken held = new LeaseToken(Lease.RECOMPUTE, token);
+        boolean released = false;
+        try {
+            Loaded<T> loaded = loadUnderLease(key, held, loader, metrics);
+            if (loaded.value() == null && !loaded.absent())
+                return false;
+            released = store.test(loaded, held);
+            cacheEventBus.publishFilled(key);
+            return true;
+        } finally {
+            if (!released)
+                cacheStore.release(key, held);
+        }
+    }
+
+    // Release the recompute lease if the write didn't, then wake local waiters and tell peers
+    private void releaseFill(String key, LeaseToken held, boolean released) {
+        try {
+            if (!released)
+                cacheStore.release(key, held);
+        } finally {
+            fillRegistry.endLocalLoad(key);
+            cacheEventBus.publishFilled(key);
+        }
+    }
+
+    // Perform background refresh; softTtl is null when refreshing an XFetch entry ahead of expiry
+    private <T> void backgroundRefresh(String key, Duration softTtl, Duration hardTtl, Supplier<T> loader,
+            CacheGuardMetrics.Meters metrics, LeaseToken held, String previous) {
+        boolean released = false;
+        String strategy = softTtl != null ? "SWR" : "XFetch";
+        try {
+            // Nobody is waiting on the reload, so its TMDB calls only use spare budget
+            Loaded<T> loaded = OutboundPriority.background(() -> loadUnderLease(key, held, loader, metrics));
+            T value = loaded.value();
+            long delta = loaded.deltaMs();
             if (value != null) {
-                storeDelta(key, delta);
-                redisTemplate.opsForValue().set(key, toCacheable(value), addJitter(hardTtl));
-                redisTemplate.opsForValue().set(freshKey, "1", addJitter(softTtl));
-                log.debug("SWR: background refresh complete for '{}'", key);
+                released = softTtl != null
+                        ? storeSwrValue(key, value, delta, softTtl, hardTtl, held, previous, metrics)
+                        : storeXFetchValue(key, value, delta, hardTtl, held, previous, metrics);
+                cacheEventBus.publishFilled(key);
+                log.debug("{}: background refresh complete for '{}'", strategy, key);
+            } else if (loaded.absent()) {
+                // The value disappeared upstream — stop serving the stale copy
+                released = storeNegative(key, delta, softTtl != null, held, metrics);
+                cacheEventBus.publishFilled(key);
             }
         } catch (Exception e) {
-            log.error("SWR: background refresh failed for '{}': {}", key, e.getMessage());
+            log.error("{}: background refresh failed for '{}': {}", strategy, key, e.getMessage());
         } finally {
-            redisTemplate.delete(refreshingKey);
+            if (!released)
+                cacheStore.release(key, held);
         }
     }
 
+    // Store an XFetch value with a jittered TTL in the envelope and the near cache; false when fenced off
+    private boolean storeXFetchValue(String key, Object value, long delta, Duration ttl, LeaseToken held,
+            String previous, CacheGuardMetrics.Meters metrics) {
+        Duration jitteredTtl = addJitter(ttl);
+        CachedValue stored = writeValue(key, toCacheable(value), jitteredTtl, null, delta, held, previous, metrics);
+        if (stored == null)
+            return false;
+        nearCache.put(key, new NearCache.Entry(stored.value(), stored.sizeBytes(),
+                System.currentTimeMillis() + scale(jitteredTtl, stored.ttlFactor()).toMillis(), 0, delta));
+        return true;
+    }
+
+    // Store an SWR value with its soft expiry in the envelope; false when fenced off
+    private boolean storeSwrValue(String key, Object value, long delta, Duration softTtl, Duration hardTtl,
+            LeaseToken held, String previous, CacheGuardMetrics.Meters metrics) {
+        Duration jitteredSoftTtl = addJitter(softTtl);
+        CachedValue stored = writeValue(key, toCacheable(value), addJitter(hardTtl), jitteredSoftTtl, delta, held,
+                previous, metrics);
+        if (stored == null)
+            return false;
+        long softExpiresAt = System.currentTimeMillis() + scale(jitteredSoftTtl, stored.ttlFactor()).toMillis();
+        nearCache.put(key, new NearCache.Entry(stored.value(), stored.sizeBytes(),
+                softExpiresAt, softExpiresAt, delta));
+        return true;
+    }
+
+    // Cache a not-found marker for the namespace's negative TTL; SWR markers are fresh for their whole life
+    private boolean storeNegative(String key, long delta, boolean swr, LeaseToken held,
+            CacheGuardMetrics.Meters metrics) {
+        Duration ttl = negativeCache.ttlFor(CacheKeys.namespace(key));
+        CachedValue stored = writeValue(key, new NegativeCacheEntry(404), ttl, swr ? ttl : null, delta, held,
+                null, metrics);
+        if (stored == null)
+            return false;
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+        nearCache.put(key, new NearCache.Entry(stored.value(), stored.sizeBytes(),
+                expiresAt, swr ? expiresAt : 0, delta));
+        metrics.negativeStored();
+        return true;
+    }
+
+    // Count a cache hit; a cached not-found marker is counted separately and answered as null
+    @SuppressWarnings("unchecked")
+    private <T> T serve(String key, Object value, int sizeBytes, Tier tier, CacheGuardMetrics.Meters metrics) {
+        trace.hit(key, tier, sizeBytes);
+        if (value instanceof NegativeCacheEntry) {
+            metrics.negativeHit(tier);
+            return null;
+        }
+        metrics.hit(tier);
+        return (T) value;
+    }
+
+    private static Object unwrapNegative(Object value) {
+        return value instanceof NegativeCacheEntry ? null : value;
+    }
+
+    // XFetch probe: value, remaining TTL, delta and lease decision, timed per fetch path
+    private XFetchProbe probe(String key, double beta) {
+        double factor = xfetchFactor(beta);
+        CacheStorePort.Read read = fetchMode == CacheProperties.FetchMode.LUA
+                ? luaFetchTimer.record(() -> cacheStore.xfetch(key, factor, LOCK_TTL_MS, DEFAULT_DELTA_MS))
+                : multiCallFetchTimer.record(
+                        () -> cacheStore.xfetchWithCommands(key, factor, LOCK_TTL_MS, DEFAULT_DELTA_MS));
+        return toProbe(key, read);
+    }
+
+    private XFetchProbe toProbe(String key, CacheStorePort.Read read) {
+        if (read == null) {
+            return new XFetchProbe(null, false, -2, DEFAULT_DELTA_MS, LockDecision.CONTENDED, 0, null);
+        }
+
+        CachedValue cached = read.value() != null ? decode(key, read.value(), "XFetch") : null;
+        double deltaMs = Double.isNaN(read.deltaMs()) ? DEFAULT_DELTA_MS : read.deltaMs();
+        return new XFetchProbe(cached, read.value() != null && cached == null, read.pttlMs(), deltaMs,
+                LockDecision.of(read.decision()), read.token(), read.fingerprint());
+    }
+
+    // Recompute early when (delta * beta * -ln(rand)) >= remainingTtl; rand is drawn from (0, 1]
+    private static double xfetchFactor(double beta) {
+        double rand = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return beta * -Math.log(rand);
+    }
+
+    // Deserialize a raw payload, evicting entries written in an incompatible shape
+    private CachedValue decode(String key, byte[] raw, String strategy) {
+        try {
+            Object value = valueSerializer.deserialize(raw);
+            return value == null ? null : new CachedValue(value, raw.length, 1);
+        } catch (Exception e) {
+            log.warn("{}: failed to deserialize '{}', evicting stale entry: {}", strategy, key, e.getMessage());
+            cacheStore.delete(key);
+            nearCache.invalidate(key);
+            cacheEventBus.publishInvalidation(key);
+            return null;
+        }
+    }
+
+    /**
+     * Serialize once and write the envelope, keeping a last-known-good copy of
+     * real values. The TTLs are base TTLs that Redis scales by the entry's
+     * adaptive multiplier. When the fingerprint matches the value this refresh
+     * replaced, only the entry's TTLs and bookkeeping are refreshed and the
+     * payload is not sent again. Returns null when the write was fenced off: a
+     * newer value or lease holder owns the entry.
+     */
+    private CachedValue writeValue(String key, Object value, Duration ttl, Duration softTtl, long deltaMs,
+            LeaseToken held, String previous, CacheGuardMetrics.Meters metrics) {
+        byte[] raw = valueSerializer.serialize(value);
+        String fingerprint = CacheStorePort.fingerprint(raw);
+        boolean negative = value instanceof NegativeCacheEntry;
+        CacheProperties.AdaptiveTtl adaptive = negative ? null : adaptiveTtl;
+
+        double factor = -1;
+        boolean unchanged = previous != null && previous.equals(fingerprint);
+        if (previous != null)
+            metrics.refreshed(unchanged);
+        if (unchanged)
+            factor = cacheStore.touch(key, fingerprint, ttl, softTtl, deltaMs, held, adaptive);
+        // Changed, first write, or the entry moved on since it was read — send the payload
+        if (factor < 0) {
+            unchanged = false;
+            factor = cacheStore.write(key, raw, fingerprint, ttl, softTtl, deltaMs, held, adaptive);
+        }
+        if (factor == 0) {
+            log.debug("Write for '{}' fenced off: a newer value or lease holder exists", key);
+            metrics.writeFenced();
+            return null;
+        }
+        if (adaptive != null)
+            metrics.ttlFactor(factor);
+
+        Duration effectiveTtl = scale(ttl, factor);
+        Duration effectiveSoftTtl = softTtl == null ? null : scale(softTtl, factor);
+        trace.load(key, raw == null ? 0 : raw.length, deltaMs, effectiveTtl, effectiveSoftTtl, unchanged);
+        if (negative)
+            lastKnownGood.delete(key);
+        else if (unchanged)
+            lastKnownGood.touch(key, effectiveTtl);
+        else
+            lastKnownGood.save(key, raw, effectiveTtl);
+        return new CachedValue(value, raw == null ? 0 : raw.length, factor);
+    }
+
+    private static Duration scale(Duration ttl, double factor) {
+        return factor == 1 ? ttl : Duration.ofMillis((long) (ttl.toMillis() * factor));
+    }
+
     // Ensure the value is serializable by Jackson's NON_FINAL default typing.
     // Immutable/final collections (e.g. from .toList()) won't get type info,
     // so convert them to ArrayList which is non-final and gets properly wrapped.
@@ -211,20 +945,6 @@ public class CacheStampedeGuard {
         return value;
     }
 
-    // Get stored delta from Redis
-    private double getStoredDelta(String key) {
-        Object deltaObj = redisTemplate.opsForValue().get(key + DELTA_SUFFIX);
-        if (deltaObj instanceof Number n) {
-            return n.doubleValue();
-        }
-        return DEFAULT_DELTA_MS;
-    }
-
-    // Store delta in Redis
-    private void storeDelta(String key, long deltaMs) {
-        redisTemplate.opsForValue().set(key + DELTA_SUFFIX, deltaMs, Duration.ofDays(7));
-    }
-
     // Add jitter to TTL
     private static Duration addJitter(Duration ttl) {
         if (ttl == null || ttl.isZero() || ttl.isNegative())
@@ -233,4 +953,32 @@ public class CacheStampedeGuard {
         long jitter = (long) (seconds * ThreadLocalRandom.current().nextDouble(0.10, 0.20));
         return ttl.plusSeconds(jitter);
     }
+
+    // Deserialized value together with its serialized size
+    // ttlFactor is the adaptive multiplier Redis applied to the entry's TTLs (1 for reads)
+    private record CachedValue(Object value, int sizeBytes, double ttlFactor) {
+    }
+
+    // Result of one XFetch read against Redis; evicted marks a value that failed to decode
+    private record XFetchProbe(CachedValue cached, boolean evicted, long remainingTtlMs, double deltaMs,
+            LockDecision lock, long token, String fingerprint) {
+    }
+
+    // Loader result together with how long it took; absent marks an upstream not-found
+    private record Loaded<T>(T value, long deltaMs, boolean absent) {
+    }
+
+    private enum FillWait {
+        FILLED, TIMED_OUT, INTERRUPTED
+    }
+
+    private enum LockDecision {
+        ACQUIRED, NOT_NEEDED, CONTENDED;
+
+        static LockDecision of(long scriptReply) {
+            if (scriptReply == 1)
+                return ACQUIRED;
+            return scriptReply == 0 ? NOT_NEEDED : CONTENDED;
+        }
+    }
 }
@@ -1,14 +1,20 @@
 package com.riyura.backend.common.config;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.riyura.backend.common.cache.CacheValueCodec;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
@@ -17,11 +23,34 @@ public class RedisConfig {
     public static final long PARTY_TTL_SECONDS = 3600L;
 
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory factory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory factory, CacheValueCodec cacheValueCodec) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(factory);
 
-        ObjectMapper mapper = new ObjectMapper();
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setHashKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(cacheValueCodec);
+        template.setHashValueSerializer(cacheValueCodec);
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    // Headed Smile/JSON codec; header-less payloads written before it are read as typed JSON
+    @Bean
+    public CacheValueCodec cacheValueCodec(CacheProperties cacheProperties, MeterRegistry meterRegistry) {
+        return valueCodec(cacheProperties.codec(),
+                new GenericJackson2JsonRedisSerializer(typedMapper(new JsonFactory())), meterRegistry);
+    }
+
+    static CacheValueCodec valueCodec(CacheProperties.Codec codec, RedisSerializer<Object> legacy,
+            MeterRegistry meterRegistry) {
+        return new CacheValueCodec(codec.format(), (int) codec.compressThreshold().toBytes(),
+                typedMapper(new JsonFactory()), typedMapper(new SmileFactory()), legacy, meterRegistry);
+    }
+
+    // Polymorphic mapper restricted to an allowlist of types, shared by every cache value format
+    static ObjectMapper typedMapper(JsonFactory factory) {
+        ObjectMapper mapper = new ObjectMapper(factory);
         mapper.registerModule(new JavaTimeModule());
         mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
@@ -35,14 +64,14 @@ public class RedisConfig {
 
         mapper.activateDefaultTyping(ptv, ObjectMapper.DefaultTyping.NON_FINAL,
                 com.fasterxml.jackson.annotation.JsonTypeInfo.As.PROPERTY);
+        return mapper;
+    }
 
-        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(mapper);
-
-        template.setKeySerializer(new StringRedisSerializer());
-        template.setHashKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(jsonSerializer);
-        template.setHashValueSerializer(jsonSerializer);
-        template.afterPropertiesSet();
-        return template;
+    // Pub/sub listener container used for cross-node cache invalidation
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory factory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        return container;
     }
 }
@@ -5,17 +5,27 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
 import java.time.Duration;
+import java.util.concurrent.Executors;
 
 // Responsible for configuring RestTemplate with custom timeouts for HTTP requests
 @Configuration
 public class RestTemplateConfig {
 
+    // Shared by RestTemplate and TmdbClient.fetchAsync; HTTP/2 multiplexes concurrent calls to one host over a
+    // single connection, and response handling runs on virtual threads rather than a platform pool
     @Bean
-    public RestTemplate restTemplate() {
-        java.net.http.HttpClient httpClient = java.net.http.HttpClient.newBuilder()
+    public HttpClient httpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
                 .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
                 .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(HttpClient httpClient) {
         JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
         factory.setReadTimeout(Duration.ofSeconds(10));
         return new RestTemplate(factory);
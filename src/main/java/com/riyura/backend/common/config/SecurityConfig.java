@@ -75,8 +75,9 @@ public class SecurityConfig {
                                                 .requestMatchers("/api/test/**")
                                                 .hasAuthority("ROLE_ADMIN")
 
-                                                // Actuator — allow health, restrict the rest
-                                                .requestMatchers("/actuator/health", "/actuator/health/**")
+                                                // Actuator — allow health and the Prometheus scrape, restrict the rest
+                                                .requestMatchers("/actuator/health", "/actuator/health/**",
+                                                                "/actuator/prometheus")
                                                 .permitAll()
                                                 .requestMatchers("/actuator/**")
                                                 .authenticated()
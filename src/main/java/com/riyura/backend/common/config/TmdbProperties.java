@@ -2,9 +2,43 @@ package com.riyura.backend.common.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 @ConfigurationProperties(prefix = "tmdb")
 public record TmdbProperties(
                 String apiKey,
                 String baseUrl,
-                String imageBaseUrl) {
+                String imageBaseUrl,
+                RateLimit rateLimit) {
+
+        public TmdbProperties {
+                if (rateLimit == null)
+                        rateLimit = new RateLimit(null, null, null, null, null, null);
+        }
+
+        // Cluster-wide budget for outbound TMDB calls, shared by every node through Redis
+        public record RateLimit(
+                        Boolean enabled,
+                        Integer requestsPerSecond,
+                        Integer burst,
+                        // Tokens background refreshes leave for interactive calls
+                        Integer backgroundReserve,
+                        Duration interactiveMaxWait,
+                        Duration backgroundMaxWait) {
+
+                public RateLimit {
+                        if (enabled == null)
+                                enabled = true;
+                        if (requestsPerSecond == null || requestsPerSecond < 1)
+                                requestsPerSecond = 40;
+                        if (burst == null || burst < 1)
+                                burst = requestsPerSecond;
+                        if (backgroundReserve == null || backgroundReserve < 0)
+                                backgroundReserve = burst / 4;
+                        if (interactiveMaxWait == null)
+                                interactiveMaxWait = Duration.ofSeconds(2);
+                        if (backgroundMaxWait == null)
+                                backgroundMaxWait = Duration.ofSeconds(5);
+                }
+        }
 }
@@ -52,6 +52,11 @@ public class GlobalExceptionHandler {
                 return ApiErrorResponse.respond(httpStatus, ex.getReason());
         }
 
+        @ExceptionHandler(UpstreamNotFoundException.class)
+        public ResponseEntity<ApiErrorResponse> handleUpstreamNotFound(UpstreamNotFoundException ex) {
+                return ApiErrorResponse.respond(HttpStatus.NOT_FOUND, "Resource not found");
+        }
+
         @ExceptionHandler(Exception.class)
         public ResponseEntity<ApiErrorResponse> handleUnexpected(Exception ex) {
                 log.error("Unhandled exception", ex);
@@ -0,0 +1,30 @@
+package com.riyura.backend.common.exception;
+
+/**
+ * The upstream API answered that the requested resource does not exist (HTTP
+ * 404), as opposed to failing. It is not retried, does not count against the
+ * circuit breaker, and lets {@code CacheStampedeGuard} cache a short-lived
+ * negative entry instead of asking again on every request.
+ */
+public class UpstreamNotFoundException extends RuntimeException {
+
+    public UpstreamNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    // The not-found in a failure's cause chain (e.g. wrapped by a CompletableFuture), or null
+    public static UpstreamNotFoundException find(Throwable failure) {
+        for (Throwable current = failure; current != null; current = current.getCause()) {
+            if (current instanceof UpstreamNotFoundException notFound)
+                return notFound;
+        }
+        return null;
+    }
+
+    // Let a definitive not-found escape a catch-all handler so callers can cache it
+    public static void rethrowIfNotFound(Throwable failure) {
+        UpstreamNotFoundException notFound = find(failure);
+        if (notFound != null)
+            throw notFound;
+    }
+}
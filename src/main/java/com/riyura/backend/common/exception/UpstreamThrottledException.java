@@ -0,0 +1,14 @@
+package com.riyura.backend.common.exception;
+
+/**
+ * An outbound call was held back by the cluster-wide TMDB rate governor: no
+ * token became available within the caller's lane wait, or a background call
+ * found no headroom above the interactive reserve. The upstream was never
+ * contacted, so it does not count against the circuit breaker.
+ */
+public class UpstreamThrottledException extends RuntimeException {
+
+    public UpstreamThrottledException(String message) {
+        super(message);
+    }
+}
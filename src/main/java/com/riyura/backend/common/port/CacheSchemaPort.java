@@ -0,0 +1,15 @@
+package com.riyura.backend.common.port;
+
+import java.util.Map;
+
+/**
+ * Declares the value type behind each guarded cache namespace a module owns
+ * (for list values, the element type). The cache derives a schema version from
+ * the type's structure, so changing a DTO moves its namespace to fresh keys
+ * instead of failing to decode the entries an older build wrote.
+ */
+public interface CacheSchemaPort {
+
+    // Namespace (cache key prefix) -> cached DTO type
+    Map<String, Class<?>> cacheSchemas();
+}
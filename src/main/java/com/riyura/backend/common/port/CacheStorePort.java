@@ -0,0 +1,159 @@
+package com.riyura.backend.common.port;
+
+import com.riyura.backend.common.config.CacheProperties;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Storage behind {@code CacheStampedeGuard}: guarded entries with their
+ * bookkeeping and fenced leases, last-known-good copies, and the broadcast
+ * channel the nodes coordinate over. Every entry operation is atomic per key
+ * and works on logical keys ({@code movieDetails:42}); how an entry is laid
+ * out is up to the store. {@code RedisCacheStore} is the production store;
+ * {@code InMemoryCacheStore} implements the same semantics in-process, so a
+ * single node, a benchmark or an integration test runs the full
+ * stampede / SWR logic without Redis ({@code riyura.cache.store: in-memory}).
+ */
+public interface CacheStorePort {
+
+    // XFetch read: applies the early-recompute formula and takes the recompute lease when it fires or on a miss
+    Read xfetch(String key, double factor, long leaseMs, double defaultDeltaMs);
+
+    // XFetch read built from plain commands, for stores where that differs from xfetch
+    default Read xfetchWithCommands(String key, double factor, long leaseMs, double defaultDeltaMs) {
+        return xfetch(key, factor, leaseMs, defaultDeltaMs);
+    }
+
+    // SWR read: cold misses race for the recompute lease, stale hits for the refresh lease
+    Read swr(String key, long leaseMs);
+
+    /**
+     * Refresh-ahead probe for a hot key: takes the refresh lease (SWR entries)
+     * or the recompute lease (XFetch entries) when the entry expires within
+     * {@code leadMs}. The reply carries no value; a missing entry never takes a
+     * lease.
+     */
+    Read ahead(String key, long leadMs, long leaseMs);
+
+    // Lease-free read of an entry; softRemainingMs is -1 for XFetch entries
+    Read peek(String key);
+
+    // Non-blocking counterpart of xfetch
+    CompletableFuture<Read> xfetchAsync(String key, double factor, long leaseMs, double defaultDeltaMs);
+
+    // Non-blocking counterpart of swr
+    CompletableFuture<Read> swrAsync(String key, long leaseMs);
+
+    // Serialized values of several entries, without taking leases; missing entries are left out
+    CompletableFuture<Map<String, byte[]>> getAll(Collection<String> keys);
+
+    // Fencing token of the acquired lease, or -1 when another caller holds it
+    long acquire(String key, Lease lease, long leaseMs);
+
+    // Extends a held lease; false once it was taken over or the entry is gone
+    boolean renew(String key, LeaseToken held, long leaseMs);
+
+    /**
+     * Writes a fresh entry, replacing whatever it held. A write under a lease
+     * is fenced: it is refused when a newer token already wrote the entry or
+     * another caller holds a live lease, and releases the writer's lease
+     * otherwise. Both TTLs are base TTLs, scaled by the entry's adaptive
+     * multiplier.
+     *
+     * @param fingerprint fingerprint of {@code value}, compared by later refreshes
+     * @param softTtl     soft expiry for SWR entries, {@code null} for XFetch entries
+     * @param held        lease the value was computed under, or {@code null} for an unfenced write
+     * @param adaptive    TTL multiplier bounds, or {@code null} to keep the TTLs as given
+     * @return the TTL multiplier applied, or 0 when the write was fenced off
+     */
+    double write(String key, byte[] value, String fingerprint, Duration ttl, Duration softTtl, long deltaMs,
+            LeaseToken held, CacheProperties.AdaptiveTtl adaptive);
+
+    /**
+     * Refreshes an entry whose stored fingerprint matches without resending the
+     * payload: TTLs, computed-at and delta are updated, the lease released and
+     * the multiplier grown, exactly as a write of the same value would.
+     *
+     * @return the TTL multiplier applied, 0 when fenced off, or -1 when the
+     *         stored value differs and a full {@link #write} is needed
+     */
+    double touch(String key, String fingerprint, Duration ttl, Duration softTtl, long deltaMs, LeaseToken held,
+            CacheProperties.AdaptiveTtl adaptive);
+
+    // Compare-and-delete: only removes the lease while it is still held under the caller's token
+    void release(String key, LeaseToken held);
+
+    // True once the entry holds a value (a lease-only entry means a fill is still in flight)
+    boolean hasValue(String key);
+
+    // Number of entries removed
+    Long delete(Collection<String> keys);
+
+    default boolean delete(String key) {
+        Long deleted = delete(List.of(key));
+        return deleted != null && deleted > 0;
+    }
+
+    // Last-known-good copy of an entry's value, kept for ttl; failures are the caller's to swallow
+    void saveLastKnownGood(String key, byte[] value, Duration ttl);
+
+    // Extends the copy's expiry without resending it
+    void touchLastKnownGood(String key, Duration ttl);
+
+    byte[] loadLastKnownGood(String key);
+
+    void deleteLastKnownGood(String key);
+
+    // Broadcasts a cache event to every node, including this one
+    void publish(String message);
+
+    // Registers a listener for broadcast cache events
+    void subscribe(Consumer<String> listener);
+
+    // Short, stable fingerprint of a serialized value; equal payloads mean an unchanged refresh
+    static String fingerprint(byte[] raw) {
+        if (raw == null)
+            return null;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(raw);
+            return HexFormat.of().formatHex(digest, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    enum Lease {
+        // Held by the caller recomputing a cold or early-expiring entry
+        RECOMPUTE,
+        // Held by the background SWR refresh of a stale entry
+        REFRESH
+    }
+
+    /**
+     * One read of an entry.
+     *
+     * @param value           serialized value, {@code null} on a miss
+     * @param pttlMs          remaining hard TTL in ms (-2 missing, -1 persistent)
+     * @param deltaMs         last recompute time in ms, {@code NaN} when unknown
+     * @param softRemainingMs time left in the SWR fresh window (0 when stale or XFetch; -1 for XFetch from
+     *                        {@link #peek})
+     * @param decision        1 lease acquired, 0 nothing to do, -1 lease held elsewhere
+     * @param token           fencing token of the acquired lease (only meaningful when decision is 1)
+     * @param fingerprint     fingerprint of the stored value, {@code null} when unknown
+     */
+    record Read(byte[] value, long pttlMs, double deltaMs, long softRemainingMs, long decision, long token,
+            String fingerprint) {
+    }
+
+    // A lease held by this caller together with the fencing token it was issued
+    record LeaseToken(Lease lease, long token) {
+    }
+}
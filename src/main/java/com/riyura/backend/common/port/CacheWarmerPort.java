@@ -0,0 +1,13 @@
+package com.riyura.backend.common.port;
+
+/**
+ * Resolves a cache warm-up manifest entry (a logical cache key such as
+ * {@code moviesTrending:12}) to the loader that fills it. Modules that own
+ * guarded caches implement this; the warm-up runner never needs to know
+ * which service backs which key.
+ */
+public interface CacheWarmerPort {
+
+    // A task that loads the key through its service, or null when this warmer doesn't own the key
+    Runnable warmUpTask(String key);
+}
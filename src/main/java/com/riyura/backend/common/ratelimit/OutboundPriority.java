@@ -0,0 +1,44 @@
+package com.riyura.backend.common.ratelimit;
+
+import java.util.function.Supplier;
+
+/**
+ * Lane an outbound TMDB call is governed in. Calls are {@link #INTERACTIVE}
+ * unless the work that makes them runs inside {@link #background}: SWR and
+ * refresh-ahead reloads, startup warm-up. The lane is read on the thread that
+ * issues the call, so stages continued on another thread fall back to
+ * interactive.
+ */
+public enum OutboundPriority {
+    // A user request is waiting on the answer; may use the whole budget
+    INTERACTIVE,
+    // Cache maintenance; only runs while the budget has headroom above the interactive reserve
+    BACKGROUND;
+
+    private static final ThreadLocal<OutboundPriority> CURRENT = new ThreadLocal<>();
+
+    public static OutboundPriority current() {
+        OutboundPriority priority = CURRENT.get();
+        return priority != null ? priority : INTERACTIVE;
+    }
+
+    public static void background(Runnable work) {
+        background(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public static <T> T background(Supplier<T> work) {
+        OutboundPriority previous = CURRENT.get();
+        CURRENT.set(BACKGROUND);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null)
+                CURRENT.set(previous);
+            else
+                CURRENT.remove();
+        }
+    }
+}
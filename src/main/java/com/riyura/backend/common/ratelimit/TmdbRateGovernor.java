@@ -0,0 +1,166 @@
+package com.riyura.backend.common.ratelimit;
+
+import com.riyura.backend.common.config.TmdbProperties;
+import com.riyura.backend.common.exception.UpstreamThrottledException;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Cluster-wide token bucket for outbound TMDB calls, kept in Redis through
+ * the same bucket4j {@link LettuceBasedProxyManager} as the inbound
+ * {@link RateLimitFilter}, so every node draws from one budget
+ * ({@code tmdb.rate-limit}). {@code TmdbClient} takes a token before each
+ * upstream attempt.
+ * <p>
+ * Interactive calls may drain the bucket and wait up to
+ * {@code interactive-max-wait} for a refill. Background calls
+ * ({@link OutboundPriority#BACKGROUND}) only take a token while at least
+ * {@code background-reserve} remain after it; otherwise they hand it back and
+ * wait for headroom, up to {@code background-max-wait}. A caller that runs out
+ * of wait gets an {@link UpstreamThrottledException}. When Redis is
+ * unreachable the governor fails open, like the inbound filter.
+ */
+@Slf4j
+@Component
+public class TmdbRateGovernor {
+
+    // Redis key format shared with RateLimitFilter: "rate_limit:{client}:{tier}"
+    private static final String BUCKET_KEY = "rate_limit:tmdb:outbound";
+    private static final long MIN_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final TmdbProperties.RateLimit config;
+    private final AsyncBucketProxy bucket;
+    private final long nanosPerToken;
+    private final Map<OutboundPriority, Meters> meters = new EnumMap<>(OutboundPriority.class);
+    private final Counter failedOpen;
+
+    public TmdbRateGovernor(LettuceBasedProxyManager<String> rateLimitProxyManager, TmdbProperties tmdbProperties,
+            MeterRegistry meterRegistry) {
+        this.config = tmdbProperties.rateLimit();
+        this.nanosPerToken = TimeUnit.SECONDS.toNanos(1) / config.requestsPerSecond();
+        BucketConfiguration bucketConfig = BucketConfiguration.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(config.burst())
+                        .refillGreedy(config.requestsPerSecond(), Duration.ofSeconds(1))
+                        .build())
+                .build();
+        this.bucket = rateLimitProxyManager.asAsync().builder()
+                .build(BUCKET_KEY, () -> CompletableFuture.completedFuture(bucketConfig));
+        for (OutboundPriority priority : OutboundPriority.values())
+            meters.put(priority, new Meters(meterRegistry, priority.name().toLowerCase()));
+        this.failedOpen = Counter.builder("tmdb.governor.fail.open")
+                .description("Outbound TMDB calls let through because the shared bucket was unreachable")
+                .register(meterRegistry);
+    }
+
+    // Blocks the calling (virtual) thread until a token is granted
+    public void acquire(OutboundPriority priority) {
+        try {
+            acquireAsync(priority).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    // Completes once a token is granted, or fails with UpstreamThrottledException when the lane's wait runs out
+    public CompletableFuture<Void> acquireAsync(OutboundPriority priority) {
+        if (!config.enabled())
+            return CompletableFuture.completedFuture(null);
+        long start = System.nanoTime();
+        Duration maxWait = priority == OutboundPriority.BACKGROUND ? config.backgroundMaxWait()
+                : config.interactiveMaxWait();
+        return attempt(priority, start, start + maxWait.toNanos());
+    }
+
+    private CompletableFuture<Void> attempt(OutboundPriority priority, long start, long deadline) {
+        return bucket.tryConsumeAndReturnRemaining(1)
+                .handle((probe, failure) -> {
+                    if (failure != null)
+                        return failOpen(failure);
+                    return decide(probe, priority, start, deadline);
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<Void> decide(ConsumptionProbe probe, OutboundPriority priority, long start,
+            long deadline) {
+        long reserve = config.backgroundReserve();
+        if (probe.isConsumed()) {
+            if (priority == OutboundPriority.INTERACTIVE || probe.getRemainingTokens() >= reserve) {
+                meters.get(priority).granted(System.nanoTime() - start);
+                return CompletableFuture.completedFuture(null);
+            }
+            // The token came out of the interactive reserve: give it back and wait for headroom
+            long untilHeadroom = (reserve - probe.getRemainingTokens()) * nanosPerToken;
+            return bucket.addTokens(1)
+                    .handle((ignored, failure) -> retry(priority, start, deadline, untilHeadroom))
+                    .thenCompose(Function.identity());
+        }
+        long untilToken = probe.getNanosToWaitForRefill();
+        if (priority == OutboundPriority.BACKGROUND)
+            untilToken += reserve * nanosPerToken;
+        return retry(priority, start, deadline, untilToken);
+    }
+
+    private CompletableFuture<Void> retry(OutboundPriority priority, long start, long deadline, long waitNanos) {
+        long wait = Math.max(waitNanos, MIN_WAIT_NANOS);
+        if (System.nanoTime() + wait > deadline) {
+            meters.get(priority).throttled();
+            return CompletableFuture.failedFuture(new UpstreamThrottledException(
+                    "TMDB call budget exhausted for " + priority.name().toLowerCase() + " calls"));
+        }
+        // The next attempt fires from the delay timer; the bucket call itself does not block
+        return CompletableFuture.runAsync(() -> {
+        }, CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS, Runnable::run))
+                .thenCompose(ignored -> attempt(priority, start, deadline));
+    }
+
+    private CompletableFuture<Void> failOpen(Throwable failure) {
+        failedOpen.increment();
+        log.warn("[RATE-LIMIT] TMDB budget unavailable — failing open: {}", failure.getMessage());
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static final class Meters {
+
+        private final Counter throttled;
+        private final Timer granted;
+
+        private Meters(MeterRegistry registry, String lane) {
+            this.granted = Timer.builder("tmdb.governor.wait")
+                    .description("Time outbound TMDB calls waited for a token")
+                    .tag("lane", lane)
+                    .register(registry);
+            this.throttled = Counter.builder("tmdb.governor.throttled")
+                    .description("Outbound TMDB calls refused because no token came within the lane's wait")
+                    .tag("lane", lane)
+                    .register(registry);
+        }
+
+        void granted(long waitedNanos) {
+            granted.record(waitedNanos, TimeUnit.NANOSECONDS);
+        }
+
+        void throttled() {
+            throttled.increment();
+        }
+    }
+}
@@ -1,65 +1,380 @@
 package com.riyura.backend.common.service;
 
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import lombok.RequiredArgsConstructor;
+import com.riyura.backend.common.exception.UpstreamNotFoundException;
+import com.riyura.backend.common.exception.UpstreamThrottledException;
+import com.riyura.backend.common.ratelimit.OutboundPriority;
+import com.riyura.backend.common.ratelimit.TmdbRateGovernor;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.UnknownHttpStatusCodeException;
 import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+/**
+ * Single entry point for TMDB GETs. Concurrent identical requests are
+ * coalesced: the first caller for a URL (compared without {@code api_key}
+ * and with its parameters sorted) goes upstream, and every caller that asks
+ * for the same URL while that call is in flight waits for its response
+ * instead of sending another. The raw body is shared and each caller decodes
+ * it into its own type, so services reading the same resource into different
+ * DTOs still coalesce. Counted in {@code tmdb.client.requests}, tagged
+ * {@code coalesced=true|false}. Every upstream attempt first takes a token
+ * from the cluster-wide {@link TmdbRateGovernor} in the caller's
+ * {@link OutboundPriority} lane.
+ * <p>
+ * The {@code tmdb} circuit breaker wraps each upstream attempt a leader makes,
+ * not the callers: followers that join a call in flight share its outcome but
+ * are not recorded by the breaker, so one failed call on a popular title
+ * counts once however many requests were waiting on it.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class TmdbClient {
 
     private static final int MAX_RETRIES = 3;
     private static final Duration RETRY_BACKOFF = Duration.ofMillis(150);
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(10);
+    // Fires the next attempt straight from the delay timer; sendAsync itself does not block
+    private static final Executor RETRY_DELAY = CompletableFuture.delayedExecutor(RETRY_BACKOFF.toMillis(),
+            TimeUnit.MILLISECONDS, Runnable::run);
 
     private final RestTemplate restTemplate;
+    private final HttpClient httpClient;
+    private final CircuitBreaker circuitBreaker;
+    // Upstream calls in flight, by coalescing key; callers for the same key wait on the same response
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final TmdbRateGovernor rateGovernor;
+    private final JsonMapper jsonMapper;
+    private final Counter upstreamRequests;
+    private final Counter coalescedRequests;
+
+    public TmdbClient(RestTemplate restTemplate, HttpClient httpClient, TmdbRateGovernor rateGovernor,
+            JsonMapper jsonMapper, CircuitBreakerRegistry circuitBreakerRegistry, MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.httpClient = httpClient;
+        this.rateGovernor = rateGovernor;
+        this.jsonMapper = jsonMapper;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("tmdb");
+        this.upstreamRequests = Counter.builder("tmdb.client.requests")
+                .description("TMDB GETs, by whether they joined an identical call already in flight")
+                .tag("coalesced", "false")
+                .register(meterRegistry);
+        this.coalescedRequests = Counter.builder("tmdb.client.requests")
+                .description("TMDB GETs, by whether they joined an identical call already in flight")
+                .tag("coalesced", "true")
+                .register(meterRegistry);
+        Gauge.builder("tmdb.client.inflight", inFlight, ConcurrentHashMap::size)
+                .description("Distinct TMDB GETs currently in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #fetchWithRetry}: the GET goes out
+     * with {@code HttpClient.sendAsync} (multiplexed over HTTP/2), I/O
+     * failures are retried after a delay without holding a thread, and each
+     * attempt is guarded by the same {@code tmdb} circuit breaker. The future
+     * fails with the exceptions the blocking methods throw: an
+     * {@link UpstreamNotFoundException} for a 404, and a 503
+     * {@link ResponseStatusException} for everything else. Dependent stages
+     * run on the HTTP client's virtual threads, never the common pool.
+     */
+    public <T> CompletableFuture<T> fetchAsync(String url, Class<T> type) {
+        return fetchDecoded(url, fetched -> read(fetched, type));
+    }
+
+    /**
+     * {@link #fetchAsync(String, Class)} for callers that only need a few
+     * fields: the response is handed to {@code reader} as a streaming parser
+     * over the received bytes instead of being bound to a full DTO. An empty
+     * body reads as {@code null}.
+     */
+    public <T> CompletableFuture<T> fetchAsync(String url, TmdbJsonReader<T> reader) {
+        return fetchDecoded(url, fetched -> stream(fetched, reader));
+    }
+
+    private <T> CompletableFuture<T> fetchDecoded(String url, Function<Fetched, T> decode) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(READ_TIMEOUT)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .GET()
+                .build();
+        OutboundPriority priority = OutboundPriority.current();
+        return coalesceAsync(url, priority, () -> sendWithRetry(request, priority, 1))
+                .thenApply(decode)
+                .exceptionallyCompose(failure -> CompletableFuture.failedFuture(fallbackFetchAsync(url, failure)));
+    }
+
+    // Leader only: the token is taken before the breaker so a throttled call never reaches it
+    private CompletableFuture<Fetched> sendWithRetry(HttpRequest request, OutboundPriority priority, int attempt) {
+        return rateGovernor.acquireAsync(priority)
+                .thenCompose(ignored -> circuitBreaker.executeCompletionStage(
+                        () -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                                .thenApply(TmdbClient::checkStatus)))
+                .exceptionallyCompose(failure -> {
+                    Throwable cause = unwrap(failure);
+                    if (!(cause instanceof IOException io))
+                        return CompletableFuture.failedFuture(cause);
+                    if (attempt < MAX_RETRIES)
+                        return CompletableFuture.runAsync(() -> {
+                        }, RETRY_DELAY).thenCompose(ignored -> sendWithRetry(request, priority, attempt + 1));
+                    return CompletableFuture.failedFuture(new ResourceAccessException(
+                            "I/O error on GET request for \"" + request.uri() + "\": " + io.getMessage(), io));
+                });
+    }
+
+    // Same status handling as the RestTemplate path
+    private static Fetched checkStatus(HttpResponse<byte[]> response) {
+        HttpStatusCode status = HttpStatusCode.valueOf(response.statusCode());
+        HttpStatus known = HttpStatus.resolve(status.value());
+        String statusText = known != null ? known.getReasonPhrase() : "";
+        HttpHeaders headers = new HttpHeaders();
+        response.headers().map().forEach(headers::addAll);
+        byte[] body = response.body() != null ? response.body() : new byte[0];
+        if (status.is4xxClientError()) {
+            HttpClientErrorException error = HttpClientErrorException.create(status, statusText, headers, body,
+                    StandardCharsets.UTF_8);
+            if (error instanceof HttpClientErrorException.NotFound notFound)
+                throw notFound(notFound);
+            throw error;
+        }
+        if (status.is5xxServerError())
+            throw HttpServerErrorException.create(status, statusText, headers, body, StandardCharsets.UTF_8);
+        if (!status.is2xxSuccessful())
+            throw new UnknownHttpStatusCodeException(status.value(), statusText, headers, body,
+                    StandardCharsets.UTF_8);
+        return new Fetched(headers, body);
+    }
+
+    // Decodes a shared response with the RestTemplate's message converters; an empty body reads as null
+    @SuppressWarnings("unchecked")
+    private <T> T read(Fetched fetched, Class<T> type) {
+        HttpHeaders headers = fetched.headers();
+        byte[] body = fetched.body();
+        if (body.length == 0)
+            return null;
+        MediaType contentType = headers.getContentType() != null ? headers.getContentType()
+                : MediaType.APPLICATION_JSON;
+        HttpInputMessage message = new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(body);
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+        try {
+            for (HttpMessageConverter<?> converter : restTemplate.getMessageConverters()) {
+                if (converter.canRead(type, contentType))
+                    return ((HttpMessageConverter<T>) converter).read(type, message);
+            }
+        } catch (IOException e) {
+            throw new RestClientException("Error while extracting response for type [" + type.getName() + "]", e);
+        }
+        throw new RestClientException("No HttpMessageConverter for [" + type.getName() + "] and content type ["
+                + contentType + "]");
+    }
+
+    private <T> T stream(Fetched fetched, TmdbJsonReader<T> reader) {
+        if (fetched.body().length == 0)
+            return null;
+        try (JsonParser parser = jsonMapper.createParser(fetched.body())) {
+            parser.nextToken();
+            return reader.read(parser);
+        } catch (JacksonException e) {
+            throw new RestClientException("Error while streaming TMDB response", e);
+        }
+    }
 
-    @CircuitBreaker(name = "tmdb", fallbackMethod = "fallbackFetchWithRetry")
     public <T> T fetchWithRetry(String url, Class<T> type) {
-        ResourceAccessException lastException = null;
-        for (int attempt = 1; attempt <= MAX_RETRIES; attempt++) {
-            try {
-                return restTemplate.getForObject(url, type);
-            } catch (ResourceAccessException e) {
-                lastException = e;
-                if (attempt == MAX_RETRIES)
-                    throw e;
-                sleepBeforeRetry();
-            } catch (RestClientException e) {
-                throw e;
+        try {
+            for (int attempt = 1; attempt < MAX_RETRIES; attempt++) {
+                try {
+                    return read(coalesce(url), type);
+                } catch (ResourceAccessException e) {
+                    sleepBeforeRetry();
+                }
             }
+            return read(coalesce(url), type);
+        } catch (RuntimeException e) {
+            return fallbackFetchWithRetry(url, type, e);
         }
-        if (lastException != null)
-            throw lastException;
-        throw new IllegalStateException("fetchWithRetry: should not reach here");
     }
 
-    @CircuitBreaker(name = "tmdb", fallbackMethod = "fallbackFetch")
     public <T> T fetch(String url, Class<T> type) {
-        return restTemplate.getForObject(url, type);
+        try {
+            return read(coalesce(url), type);
+        } catch (RuntimeException e) {
+            return fallbackFetch(url, type, e);
+        }
     }
 
-    public <T> T fallbackFetchWithRetry(String url, Class<T> type, Throwable t) {
+    // Blocking single attempt: the first caller for a key fetches on its own thread, later ones wait for it
+    private Fetched coalesce(String url) {
+        String key = coalescingKey(url);
+        OutboundPriority priority = OutboundPriority.current();
+        InFlight mine = new InFlight(priority, new CompletableFuture<>());
+        InFlight leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalescedRequests.increment();
+            try {
+                return leader.response().join();
+            } catch (CompletionException e) {
+                Throwable cause = unwrap(e);
+                if (outranks(priority, leader, cause))
+                    return coalesce(url);
+                if (cause instanceof RuntimeException runtime)
+                    throw runtime;
+                throw new ResourceAccessException("TMDB request failed: " + cause.getMessage(),
+                        cause instanceof IOException io ? io : new IOException(cause));
+            }
+        }
+        upstreamRequests.increment();
+        try {
+            rateGovernor.acquire(priority);
+            Fetched fetched = circuitBreaker.executeSupplier(() -> send(url));
+            mine.response().complete(fetched);
+            return fetched;
+        } catch (RuntimeException e) {
+            mine.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // A 404 becomes UpstreamNotFoundException inside the breaker, which ignores it
+    private Fetched send(String url) {
+        try {
+            ResponseEntity<byte[]> response = restTemplate.getForEntity(url, byte[].class);
+            return new Fetched(response.getHeaders(), response.getBody() != null ? response.getBody() : new byte[0]);
+        } catch (HttpClientErrorException.NotFound e) {
+            throw notFound(e);
+        }
+    }
+
+    // Non-blocking counterpart of coalesce; followers get a copy so their timeouts can't fail the shared call
+    private CompletableFuture<Fetched> coalesceAsync(String url, OutboundPriority priority,
+            Supplier<CompletableFuture<Fetched>> send) {
+        String key = coalescingKey(url);
+        InFlight mine = new InFlight(priority, new CompletableFuture<>());
+        InFlight leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalescedRequests.increment();
+            return leader.response().copy().exceptionallyCompose(failure -> outranks(priority, leader, unwrap(failure))
+                    ? coalesceAsync(url, priority, send)
+                    : CompletableFuture.failedFuture(unwrap(failure)));
+        }
+        upstreamRequests.increment();
+        CompletableFuture<Fetched> sent;
+        try {
+            sent = send.get();
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        sent.whenComplete((fetched, failure) -> {
+            inFlight.remove(key, mine);
+            if (failure != null)
+                mine.response().completeExceptionally(unwrap(failure));
+            else
+                mine.response().complete(fetched);
+        });
+        return mine.response().copy();
+    }
+
+    // A background leader that found no headroom doesn't speak for an interactive follower; it goes itself
+    private static boolean outranks(OutboundPriority priority, InFlight leader, Throwable failure) {
+        return failure instanceof UpstreamThrottledException && priority == OutboundPriority.INTERACTIVE
+                && leader.priority() == OutboundPriority.BACKGROUND;
+    }
+
+    /**
+     * Identity of a GET for coalescing: the URL without its {@code api_key}
+     * and with the remaining query parameters sorted, so the same resource
+     * built with parameters in another order still shares one call.
+     */
+    static String coalescingKey(String url) {
+        int query = url.indexOf('?');
+        if (query < 0)
+            return url;
+        String params = Arrays.stream(url.substring(query + 1).split("&"))
+                .filter(param -> !param.isEmpty() && !param.startsWith("api_key="))
+                .sorted()
+                .collect(Collectors.joining("&"));
+        return params.isEmpty() ? url.substring(0, query) : url.substring(0, query) + '?' + params;
+    }
+
+    private <T> T fallbackFetchWithRetry(String url, Class<T> type, Throwable t) {
+        // Also sees exceptions the breaker ignores; a missing resource is not an outage
+        if (t instanceof UpstreamNotFoundException notFound)
+            throw notFound;
         log.error("CircuitBreaker fallback triggered for TMDB fetchWithRetry. URL: {} | Error: {}", url,
                 rootMessage(t));
         throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
                 "TMDB service is currently unavailable. Please try again later.", t);
     }
 
-    public <T> T fallbackFetch(String url, Class<T> type, Throwable t) {
+    private static Throwable fallbackFetchAsync(String url, Throwable failure) {
+        Throwable t = unwrap(failure);
+        if (t instanceof UpstreamNotFoundException)
+            return t;
+        log.error("CircuitBreaker fallback triggered for TMDB fetchAsync. URL: {} | Error: {}", url, rootMessage(t));
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "TMDB service is currently unavailable. Please try again later.", t);
+    }
+
+    private <T> T fallbackFetch(String url, Class<T> type, Throwable t) {
+        if (t instanceof UpstreamNotFoundException notFound)
+            throw notFound;
         log.error("CircuitBreaker fallback triggered for TMDB fetch. URL: {} | Error: {}", url, rootMessage(t));
         throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
                 "TMDB service is currently unavailable. Please try again later.", t);
     }
 
+    private static UpstreamNotFoundException notFound(HttpClientErrorException.NotFound e) {
+        return new UpstreamNotFoundException("TMDB resource not found", e);
+    }
+
     /**
      * Virtual-thread-friendly delay. Uses Thread.sleep(Duration) which is
      * non-pinning on virtual threads (JEP 444, Java 21+).
@@ -72,6 +387,18 @@ public class TmdbClient {
         }
     }
 
+    // A response as received, shared by every caller coalesced onto it
+    private record Fetched(HttpHeaders headers, byte[] body) {
+    }
+
+    // The upstream call for a key and the lane it was sent in
+    private record InFlight(OutboundPriority priority, CompletableFuture<Fetched> response) {
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
     private static String rootMessage(Throwable throwable) {
         if (throwable == null)
             return "Unknown Error";
@@ -0,0 +1,16 @@
+package com.riyura.backend.common.service;
+
+import tools.jackson.core.JsonParser;
+
+/**
+ * Decodes a TMDB response straight off a streaming parser into whatever
+ * compact shape the caller needs, for {@link TmdbClient#fetchAsync(String,
+ * TmdbJsonReader)}. The parser is positioned on the first token; fields the
+ * reader doesn't want are passed over with {@link JsonParser#skipChildren()},
+ * so neither a {@code String} of the body nor a tree of it is ever built.
+ */
+@FunctionalInterface
+public interface TmdbJsonReader<T> {
+
+    T read(JsonParser parser);
+}
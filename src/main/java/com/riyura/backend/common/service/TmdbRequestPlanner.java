@@ -0,0 +1,194 @@
+package com.riyura.backend.common.service;
+
+import com.riyura.backend.common.config.TmdbProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.filter.FilteringParserDelegate;
+import tools.jackson.core.filter.TokenFilter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collapses a resource and its sub-resources into as few TMDB calls as
+ * possible with {@code append_to_response}: {@code /tv/42} with
+ * {@code credits} and {@code season/1..season/25} becomes two requests of at
+ * most {@value #MAX_APPENDS} appends each instead of 27. Each response is
+ * indexed with a single streaming pass that records where every appended
+ * sub-resource starts and ends in the body; nothing is decoded until the
+ * caller asks for a piece, and then only that byte range is bound to the DTO
+ * the caller used before. Requests go through
+ * {@link TmdbClient#fetchAsync}, so they keep its retry, circuit breaker and
+ * coalescing. Upstream calls and the calls saved are counted per endpoint in
+ * {@code tmdb.planner.requests} and {@code tmdb.planner.calls.saved}.
+ */
+@Service
+public class TmdbRequestPlanner {
+
+    // TMDB's limit on sub-resources per append_to_response
+    static final int MAX_APPENDS = 20;
+
+    private final TmdbClient tmdbClient;
+    private final TmdbProperties tmdbProperties;
+    private final JsonMapper jsonMapper;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public TmdbRequestPlanner(TmdbClient tmdbClient, TmdbProperties tmdbProperties, JsonMapper jsonMapper,
+            MeterRegistry meterRegistry) {
+        this.tmdbClient = tmdbClient;
+        this.tmdbProperties = tmdbProperties;
+        this.jsonMapper = jsonMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // A resource together with its sub-resources; replaces one call for the root plus one per sub-resource
+    public CompletableFuture<Combined> fetchAsync(String path, Map<String, String> params, List<String> appends) {
+        return plan(path, params, appends, appends.size() + 1);
+    }
+
+    // Sub-resources only, for callers that already hold the root; replaces one call per sub-resource
+    public CompletableFuture<Combined> fetchPartsAsync(String path, Map<String, String> params,
+            List<String> appends) {
+        return plan(path, params, appends, appends.size());
+    }
+
+    private CompletableFuture<Combined> plan(String path, Map<String, String> params, List<String> appends,
+            int unplannedCalls) {
+        List<List<String>> batches = new ArrayList<>();
+        for (int from = 0; from < appends.size(); from += MAX_APPENDS)
+            batches.add(appends.subList(from, Math.min(from + MAX_APPENDS, appends.size())));
+        if (batches.isEmpty())
+            batches.add(List.of());
+
+        List<CompletableFuture<Indexed>> calls = batches.stream()
+                .map(batch -> tmdbClient.fetchAsync(url(path, params, batch), byte[].class)
+                        .thenApply(body -> index(body, batch)))
+                .toList();
+        Meters endpointMeters = meters(path);
+        endpointMeters.requests.increment(calls.size());
+        endpointMeters.saved.increment(Math.max(0, unplannedCalls - calls.size()));
+
+        return CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> split(calls, batches));
+    }
+
+    private String url(String path, Map<String, String> params, List<String> batch) {
+        TmdbUrlBuilder builder = TmdbUrlBuilder.from(tmdbProperties).path(path);
+        params.forEach(builder::param);
+        return builder.param("append_to_response", String.join(",", batch)).build();
+    }
+
+    // Records the byte range of each appended field at the top level of the response, skipping over its contents
+    private Indexed index(byte[] body, List<String> batch) {
+        Map<String, Slice> parts = new HashMap<>();
+        if (body == null)
+            return new Indexed(null, parts);
+        try (JsonParser parser = jsonMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                return new Indexed(null, parts);
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value != JsonToken.START_OBJECT && value != JsonToken.START_ARRAY)
+                    continue;
+                int start = (int) parser.currentTokenLocation().getByteOffset();
+                parser.skipChildren();
+                if (batch.contains(field)) {
+                    int end = (int) parser.currentTokenLocation().getByteOffset() + 1;
+                    parts.put(field, new Slice(body, start, end - start));
+                }
+            }
+        } catch (JacksonException e) {
+            throw new RestClientException("Error while indexing TMDB response", e);
+        }
+        return new Indexed(body, parts);
+    }
+
+    // The root comes from the first response; each part from the response that carried it
+    private Combined split(List<CompletableFuture<Indexed>> calls, List<List<String>> batches) {
+        byte[] root = null;
+        Map<String, Slice> parts = new HashMap<>();
+        for (CompletableFuture<Indexed> call : calls) {
+            Indexed response = call.join();
+            if (response.body() == null)
+                continue;
+            parts.putAll(response.parts());
+            if (root == null)
+                root = response.body();
+        }
+        return new Combined(root, batches.getFirst(), parts);
+    }
+
+    // Endpoint tag with ids folded, so /tv/42 and /tv/7 share meters
+    private Meters meters(String path) {
+        String endpoint = path.replaceAll("/\\d+(?=/|$)", "/{id}");
+        return meters.computeIfAbsent(endpoint, tag -> new Meters(
+                Counter.builder("tmdb.planner.requests")
+                        .description("Upstream TMDB calls sent by the request planner")
+                        .tag("endpoint", tag)
+                        .register(meterRegistry),
+                Counter.builder("tmdb.planner.calls.saved")
+                        .description("TMDB calls avoided by merging sub-resources with append_to_response")
+                        .tag("endpoint", tag)
+                        .register(meterRegistry)));
+    }
+
+    private record Meters(Counter requests, Counter saved) {
+    }
+
+    private record Slice(byte[] body, int offset, int length) {
+    }
+
+    private record Indexed(byte[] body, Map<String, Slice> parts) {
+    }
+
+    /**
+     * A planned fetch split back into its pieces. Sub-resources TMDB left out
+     * of the response (an unknown season, for instance) read as {@code null}.
+     */
+    public final class Combined {
+
+        private final byte[] root;
+        private final Set<String> appended;
+        private final Map<String, Slice> parts;
+
+        private Combined(byte[] root, List<String> appended, Map<String, Slice> parts) {
+            this.root = root;
+            this.appended = Set.copyOf(appended);
+            this.parts = parts;
+        }
+
+        // Binds the root response with the appended fields filtered out of the token stream
+        public <T> T root(Class<T> type) {
+            if (root == null)
+                return null;
+            TokenFilter withoutAppends = new TokenFilter() {
+                @Override
+                public TokenFilter includeProperty(String name) {
+                    return appended.contains(name) ? null : TokenFilter.INCLUDE_ALL;
+                }
+            };
+            try (JsonParser parser = new FilteringParserDelegate(jsonMapper.createParser(root), withoutAppends,
+                    TokenFilter.Inclusion.INCLUDE_ALL_AND_PATH, true)) {
+                return jsonMapper.readValue(parser, type);
+            }
+        }
+
+        public <T> T part(String append, Class<T> type) {
+            Slice part = parts.get(append);
+            return part == null ? null : jsonMapper.readValue(part.body(), part.offset(), part.length(), type);
+        }
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Validated
 @RestController
@@ -24,13 +25,13 @@ public class AnimeController {
 
     // Fetch Trending Anime (TV + Movies) - Combined & Sorted by Rating
     @GetMapping("/trending")
-    public ResponseEntity<Map<String, List<MediaGridResponse>>> getTrending(
+    public CompletableFuture<ResponseEntity<Map<String, List<MediaGridResponse>>>> getTrending(
             @RequestParam(defaultValue = "12") @Min(1) @Max(50) int limit) {
-        List<MediaGridResponse> items = animeService.getTrendingAnime(limit);
+        return animeService.getTrendingAnime(limit).thenApply(items -> {
+            Map<String, List<MediaGridResponse>> response = new HashMap<>();
+            response.put("results", items);
 
-        Map<String, List<MediaGridResponse>> response = new HashMap<>();
-        response.put("results", items);
-
-        return ResponseEntity.ok(response);
+            return ResponseEntity.ok(response);
+        });
     }
 }
@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/banner")
@@ -21,8 +22,7 @@ public class BannerController {
 
     // Fetch banner content (trending movies + TV shows) and return as JSON
     @GetMapping
-    public ResponseEntity<Map<String, List<BannerResponse>>> getBanner() {
-        List<BannerResponse> bannerItems = bannerService.getBannerData();
-        return ResponseEntity.ok(Map.of("items", bannerItems));
+    public CompletableFuture<ResponseEntity<Map<String, List<BannerResponse>>>> getBanner() {
+        return bannerService.getBannerData().thenApply(bannerItems -> ResponseEntity.ok(Map.of("items", bannerItems)));
     }
 }
\ No newline at end of file
@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Validated
 @RestController
@@ -24,19 +25,19 @@ public class ExploreController {
 
     // Handle explore requests from the frontend
     @GetMapping
-    public ResponseEntity<Map<String, Object>> explore(
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> explore(
             @RequestParam(defaultValue = "1") @Min(1) @Max(500) int page,
             @RequestParam(required = false) String genres,
             @RequestParam(required = false) String language) {
 
-        // Fetch the explore results from the service
-        List<ExploreResponse> results = exploreService.getExplorePage(page, genres, language);
+        // Fetch the explore results from the service; the request thread is released while they load
+        return exploreService.getExplorePage(page, genres, language).thenApply(results -> {
+            // Prepare the response
+            Map<String, Object> response = new HashMap<>();
+            response.put("page", page);
+            response.put("results", results);
 
-        // Prepare the response
-        Map<String, Object> response = new HashMap<>();
-        response.put("page", page);
-        response.put("results", results);
-
-        return ResponseEntity.ok(response);
+            return ResponseEntity.ok(response);
+        });
     }
 }
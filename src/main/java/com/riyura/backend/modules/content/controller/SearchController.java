@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -27,16 +28,17 @@ public class SearchController {
 
     // Handle search requests from the frontend
     @GetMapping
-    public ResponseEntity<Map<String, Object>> search(
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> search(
             @RequestParam("q") @NotBlank @Size(min = 1, max = 200) String query,
             @RequestParam(defaultValue = "0") @Min(0) @Max(500) int page,
             @RequestParam(name = "sort_by", required = false) SearchSortOrder sortBy) {
-        // Fetch the search results from the service
-        List<SearchResponse> results = searchService.search(query, page, sortBy);
-        // Prepare the response
-        Map<String, Object> response = new HashMap<>();
-        response.put("results", results);
-        response.put("page", page);
-        return ResponseEntity.ok(response);
+        // Fetch the search results from the service; the request thread is released while they load
+        return searchService.search(query, page, sortBy).thenApply(results -> {
+            // Prepare the response
+            Map<String, Object> response = new HashMap<>();
+            response.put("results", results);
+            response.put("page", page);
+            return ResponseEntity.ok(response);
+        });
     }
 }
@@ -2,7 +2,8 @@ package com.riyura.backend.modules.content.port;
 
 import com.riyura.backend.common.dto.media.MediaGridResponse;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface AnimeServicePort {
-    List<MediaGridResponse> getTrendingAnime(int limit);
+    CompletableFuture<List<MediaGridResponse>> getTrendingAnime(int limit);
 }
@@ -2,7 +2,8 @@ package com.riyura.backend.modules.content.port;
 
 import com.riyura.backend.modules.content.dto.banner.BannerResponse;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface BannerServicePort {
-    List<BannerResponse> getBannerData();
+    CompletableFuture<List<BannerResponse>> getBannerData();
 }
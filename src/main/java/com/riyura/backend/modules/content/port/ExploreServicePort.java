@@ -2,7 +2,8 @@ package com.riyura.backend.modules.content.port;
 
 import com.riyura.backend.modules.content.dto.explore.ExploreResponse;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface ExploreServicePort {
-    List<ExploreResponse> getExplorePage(int page, String genreNames, String language);
+    CompletableFuture<List<ExploreResponse>> getExplorePage(int page, String genreNames, String language);
 }
@@ -3,7 +3,8 @@ package com.riyura.backend.modules.content.port;
 import com.riyura.backend.modules.content.dto.search.SearchResponse;
 import com.riyura.backend.modules.content.dto.search.SearchSortOrder;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface SearchServicePort {
-    List<SearchResponse> search(String query, int page, SearchSortOrder sortOrder);
+    CompletableFuture<List<SearchResponse>> search(String query, int page, SearchSortOrder sortOrder);
 }
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -32,28 +33,36 @@ public class AnimeService implements AnimeServicePort {
     private final TmdbProperties tmdbProperties;
 
     @Override
-    public List<MediaGridResponse> getTrendingAnime(int limit) {
-        return cacheStampedeGuard.xfetch(
+    public CompletableFuture<List<MediaGridResponse>> getTrendingAnime(int limit) {
+        // The loader runs on the guard's virtual thread, never the request thread
+        return cacheStampedeGuard.<List<MediaGridResponse>>xfetchAsync(
                 "animeTrending:" + limit, Duration.ofDays(1), 1.0,
                 () -> {
-                    CompletableFuture<List<AnimeHelper>> tvTask = CompletableFuture.supplyAsync(this::fetchAnimeTv);
-                    CompletableFuture<List<AnimeHelper>> movieTask = CompletableFuture
-                            .supplyAsync(this::fetchAnimeMovies);
-
-                    List<AnimeHelper> allAnime = new ArrayList<>(tvTask.orTimeout(8, TimeUnit.SECONDS).join());
-                    allAnime.addAll(movieTask.orTimeout(8, TimeUnit.SECONDS).join());
-
-                    return allAnime.stream()
-                            .filter(item -> item.tmdbItem().getVoteAverage() != null)
-                            .sorted(Comparator.comparingDouble(
-                                    (AnimeHelper h) -> h.tmdbItem().getVoteAverage()).reversed())
-                            .limit(limit)
-                            .map(this::mapToDTO)
-                            .toList();
-                });
+                    try {
+                        return fetchAnimeTv()
+                                .thenCombine(fetchAnimeMovies(), (tv, movies) -> {
+                                    List<AnimeHelper> allAnime = new ArrayList<>(tv);
+                                    allAnime.addAll(movies);
+                                    return allAnime.stream()
+                                            .filter(item -> item.tmdbItem().getVoteAverage() != null)
+                                            .sorted(Comparator.comparingDouble(
+                                                    (AnimeHelper h) -> h.tmdbItem().getVoteAverage()).reversed())
+                                            .limit(limit)
+                                            .map(this::mapToDTO)
+                                            .toList();
+                                })
+                                .orTimeout(8, TimeUnit.SECONDS)
+                                .join();
+                    } catch (Exception e) {
+                        // Null lets the guard serve the last known good list instead of caching an empty one
+                        log.error("Error fetching trending anime: {}", e.getMessage());
+                        return null;
+                    }
+                })
+                .thenApply(items -> Objects.requireNonNullElse(items, List.of()));
     }
 
-    private List<AnimeHelper> fetchAnimeTv() {
+    private CompletableFuture<List<AnimeHelper>> fetchAnimeTv() {
         String url = TmdbUrlBuilder.from(tmdbProperties)
                 .path("/discover/tv")
                 .param("sort_by", "popularity.desc")
@@ -65,7 +74,7 @@ public class AnimeService implements AnimeServicePort {
         return fetchAndWrap(url, MediaType.TV);
     }
 
-    private List<AnimeHelper> fetchAnimeMovies() {
+    private CompletableFuture<List<AnimeHelper>> fetchAnimeMovies() {
         String url = TmdbUrlBuilder.from(tmdbProperties)
                 .path("/discover/movie")
                 .param("sort_by", "popularity.desc")
@@ -77,19 +86,16 @@ public class AnimeService implements AnimeServicePort {
         return fetchAndWrap(url, MediaType.Movie);
     }
 
-    private List<AnimeHelper> fetchAndWrap(String url, MediaType type) {
-        try {
-            TmdbTrendingResponse response = tmdbClient.fetchWithRetry(url, TmdbTrendingResponse.class);
-            if (response == null || response.getResults() == null)
-                return Collections.emptyList();
-            return response.getResults().stream()
-                    .filter(item -> item.getPosterPath() != null && !item.getPosterPath().isEmpty())
-                    .map(item -> new AnimeHelper(item, type))
-                    .toList();
-        } catch (Exception e) {
-            log.error("Error fetching anime ({}): {}", type, e.getMessage());
-            return Collections.emptyList();
-        }
+    private CompletableFuture<List<AnimeHelper>> fetchAndWrap(String url, MediaType type) {
+        return tmdbClient.fetchAsync(url, TmdbTrendingResponse.class)
+                .thenApply(response -> {
+                    if (response == null || response.getResults() == null)
+                        return Collections.<AnimeHelper>emptyList();
+                    return response.getResults().stream()
+                            .filter(item -> item.getPosterPath() != null && !item.getPosterPath().isEmpty())
+                            .map(item -> new AnimeHelper(item, type))
+                            .toList();
+                });
     }
 
     private MediaGridResponse mapToDTO(AnimeHelper helper) {
@@ -30,45 +30,52 @@ public class BannerService implements BannerServicePort {
     private final TmdbProperties tmdbProperties;
 
     @Override
-    public List<BannerResponse> getBannerData() {
-        return cacheStampedeGuard.staleWhileRevalidate(
+    public CompletableFuture<List<BannerResponse>> getBannerData() {
+        // The loader runs on the guard's virtual thread, never the request thread
+        return cacheStampedeGuard.<List<BannerResponse>>swrAsync(
                 "banners",
                 Duration.ofHours(8),
                 Duration.ofDays(1),
                 () -> {
-                    CompletableFuture<List<BannerResponse>> moviesTask = CompletableFuture
-                            .supplyAsync(this::fetchTopMovies);
-                    CompletableFuture<List<BannerResponse>> tvTask = CompletableFuture.supplyAsync(this::fetchTopTV);
-                    List<BannerResponse> allItems = new ArrayList<>(moviesTask.orTimeout(8, TimeUnit.SECONDS).join());
-                    allItems.addAll(tvTask.orTimeout(8, TimeUnit.SECONDS).join());
-                    Collections.shuffle(allItems);
-                    return allItems;
-                });
+                    try {
+                        return fetchTopMovies()
+                                .thenCombine(fetchTopTV(), (movies, tv) -> {
+                                    List<BannerResponse> allItems = new ArrayList<>(movies);
+                                    allItems.addAll(tv);
+                                    Collections.shuffle(allItems);
+                                    return allItems;
+                                })
+                                .orTimeout(8, TimeUnit.SECONDS)
+                                .join();
+                    } catch (Exception e) {
+                        // Null lets the guard serve the last known good banners instead of caching none
+                        log.error("Error fetching banner data: {}", e.getMessage());
+                        return null;
+                    }
+                })
+                .thenApply(banners -> Objects.requireNonNullElse(banners, List.of()));
     }
 
-    private List<BannerResponse> fetchTopMovies() {
+    private CompletableFuture<List<BannerResponse>> fetchTopMovies() {
         String url = TmdbUrlBuilder.from(tmdbProperties).path("/trending/movie/week").build();
         return fetchAndMap(url, MediaType.Movie);
     }
 
-    private List<BannerResponse> fetchTopTV() {
+    private CompletableFuture<List<BannerResponse>> fetchTopTV() {
         String url = TmdbUrlBuilder.from(tmdbProperties).path("/trending/tv/week").build();
         return fetchAndMap(url, MediaType.TV);
     }
 
-    private List<BannerResponse> fetchAndMap(String url, MediaType type) {
-        try {
-            TmdbTrendingResponse response = tmdbClient.fetchWithRetry(url, TmdbTrendingResponse.class);
-            if (response == null || response.getResults() == null)
-                return Collections.emptyList();
-            return response.getResults().stream()
-                    .limit(3)
-                    .map(item -> mapItemToBanner(item, type))
-                    .toList();
-        } catch (Exception e) {
-            log.error("Error fetching banner data: {}", e.getMessage());
-            return Collections.emptyList();
-        }
+    private CompletableFuture<List<BannerResponse>> fetchAndMap(String url, MediaType type) {
+        return tmdbClient.fetchAsync(url, TmdbTrendingResponse.class)
+                .thenApply(response -> {
+                    if (response == null || response.getResults() == null)
+                        return Collections.<BannerResponse>emptyList();
+                    return response.getResults().stream()
+                            .limit(3)
+                            .map(item -> mapItemToBanner(item, type))
+                            .toList();
+                });
     }
 
     private BannerResponse mapItemToBanner(TmdbTrendingResponse.TmdbItem item, MediaType type) {
@@ -36,13 +36,14 @@ public class ExploreService implements ExploreServicePort {
     private final TmdbProperties tmdbProperties;
 
     @Override
-    public List<ExploreResponse> getExplorePage(int page, String genreNames, String language) {
+    public CompletableFuture<List<ExploreResponse>> getExplorePage(int page, String genreNames, String language) {
         String cacheKey = String.format("explore:%d:%s:%s",
                 page,
                 Objects.toString(genreNames, "").toLowerCase(),
                 Objects.toString(language, "").toLowerCase());
 
-        return cacheStampedeGuard.staleWhileRevalidate(
+        // The loader runs on the guard's virtual thread, never the request thread
+        return cacheStampedeGuard.<List<ExploreResponse>>swrAsync(
                 cacheKey,
                 Duration.ofHours(12),
                 Duration.ofDays(1),
@@ -54,16 +55,22 @@ public class ExploreService implements ExploreServicePort {
                     String movieUrl = buildUrl("movie", page, movieGenreIds, isoLanguage);
                     String tvUrl = buildUrl("tv", page, tvGenreIds, isoLanguage);
 
-                    CompletableFuture<List<ExploreResponse>> moviesFuture = CompletableFuture
-                            .supplyAsync(() -> fetchAndMap(movieUrl, MediaType.Movie));
-                    CompletableFuture<List<ExploreResponse>> tvFuture = CompletableFuture
-                            .supplyAsync(() -> fetchAndMap(tvUrl, MediaType.TV));
-
-                    List<ExploreResponse> combined = new ArrayList<>(
-                            moviesFuture.orTimeout(8, TimeUnit.SECONDS).join());
-                    combined.addAll(tvFuture.orTimeout(8, TimeUnit.SECONDS).join());
-                    return combined;
-                });
+                    try {
+                        return fetchAndMap(movieUrl, MediaType.Movie)
+                                .thenCombine(fetchAndMap(tvUrl, MediaType.TV), (movies, tv) -> {
+                                    List<ExploreResponse> combined = new ArrayList<>(movies);
+                                    combined.addAll(tv);
+                                    return combined;
+                                })
+                                .orTimeout(8, TimeUnit.SECONDS)
+                                .join();
+                    } catch (Exception e) {
+                        // Null lets the guard serve the last known good page instead of caching an empty one
+                        log.error("Error fetching explore page {}: {}", cacheKey, e.getMessage());
+                        return null;
+                    }
+                })
+                .thenApply(items -> Objects.requireNonNullElse(items, List.of()));
     }
 
     private String buildUrl(String mediaKind, int page, String genreIds, String isoLanguage) {
@@ -76,21 +83,18 @@ public class ExploreService implements ExploreServicePort {
                 .build();
     }
 
-    private List<ExploreResponse> fetchAndMap(String url, MediaType mediaType) {
-        try {
-            TmdbDiscoverResponse response = tmdbClient.fetchWithRetry(url, TmdbDiscoverResponse.class);
-            if (response == null || response.getResults() == null)
-                return Collections.emptyList();
-
-            return response.getResults().stream()
-                    .filter(item -> item.getPosterPath() != null && !item.getPosterPath().isEmpty())
-                    .limit(ITEMS_PER_TYPE)
-                    .map(item -> mapToDto(item, mediaType))
-                    .toList();
-        } catch (Exception e) {
-            log.error("Error fetching explore data ({}): {}", mediaType, e.getMessage());
-            return Collections.emptyList();
-        }
+    private CompletableFuture<List<ExploreResponse>> fetchAndMap(String url, MediaType mediaType) {
+        return tmdbClient.fetchAsync(url, TmdbDiscoverResponse.class)
+                .thenApply(response -> {
+                    if (response == null || response.getResults() == null)
+                        return Collections.<ExploreResponse>emptyList();
+
+                    return response.getResults().stream()
+                            .filter(item -> item.getPosterPath() != null && !item.getPosterPath().isEmpty())
+                            .limit(ITEMS_PER_TYPE)
+                            .map(item -> mapToDto(item, mediaType))
+                            .toList();
+                });
     }
 
     private ExploreResponse mapToDto(TmdbDiscoverResponse.TmdbDiscoverItem item, MediaType mediaType) {
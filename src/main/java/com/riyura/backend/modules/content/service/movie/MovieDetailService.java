@@ -4,8 +4,10 @@ import com.riyura.backend.common.config.CacheStampedeGuard;
 import com.riyura.backend.common.config.TmdbProperties;
 import com.riyura.backend.common.dto.media.MediaGridResponse;
 import com.riyura.backend.common.dto.tmdb.TmdbTrendingResponse;
+import com.riyura.backend.common.exception.UpstreamNotFoundException;
 import com.riyura.backend.common.model.MediaType;
 import com.riyura.backend.common.service.TmdbClient;
+import com.riyura.backend.common.service.TmdbRequestPlanner;
 import com.riyura.backend.common.service.TmdbUrlBuilder;
 import com.riyura.backend.common.util.TmdbUtils;
 import com.riyura.backend.modules.content.dto.global.CastResponse;
@@ -21,7 +23,8 @@ import java.time.Duration;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
@@ -32,6 +35,7 @@ public class MovieDetailService implements MovieDetailServicePort {
     private static final int SIMILAR_LIMIT = 6;
 
     private final TmdbClient tmdbClient;
+    private final TmdbRequestPlanner tmdbRequestPlanner;
     private final CacheStampedeGuard cacheStampedeGuard;
     private final TmdbProperties tmdbProperties;
 
@@ -40,27 +44,12 @@ public class MovieDetailService implements MovieDetailServicePort {
         return cacheStampedeGuard.xfetch(
                 "movieDetails:" + id, Duration.ofDays(7), 1.5,
                 () -> {
-                    String detailsUrl = TmdbUrlBuilder.from(tmdbProperties)
-                            .path("/movie/" + id)
-                            .param("language", "en-US")
-                            .build();
-                    String creditsUrl = TmdbUrlBuilder.from(tmdbProperties)
-                            .path("/movie/" + id + "/credits")
-                            .param("language", "en-US")
-                            .build();
                     try {
-                        CompletableFuture<MovieDetail> detailsTask = CompletableFuture
-                                .supplyAsync(() -> tmdbClient.fetchWithRetry(detailsUrl, MovieDetail.class));
-                        CompletableFuture<CreditsResponse> creditsTask = CompletableFuture.supplyAsync(() -> {
-                            try {
-                                return tmdbClient.fetchWithRetry(creditsUrl, CreditsResponse.class);
-                            } catch (Exception e) {
-                                return null;
-                            }
-                        });
-
-                        MovieDetail details = detailsTask.orTimeout(8, TimeUnit.SECONDS).join();
-                        CreditsResponse credits = creditsTask.orTimeout(8, TimeUnit.SECONDS).join();
+                        TmdbRequestPlanner.Combined combined = tmdbRequestPlanner
+                                .fetchAsync("/movie/" + id, Map.of("language", "en-US"), List.of("credits"))
+                                .orTimeout(8, TimeUnit.SECONDS).join();
+                        MovieDetail details = combined.root(MovieDetail.class);
+                        CreditsResponse credits = combined.part("credits", CreditsResponse.class);
                         if (details != null) {
                             details.setCasts(credits != null && credits.getCast() != null
                                     ? credits.getCast()
@@ -70,6 +59,8 @@ public class MovieDetailService implements MovieDetailServicePort {
                         }
                         return details;
                     } catch (Exception e) {
+                        // A missing id is cached as a negative entry by the guard
+                        UpstreamNotFoundException.rethrowIfNotFound(e);
                         log.error("Error fetching movie details for ID {}: {}", id, e.getMessage());
                         return null;
                     }
@@ -78,7 +69,7 @@ public class MovieDetailService implements MovieDetailServicePort {
 
     @Override
     public List<MediaGridResponse> getSimilarMovies(String id) {
-        return cacheStampedeGuard.xfetch(
+        List<MediaGridResponse> similar = cacheStampedeGuard.xfetch(
                 "movieSimilar:" + id, Duration.ofDays(7), 1.0,
                 () -> {
                     String similarUrl = TmdbUrlBuilder.from(tmdbProperties)
@@ -99,10 +90,13 @@ public class MovieDetailService implements MovieDetailServicePort {
                                 .map(this::mapSimilarMovieToDTO)
                                 .toList();
                     } catch (Exception e) {
+                        // Null lets the guard serve the last known good list instead of caching an empty one
+                        UpstreamNotFoundException.rethrowIfNotFound(e);
                         log.error("Error fetching similar movies for ID {}: {}", id, e.getMessage());
-                        return Collections.emptyList();
+                        return null;
                     }
                 });
+        return Objects.requireNonNullElse(similar, List.of());
     }
 
     private MediaGridResponse mapSimilarMovieToDTO(TmdbTrendingResponse.TmdbItem item) {
@@ -1,17 +1,19 @@
 package com.riyura.backend.modules.content.service.movie;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 
 import org.springframework.stereotype.Service;
 
+import com.riyura.backend.common.config.CacheStampedeGuard;
 import com.riyura.backend.common.config.TmdbProperties;
+import com.riyura.backend.common.exception.UpstreamNotFoundException;
 import com.riyura.backend.common.service.TmdbClient;
 import com.riyura.backend.common.service.TmdbUrlBuilder;
 import com.riyura.backend.common.util.TmdbUtils;
 import com.riyura.backend.modules.content.dto.movie.MovieDetail;
 import com.riyura.backend.modules.content.dto.movie.MoviePlayerResponse;
-import org.springframework.cache.annotation.Cacheable;
 import com.riyura.backend.modules.content.port.MoviePlayerServicePort;
 
 import lombok.RequiredArgsConstructor;
@@ -23,23 +25,29 @@ import lombok.extern.slf4j.Slf4j;
 public class MoviePlayerService implements MoviePlayerServicePort {
 
     private final TmdbClient tmdbClient;
+    private final CacheStampedeGuard cacheStampedeGuard;
     private final TmdbProperties tmdbProperties;
 
     @Override
-    @Cacheable(value = "moviePlayer", key = "#id", sync = true)
     public MoviePlayerResponse getMoviePlayer(String id) {
-        String detailsUrl = TmdbUrlBuilder.from(tmdbProperties)
-                .path("/movie/" + id)
-                .param("language", "en-US")
-                .build();
-
-        try {
-            MovieDetail details = tmdbClient.fetchWithRetry(detailsUrl, MovieDetail.class);
-            return details == null ? null : mapToPlayerResponse(details);
-        } catch (Exception e) {
-            log.error("Error fetching movie player payload for ID {}: {}", id, e.getMessage());
-            return null;
-        }
+        return cacheStampedeGuard.xfetch(
+                "moviePlayer:" + id, Duration.ofDays(1), 1.0,
+                () -> {
+                    String detailsUrl = TmdbUrlBuilder.from(tmdbProperties)
+                            .path("/movie/" + id)
+                            .param("language", "en-US")
+                            .build();
+
+                    try {
+                        MovieDetail details = tmdbClient.fetchWithRetry(detailsUrl, MovieDetail.class);
+                        return details == null ? null : mapToPlayerResponse(details);
+                    } catch (Exception e) {
+                        // A missing id is cached as a negative entry by the guard
+                        UpstreamNotFoundException.rethrowIfNotFound(e);
+                        log.error("Error fetching movie player payload for ID {}: {}", id, e.getMessage());
+                        return null;
+                    }
+                });
     }
 
     private MoviePlayerResponse mapToPlayerResponse(MovieDetail details) {
@@ -17,6 +17,7 @@ import org.springframework.stereotype.Service;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 @Slf4j
 @Service
@@ -29,53 +30,56 @@ public class MovieService implements MovieServicePort {
 
     @Override
     public List<MediaGridResponse> getNowPlayingMovies(int limit) {
-        return cacheStampedeGuard.xfetch(
-                "moviesNowPlaying:" + limit, Duration.ofDays(1), 1.0,
-                () -> fetchAndMap(
-                        TmdbUrlBuilder.from(tmdbProperties)
-                                .path("/movie/now_playing")
-                                .param("language", "en-US")
-                                .param("page", 1)
-                                .build(),
-                        limit));
+        return xfetchList(
+                "moviesNowPlaying:" + limit,
+                TmdbUrlBuilder.from(tmdbProperties)
+                        .path("/movie/now_playing")
+                        .param("language", "en-US")
+                        .param("page", 1)
+                        .build(),
+                limit);
     }
 
     @Override
     public List<MediaGridResponse> getTrendingMovies(int limit) {
-        return cacheStampedeGuard.xfetch(
-                "moviesTrending:" + limit, Duration.ofDays(1), 1.0,
-                () -> fetchAndMap(
-                        TmdbUrlBuilder.from(tmdbProperties)
-                                .path("/trending/movie/week")
-                                .param("language", "en-US")
-                                .build(),
-                        limit));
+        return xfetchList(
+                "moviesTrending:" + limit,
+                TmdbUrlBuilder.from(tmdbProperties)
+                        .path("/trending/movie/week")
+                        .param("language", "en-US")
+                        .build(),
+                limit);
     }
 
     @Override
     public List<MediaGridResponse> getPopularMovies(int limit) {
-        return cacheStampedeGuard.xfetch(
-                "moviesPopular:" + limit, Duration.ofDays(1), 1.0,
-                () -> fetchAndMap(
-                        TmdbUrlBuilder.from(tmdbProperties)
-                                .path("/movie/popular")
-                                .param("language", "en-US")
-                                .param("page", 1)
-                                .build(),
-                        limit));
+        return xfetchList(
+                "moviesPopular:" + limit,
+                TmdbUrlBuilder.from(tmdbProperties)
+                        .path("/movie/popular")
+                        .param("language", "en-US")
+                        .param("page", 1)
+                        .build(),
+                limit);
     }
 
     @Override
     public List<MediaGridResponse> getUpcomingMovies(int limit) {
-        return cacheStampedeGuard.xfetch(
-                "moviesUpcoming:" + limit, Duration.ofDays(1), 1.0,
-                () -> fetchAndMap(
-                        TmdbUrlBuilder.from(tmdbProperties)
-                                .path("/movie/upcoming")
-                                .param("language", "en-US")
-                                .param("page", 1)
-                                .build(),
-                        limit));
+        return xfetchList(
+                "moviesUpcoming:" + limit,
+                TmdbUrlBuilder.from(tmdbProperties)
+                        .path("/movie/upcoming")
+                        .param("language", "en-US")
+                        .param("page", 1)
+                        .build(),
+                limit);
+    }
+
+    // A failed load yields null so the guard serves the last known good list; callers still see an empty one
+    private List<MediaGridResponse> xfetchList(String key, String url, int limit) {
+        List<MediaGridResponse> items = cacheStampedeGuard.xfetch(key, Duration.ofDays(1), 1.0,
+                () -> fetchAndMap(url, limit));
+        return Objects.requireNonNullElse(items, List.of());
     }
 
     private List<MediaGridResponse> fetchAndMap(String url, int limit) {
@@ -91,7 +95,7 @@ public class MovieService implements MovieServicePort {
                     .toList();
         } catch (Exception e) {
             log.error("Error fetching movie data: {}", e.getMessage());
-            return Collections.emptyList();
+            return null;
         }
     }
 
@@ -0,0 +1,43 @@
+package com.riyura.backend.modules.content.service.schema;
+
+import com.riyura.backend.common.dto.media.MediaGridResponse;
+import com.riyura.backend.common.port.CacheSchemaPort;
+import com.riyura.backend.modules.content.dto.banner.BannerResponse;
+import com.riyura.backend.modules.content.dto.explore.ExploreResponse;
+import com.riyura.backend.modules.content.dto.movie.MovieDetail;
+import com.riyura.backend.modules.content.dto.movie.MoviePlayerResponse;
+import com.riyura.backend.modules.content.dto.search.SearchResponse;
+import com.riyura.backend.modules.content.dto.tv.TvPlayerResponse;
+import com.riyura.backend.modules.content.dto.tv.TvShowDetails;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// DTOs cached by the content services, by cache namespace
+@Component
+public class ContentCacheSchemas implements CacheSchemaPort {
+
+    @Override
+    public Map<String, Class<?>> cacheSchemas() {
+        return Map.ofEntries(
+                Map.entry("banners", BannerResponse.class),
+                Map.entry("explore", ExploreResponse.class),
+                Map.entry("searchResults", SearchResponse.class),
+                Map.entry("movieDetails", MovieDetail.class),
+                Map.entry("moviePlayer", MoviePlayerResponse.class),
+                Map.entry("tvDetails", TvShowDetails.class),
+                Map.entry("tvPlayer", TvPlayerResponse.class),
+                Map.entry("movieSimilar", MediaGridResponse.class),
+                Map.entry("tvSimilar", MediaGridResponse.class),
+                Map.entry("moviesNowPlaying", MediaGridResponse.class),
+                Map.entry("moviesTrending", MediaGridResponse.class),
+                Map.entry("moviesPopular", MediaGridResponse.class),
+                Map.entry("moviesUpcoming", MediaGridResponse.class),
+                Map.entry("tvAiringToday", MediaGridResponse.class),
+                Map.entry("tvTrending", MediaGridResponse.class),
+                Map.entry("tvPopular", MediaGridResponse.class),
+                Map.entry("tvOnTheAir", MediaGridResponse.class),
+                Map.entry("animeTrending", MediaGridResponse.class));
+    }
+}
@@ -35,34 +35,44 @@ public class SearchService implements SearchServicePort {
     private final TmdbProperties tmdbProperties;
 
     @Override
-    public List<SearchResponse> search(String query, int page, SearchSortOrder sortOrder) {
+    public CompletableFuture<List<SearchResponse>> search(String query, int page, SearchSortOrder sortOrder) {
         if (query == null || query.trim().isEmpty())
-            return Collections.emptyList();
+            return CompletableFuture.completedFuture(Collections.emptyList());
 
         String normalizedQuery = query.trim().toLowerCase();
         String encodedQuery = URLEncoder.encode(query.trim(), StandardCharsets.UTF_8);
 
-        List<SearchResponse> allResults = cacheStampedeGuard.xfetch(
+        // The loader runs on the guard's virtual thread, never the request thread
+        return cacheStampedeGuard.<List<SearchResponse>>xfetchAsync(
                 "searchResults:" + normalizedQuery, Duration.ofDays(1), 1.0,
                 () -> {
-                    CompletableFuture<List<ScoredSearchResult>> multiTask = CompletableFuture
-                            .supplyAsync(() -> searchMulti(encodedQuery));
-                    CompletableFuture<List<ScoredSearchResult>> companyTask = CompletableFuture
-                            .supplyAsync(() -> searchByCompany(encodedQuery));
-
-                    Map<String, ScoredSearchResult> uniqueResults = new LinkedHashMap<>();
-                    companyTask.orTimeout(8, TimeUnit.SECONDS).join()
-                            .forEach(item -> uniqueResults.put(genKey(item.getResponse()), item));
-                    multiTask.orTimeout(8, TimeUnit.SECONDS).join()
-                            .forEach(item -> uniqueResults.putIfAbsent(genKey(item.getResponse()), item));
-
-                    return uniqueResults.values().stream()
-                            .sorted(Comparator.comparing(ScoredSearchResult::getRating,
-                                    Comparator.nullsLast(Comparator.reverseOrder())))
-                            .map(ScoredSearchResult::getResponse)
-                            .toList();
-                });
+                    try {
+                        return searchByCompany(encodedQuery)
+                                .thenCombine(searchMulti(encodedQuery), (byCompany, multi) -> {
+                                    Map<String, ScoredSearchResult> uniqueResults = new LinkedHashMap<>();
+                                    byCompany.forEach(item -> uniqueResults.put(genKey(item.getResponse()), item));
+                                    multi.forEach(item -> uniqueResults.putIfAbsent(genKey(item.getResponse()),
+                                            item));
+
+                                    return uniqueResults.values().stream()
+                                            .sorted(Comparator.comparing(ScoredSearchResult::getRating,
+                                                    Comparator.nullsLast(Comparator.reverseOrder())))
+                                            .map(ScoredSearchResult::getResponse)
+                                            .toList();
+                                })
+                                .orTimeout(8, TimeUnit.SECONDS)
+                                .join();
+                    } catch (Exception e) {
+                        // Null lets the guard serve the last known good results instead of caching none
+                        log.error("Search error for '{}': {}", normalizedQuery, e.getMessage());
+                        return null;
+                    }
+                })
+                .thenApply(allResults -> sortAndPage(allResults, page, sortOrder));
+    }
 
+    // Sorts the cached result set and cuts out the requested page
+    private List<SearchResponse> sortAndPage(List<SearchResponse> allResults, int page, SearchSortOrder sortOrder) {
         if (allResults == null) {
             return Collections.emptyList();
         }
@@ -90,7 +100,7 @@ public class SearchService implements SearchServicePort {
         return sorted.subList(start, end);
     }
 
-    private List<ScoredSearchResult> searchMulti(String encodedQuery) {
+    private CompletableFuture<List<ScoredSearchResult>> searchMulti(String encodedQuery) {
         String url = TmdbUrlBuilder.from(tmdbProperties)
                 .path("/search/multi")
                 .param("language", "en-US")
@@ -98,94 +108,87 @@ public class SearchService implements SearchServicePort {
                 .param("page", 1)
                 .param("include_adult", "false")
                 .build();
-        try {
-            TmdbTrendingResponse response = tmdbClient.fetchWithRetry(url, TmdbTrendingResponse.class);
-            if (response == null || response.getResults() == null)
-                return Collections.emptyList();
-
-            List<ScoredSearchResult> results = new ArrayList<>();
-            Long topPersonId = null;
-
-            for (TmdbTrendingResponse.TmdbItem item : response.getResults()) {
-                if ("movie".equals(item.getMediaType()) || "tv".equals(item.getMediaType())) {
-                    if (isValidItem(item))
-                        results.add(mapItemToDto(item, null));
-                } else if ("person".equals(item.getMediaType()) && topPersonId == null) {
-                    topPersonId = item.getId();
-                }
-            }
-
-            if (topPersonId != null)
-                results.addAll(discoverContentByPerson(topPersonId));
-            return results;
-        } catch (Exception e) {
-            log.error("Multi search error: {}", e.getMessage());
-            return Collections.emptyList();
-        }
+        return tmdbClient.fetchAsync(url, TmdbTrendingResponse.class)
+                .thenCompose(response -> {
+                    if (response == null || response.getResults() == null)
+                        return CompletableFuture.completedFuture(Collections.<ScoredSearchResult>emptyList());
+
+                    List<ScoredSearchResult> results = new ArrayList<>();
+                    Long topPersonId = null;
+
+                    for (TmdbTrendingResponse.TmdbItem item : response.getResults()) {
+                        if ("movie".equals(item.getMediaType()) || "tv".equals(item.getMediaType())) {
+                            if (isValidItem(item))
+                                results.add(mapItemToDto(item, null));
+                        } else if ("person".equals(item.getMediaType()) && topPersonId == null) {
+                            topPersonId = item.getId();
+                        }
+                    }
+
+                    if (topPersonId == null)
+                        return CompletableFuture.completedFuture(results);
+                    return discoverContentByPerson(topPersonId).thenApply(byPerson -> {
+                        results.addAll(byPerson);
+                        return results;
+                    });
+                });
     }
 
-    private List<ScoredSearchResult> searchByCompany(String encodedQuery) {
+    private CompletableFuture<List<ScoredSearchResult>> searchByCompany(String encodedQuery) {
         String url = TmdbUrlBuilder.from(tmdbProperties)
                 .path("/search/company")
                 .param("query", encodedQuery)
                 .param("page", 1)
                 .build();
-        try {
-            TmdbCompanySearchResponse response = tmdbClient.fetchWithRetry(url, TmdbCompanySearchResponse.class);
-            if (response != null && response.getResults() != null && !response.getResults().isEmpty()) {
-                return discoverContentByCompany(response.getResults().get(0).getId());
-            }
-        } catch (Exception e) {
-            log.error("Company search error: {}", e.getMessage());
-        }
-        return Collections.emptyList();
+        return tmdbClient.fetchAsync(url, TmdbCompanySearchResponse.class)
+                .thenCompose(response -> {
+                    if (response != null && response.getResults() != null && !response.getResults().isEmpty())
+                        return discoverContentByCompany(response.getResults().get(0).getId());
+                    return CompletableFuture.completedFuture(Collections.<ScoredSearchResult>emptyList());
+                });
     }
 
-    private List<ScoredSearchResult> discoverContentByPerson(Long personId) {
+    private CompletableFuture<List<ScoredSearchResult>> discoverContentByPerson(Long personId) {
         return discoverContent("with_people", personId);
     }
 
-    private List<ScoredSearchResult> discoverContentByCompany(Long companyId) {
+    private CompletableFuture<List<ScoredSearchResult>> discoverContentByCompany(Long companyId) {
         return discoverContent("with_companies", companyId);
     }
 
-    private List<ScoredSearchResult> discoverContent(String filterParam, Long id) {
-        CompletableFuture<List<ScoredSearchResult>> movies = CompletableFuture.supplyAsync(() -> {
-            String url = TmdbUrlBuilder.from(tmdbProperties)
-                    .path("/discover/movie")
-                    .param("language", "en-US")
-                    .param("sort_by", "popularity.desc")
-                    .param(filterParam, id)
-                    .build();
-            return fetchAndMap(url, MediaType.Movie);
-        });
-        CompletableFuture<List<ScoredSearchResult>> tvShows = CompletableFuture.supplyAsync(() -> {
-            String url = TmdbUrlBuilder.from(tmdbProperties)
-                    .path("/discover/tv")
-                    .param("language", "en-US")
-                    .param("sort_by", "popularity.desc")
-                    .param(filterParam, id)
-                    .build();
-            return fetchAndMap(url, MediaType.TV);
-        });
+    private CompletableFuture<List<ScoredSearchResult>> discoverContent(String filterParam, Long id) {
+        String movieUrl = TmdbUrlBuilder.from(tmdbProperties)
+                .path("/discover/movie")
+                .param("language", "en-US")
+                .param("sort_by", "popularity.desc")
+                .param(filterParam, id)
+                .build();
+        String tvUrl = TmdbUrlBuilder.from(tmdbProperties)
+                .path("/discover/tv")
+                .param("language", "en-US")
+                .param("sort_by", "popularity.desc")
+                .param(filterParam, id)
+                .build();
+        CompletableFuture<List<ScoredSearchResult>> movies = fetchAndMap(movieUrl, MediaType.Movie);
+        CompletableFuture<List<ScoredSearchResult>> tvShows = fetchAndMap(tvUrl, MediaType.TV);
 
-        List<ScoredSearchResult> combined = new ArrayList<>(movies.orTimeout(8, TimeUnit.SECONDS).join());
-        combined.addAll(tvShows.orTimeout(8, TimeUnit.SECONDS).join());
-        return combined;
+        return movies.thenCombine(tvShows, (movieResults, tvResults) -> {
+            List<ScoredSearchResult> combined = new ArrayList<>(movieResults);
+            combined.addAll(tvResults);
+            return combined;
+        });
     }
 
-    private List<ScoredSearchResult> fetchAndMap(String url, MediaType forcedType) {
-        try {
-            TmdbTrendingResponse response = tmdbClient.fetchWithRetry(url, TmdbTrendingResponse.class);
-            if (response == null || response.getResults() == null)
-                return Collections.emptyList();
-            return response.getResults().stream()
-                    .filter(this::isValidItem)
-                    .map(item -> mapItemToDto(item, forcedType))
-                    .toList();
-        } catch (Exception e) {
-            return Collections.emptyList();
-        }
+    private CompletableFuture<List<ScoredSearchResult>> fetchAndMap(String url, MediaType forcedType) {
+        return tmdbClient.fetchAsync(url, TmdbTrendingResponse.class)
+                .thenApply(response -> {
+                    if (response == null || response.getResults() == null)
+                        return Collections.<ScoredSearchResult>emptyList();
+                    return response.getResults().stream()
+                            .filter(this::isValidItem)
+                            .map(item -> mapItemToDto(item, forcedType))
+                            .toList();
+                });
     }
 
     private boolean isValidItem(TmdbTrendingResponse.TmdbItem item) {
@@ -4,8 +4,10 @@ import com.riyura.backend.common.config.CacheStampedeGuard;
 import com.riyura.backend.common.config.TmdbProperties;
 import com.riyura.backend.common.dto.media.MediaGridResponse;
 import com.riyura.backend.common.dto.tmdb.TmdbTrendingResponse;
+import com.riyura.backend.common.exception.UpstreamNotFoundException;
 import com.riyura.backend.common.model.MediaType;
 import com.riyura.backend.common.service.TmdbClient;
+import com.riyura.backend.common.service.TmdbRequestPlanner;
 import com.riyura.backend.common.service.TmdbUrlBuilder;
 import com.riyura.backend.common.util.TmdbUtils;
 import com.riyura.backend.modules.content.dto.global.CastResponse;
@@ -21,7 +23,8 @@ import java.time.Duration;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
@@ -32,6 +35,7 @@ public class TvDetailsService implements TvDetailsServicePort {
     private static final int SIMILAR_LIMIT = 6;
 
     private final TmdbClient tmdbClient;
+    private final TmdbRequestPlanner tmdbRequestPlanner;
     private final CacheStampedeGuard cacheStampedeGuard;
     private final TmdbProperties tmdbProperties;
 
@@ -40,27 +44,12 @@ public class TvDetailsService implements TvDetailsServicePort {
         return cacheStampedeGuard.xfetch(
                 "tvDetails:" + id, Duration.ofDays(7), 1.5,
                 () -> {
-                    String detailsUrl = TmdbUrlBuilder.from(tmdbProperties)
-                            .path("/tv/" + id)
-                            .param("language", "en-US")
-                            .build();
-                    String creditsUrl = TmdbUrlBuilder.from(tmdbProperties)
-                            .path("/tv/" + id + "/credits")
-                            .param("language", "en-US")
-                            .build();
                     try {
-                        CompletableFuture<TvShowDetails> detailsTask = CompletableFuture
-                                .supplyAsync(() -> tmdbClient.fetchWithRetry(detailsUrl, TvShowDetails.class));
-                        CompletableFuture<CreditsResponse> creditsTask = CompletableFuture.supplyAsync(() -> {
-                            try {
-                                return tmdbClient.fetchWithRetry(creditsUrl, CreditsResponse.class);
-                            } catch (Exception e) {
-                                return null;
-                            }
-                        });
-
-                        TvShowDetails details = detailsTask.orTimeout(8, TimeUnit.SECONDS).join();
-                        CreditsResponse credits = creditsTask.orTimeout(8, TimeUnit.SECONDS).join();
+                        TmdbRequestPlanner.Combined combined = tmdbRequestPlanner
+                                .fetchAsync("/tv/" + id, Map.of("language", "en-US"), List.of("credits"))
+                                .orTimeout(8, TimeUnit.SECONDS).join();
+                        TvShowDetails details = combined.root(TvShowDetails.class);
+                        CreditsResponse credits = combined.part("credits", CreditsResponse.class);
                         if (details != null) {
                             details.setCasts(credits != null && credits.getCast() != null
                                     ? credits.getCast()
@@ -70,6 +59,8 @@ public class TvDetailsService implements TvDetailsServicePort {
                         }
                         return details;
                     } catch (Exception e) {
+                        // A missing id is cached as a negative entry by the guard
+                        UpstreamNotFoundException.rethrowIfNotFound(e);
                         log.error("Error fetching TV details for ID {}: {}", id, e.getMessage());
                         return null;
                     }
@@ -78,7 +69,7 @@ public class TvDetailsService implements TvDetailsServicePort {
 
     @Override
     public List<MediaGridResponse> getSimilarTvShows(String id) {
-        return cacheStampedeGuard.xfetch(
+        List<MediaGridResponse> similar = cacheStampedeGuard.xfetch(
                 "tvSimilar:" + id, Duration.ofDays(7), 1.0,
                 () -> {
                     String similarUrl = TmdbUrlBuilder.from(tmdbProperties)
@@ -99,10 +90,13 @@ public class TvDetailsService implements TvDetailsServicePort {
                                 .map(this::mapSimilarTvToDTO)
                                 .toList();
                     } catch (Exception e) {
+                        // Null lets the guard serve the last known good list instead of caching an empty one
+                        UpstreamNotFoundException.rethrowIfNotFound(e);
                         log.error("Error fetching similar TV shows for ID {}: {}", id, e.getMessage());
-                        return Collections.emptyList();
+                        return null;
                     }
                 });
+        return Objects.requireNonNullElse(similar, List.of());
     }
 
     private MediaGridResponse mapSimilarTvToDTO(TmdbTrendingResponse.TmdbItem item) {
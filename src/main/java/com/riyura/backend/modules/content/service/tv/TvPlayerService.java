@@ -1,16 +1,19 @@
 package com.riyura.backend.modules.content.service.tv;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.riyura.backend.common.config.CacheStampedeGuard;
 import com.riyura.backend.common.config.TmdbProperties;
+import com.riyura.backend.common.exception.UpstreamNotFoundException;
 import com.riyura.backend.common.service.TmdbClient;
+import com.riyura.backend.common.service.TmdbRequestPlanner;
 import com.riyura.backend.common.service.TmdbUrlBuilder;
 import com.riyura.backend.common.util.TmdbUtils;
 import com.riyura.backend.modules.content.dto.tv.TvPlayerResponse;
@@ -29,23 +32,30 @@ import lombok.extern.slf4j.Slf4j;
 public class TvPlayerService implements TvPlayerServicePort {
 
     private final TmdbClient tmdbClient;
+    private final TmdbRequestPlanner tmdbRequestPlanner;
+    private final CacheStampedeGuard cacheStampedeGuard;
     private final TmdbProperties tmdbProperties;
 
     @Override
-    @Cacheable(value = "tvPlayer", key = "#id", sync = true)
     public TvPlayerResponse getTvPlayer(String id) {
-        String detailsUrl = TmdbUrlBuilder.from(tmdbProperties)
-                .path("/tv/" + id)
-                .param("language", "en-US")
-                .build();
+        return cacheStampedeGuard.xfetch(
+                "tvPlayer:" + id, Duration.ofDays(1), 1.0,
+                () -> {
+                    String detailsUrl = TmdbUrlBuilder.from(tmdbProperties)
+                            .path("/tv/" + id)
+                            .param("language", "en-US")
+                            .build();
 
-        try {
-            TvShowDetails details = tmdbClient.fetchWithRetry(detailsUrl, TvShowDetails.class);
-            return details == null ? null : mapToPlayerResponse(id, details);
-        } catch (Exception e) {
-            log.error("Error fetching TV player payload for ID {}: {}", id, e.getMessage());
-            return null;
-        }
+                    try {
+                        TvShowDetails details = tmdbClient.fetchWithRetry(detailsUrl, TvShowDetails.class);
+                        return details == null ? null : mapToPlayerResponse(id, details);
+                    } catch (Exception e) {
+                        // A missing id is cached as a negative entry by the guard
+                        UpstreamNotFoundException.rethrowIfNotFound(e);
+                        log.error("Error fetching TV player payload for ID {}: {}", id, e.getMessage());
+                        return null;
+                    }
+                });
     }
 
     private TvPlayerResponse mapToPlayerResponse(String tvId, TvShowDetails details) {
@@ -70,29 +80,29 @@ public class TvPlayerService implements TvPlayerServicePort {
                 .filter(s -> s.getSeasonNumber() == null || s.getSeasonNumber() != 0)
                 .toList();
 
-        List<CompletableFuture<Season>> futures = filteredSeasons.stream()
-                .map(season -> CompletableFuture
-                        .supplyAsync(() -> fetchSeasonWithEpisodes(tvId, season))
-                        .orTimeout(8, TimeUnit.SECONDS))
+        List<String> appends = filteredSeasons.stream()
+                .map(Season::getSeasonNumber)
+                .filter(Objects::nonNull)
+                .map(number -> "season/" + number)
                 .toList();
+        if (appends.isEmpty())
+            return filteredSeasons;
 
-        return futures.stream().map(CompletableFuture::join).toList();
-    }
-
-    private Season fetchSeasonWithEpisodes(String tvId, Season season) {
+        // Episodes for every season in ceil(seasons / 20) calls; a season that can't be fetched is kept without them
         try {
-            String url = TmdbUrlBuilder.from(tmdbProperties)
-                    .path("/tv/" + tvId + "/season/" + season.getSeasonNumber())
-                    .param("language", "en-US")
-                    .build();
-            SeasonDetails fetched = tmdbClient.fetchWithRetry(url, SeasonDetails.class);
-            if (fetched != null && fetched.getEpisodes() != null) {
-                season.setEpisodes(fetched.getEpisodes());
+            TmdbRequestPlanner.Combined combined = tmdbRequestPlanner
+                    .fetchPartsAsync("/tv/" + tvId, Map.of("language", "en-US"), appends)
+                    .orTimeout(8, TimeUnit.SECONDS).join();
+            for (Season season : filteredSeasons) {
+                SeasonDetails fetched = season.getSeasonNumber() == null ? null
+                        : combined.part("season/" + season.getSeasonNumber(), SeasonDetails.class);
+                if (fetched != null && fetched.getEpisodes() != null)
+                    season.setEpisodes(fetched.getEpisodes());
             }
         } catch (Exception e) {
-            log.warn("Could not fetch episodes for season {}: {}", season.getSeasonNumber(), e.getMessage());
+            log.warn("Could not fetch episodes for TV {}: {}", tvId, e.getMessage());
         }
-        return season;
+        return filteredSeasons;
     }
 
     @Data
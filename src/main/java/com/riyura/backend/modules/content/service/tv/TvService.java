@@ -17,6 +17,7 @@ import org.springframework.stereotype.Service;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 @Slf4j
 @Service
@@ -30,50 +31,53 @@ public class TvService implements TvServicePort {
 
     @Override
     public List<MediaGridResponse> getAiringToday(int limit) {
-        return cacheStampedeGuard.xfetch(
-                "tvAiringToday:" + limit, Duration.ofDays(1), 1.0,
-                () -> fetchAndMap(
-                        TmdbUrlBuilder.from(tmdbProperties)
-                                .path("/tv/airing_today")
-                                .param("language", "en-US")
-                                .build(),
-                        limit));
+        return xfetchList(
+                "tvAiringToday:" + limit,
+                TmdbUrlBuilder.from(tmdbProperties)
+                        .path("/tv/airing_today")
+                        .param("language", "en-US")
+                        .build(),
+                limit);
     }
 
     @Override
     public List<MediaGridResponse> getTrendingTv(int limit) {
-        return cacheStampedeGuard.xfetch(
-                "tvTrending:" + limit, Duration.ofDays(1), 1.0,
-                () -> fetchAndMap(
-                        TmdbUrlBuilder.from(tmdbProperties)
-                                .path("/trending/tv/week")
-                                .param("language", "en-US")
-                                .build(),
-                        limit));
+        return xfetchList(
+                "tvTrending:" + limit,
+                TmdbUrlBuilder.from(tmdbProperties)
+                        .path("/trending/tv/week")
+                        .param("language", "en-US")
+                        .build(),
+                limit);
     }
 
     @Override
     public List<MediaGridResponse> getPopularTv(int limit) {
-        return cacheStampedeGuard.xfetch(
-                "tvPopular:" + limit, Duration.ofDays(1), 1.0,
-                () -> fetchAndMap(
-                        TmdbUrlBuilder.from(tmdbProperties)
-                                .path("/tv/popular")
-                                .param("language", "en-US")
-                                .build(),
-                        limit));
+        return xfetchList(
+                "tvPopular:" + limit,
+                TmdbUrlBuilder.from(tmdbProperties)
+                        .path("/tv/popular")
+                        .param("language", "en-US")
+                        .build(),
+                limit);
     }
 
     @Override
     public List<MediaGridResponse> getOnTheAir(int limit) {
-        return cacheStampedeGuard.xfetch(
-                "tvOnTheAir:" + limit, Duration.ofDays(1), 1.0,
-                () -> fetchAndMap(
-                        TmdbUrlBuilder.from(tmdbProperties)
-                                .path("/tv/on_the_air")
-                                .param("language", "en-US")
-                                .build(),
-                        limit));
+        return xfetchList(
+                "tvOnTheAir:" + limit,
+                TmdbUrlBuilder.from(tmdbProperties)
+                        .path("/tv/on_the_air")
+                        .param("language", "en-US")
+                        .build(),
+                limit);
+    }
+
+    // A failed load yields null so the guard serves the last known good list; callers still see an empty one
+    private List<MediaGridResponse> xfetchList(String key, String baseEndpointUrl, int limit) {
+        List<MediaGridResponse> items = cacheStampedeGuard.xfetch(key, Duration.ofDays(1), 1.0,
+                () -> fetchAndMap(baseEndpointUrl, limit));
+        return Objects.requireNonNullElse(items, List.of());
     }
 
     private List<MediaGridResponse> fetchAndMap(String baseEndpointUrl, int limit) {
@@ -100,6 +104,9 @@ public class TvService implements TvServicePort {
                 page++;
             } catch (Exception e) {
                 log.error("Error fetching TV data (page {}): {}", page, e.getMessage());
+                // Keep the pages already read; with none, let the guard fall back
+                if (collected.isEmpty())
+                    return null;
                 break;
             }
         }
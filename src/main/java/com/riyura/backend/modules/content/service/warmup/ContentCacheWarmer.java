@@ -0,0 +1,74 @@
+package com.riyura.backend.modules.content.service.warmup;
+
+import com.riyura.backend.common.port.CacheWarmerPort;
+import com.riyura.backend.modules.content.port.AnimeServicePort;
+import com.riyura.backend.modules.content.port.BannerServicePort;
+import com.riyura.backend.modules.content.port.ExploreServicePort;
+import com.riyura.backend.modules.content.port.MovieServicePort;
+import com.riyura.backend.modules.content.port.TvServicePort;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maps warm-up manifest keys for the content listings to their service
+ * calls. Keys use the same format as the services' cache keys, so a
+ * manifest entry warms exactly the entry a request for it would read:
+ * {@code banners}, {@code moviesTrending:12}, {@code explore:1::}.
+ */
+@Service
+@RequiredArgsConstructor
+public class ContentCacheWarmer implements CacheWarmerPort {
+
+    private final BannerServicePort bannerService;
+    private final MovieServicePort movieService;
+    private final TvServicePort tvService;
+    private final AnimeServicePort animeService;
+    private final ExploreServicePort exploreService;
+
+    @Override
+    public Runnable warmUpTask(String key) {
+        String[] parts = key.split(":", -1);
+        String namespace = parts[0];
+        if (namespace.equals("banners"))
+            return () -> bannerService.getBannerData().join();
+        if (namespace.equals("explore"))
+            return exploreTask(parts);
+        if (parts.length != 2)
+            return null;
+
+        int limit;
+        try {
+            limit = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return switch (namespace) {
+            case "moviesNowPlaying" -> () -> movieService.getNowPlayingMovies(limit);
+            case "moviesTrending" -> () -> movieService.getTrendingMovies(limit);
+            case "moviesPopular" -> () -> movieService.getPopularMovies(limit);
+            case "moviesUpcoming" -> () -> movieService.getUpcomingMovies(limit);
+            case "tvAiringToday" -> () -> tvService.getAiringToday(limit);
+            case "tvTrending" -> () -> tvService.getTrendingTv(limit);
+            case "tvPopular" -> () -> tvService.getPopularTv(limit);
+            case "tvOnTheAir" -> () -> tvService.getOnTheAir(limit);
+            case "animeTrending" -> () -> animeService.getTrendingAnime(limit).join();
+            default -> null;
+        };
+    }
+
+    // explore:<page>:<genres>:<language>, with empty genres/language for the unfiltered page
+    private Runnable exploreTask(String[] parts) {
+        if (parts.length != 4)
+            return null;
+        int page;
+        try {
+            page = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        String genres = parts[2].isEmpty() ? null : parts[2];
+        String language = parts[3].isEmpty() ? null : parts[3];
+        return () -> exploreService.getExplorePage(page, genres, language).join();
+    }
+}
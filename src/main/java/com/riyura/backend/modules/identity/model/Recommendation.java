@@ -1,5 +1,6 @@
 package com.riyura.backend.modules.identity.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -20,6 +21,8 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+// Derived Persistable state; ignored so cached entities round-trip through Redis
+@JsonIgnoreProperties({ "id", "new" })
 public class Recommendation implements Persistable<RecommendationId> {
 
     @Id
@@ -1,8 +1,10 @@
 package com.riyura.backend.modules.identity.service;
 
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -11,6 +13,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.riyura.backend.common.cache.UserCacheGenerations;
 import com.riyura.backend.common.config.TmdbProperties;
 
 import com.riyura.backend.common.model.MediaType;
@@ -24,16 +28,16 @@ import com.riyura.backend.modules.identity.model.WatchHistory;
 import com.riyura.backend.modules.identity.repository.WatchHistoryRepository;
 import com.riyura.backend.modules.identity.port.HistoryServicePort;
 import com.riyura.backend.common.service.TmdbClient;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Caching;
+import com.riyura.backend.common.service.TmdbRequestPlanner;
 
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -44,26 +48,24 @@ public class HistoryService implements HistoryServicePort {
     private static final int DEFAULT_PAGE_SIZE = 10;
 
     private final TmdbClient tmdbClient;
+    private final TmdbRequestPlanner tmdbRequestPlanner;
     private final WatchHistoryRepository watchHistoryRepository;
     private final TmdbProperties tmdbProperties;
+    private final UserCacheGenerations userCacheGenerations;
 
     // Fetch the user's watch history with pagination
-    // @Cacheable(value = "history", key = "#userId + ':' + #page", sync = true)
+    @Cacheable(value = "history", key = "#userId + ':' + @userCacheGenerations.current(#userId) + ':' + #page", sync = true)
     @Transactional(readOnly = true)
     public List<HistoryResponse> getUserWatchHistory(UUID userId, int page) {
         Pageable pageable = PageRequest.of(page, DEFAULT_PAGE_SIZE);
         return watchHistoryRepository.findByUserIdOrderByWatchedAtDesc(userId, pageable)
                 .stream()
                 .map(this::toHistoryResponse)
-                .toList();
+                .collect(Collectors.toList());
     }
 
     // Add or update a watch history item
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "history", key = "#userId + ':0'"),
-            @CacheEvict(value = "history", key = "#userId + ':1'")
-    })
     public WatchHistory addOrUpdateHistory(UUID userId, HistoryRequest request) {
         try {
             Optional<WatchHistory> existing = watchHistoryRepository.findByUserIdAndTmdbIdAndMediaType(
@@ -103,7 +105,9 @@ public class HistoryService implements HistoryServicePort {
                 history.setIsAnime(false);
             }
 
-            return watchHistoryRepository.save(history);
+            WatchHistory saved = watchHistoryRepository.save(history);
+            userCacheGenerations.bump(userId);
+            return saved;
         } catch (ResponseStatusException e) {
             throw e;
         } catch (DataIntegrityViolationException e) {
@@ -115,10 +119,6 @@ public class HistoryService implements HistoryServicePort {
 
     // Delete a watch history item
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "history", key = "#userId + ':0'"),
-            @CacheEvict(value = "history", key = "#userId + ':1'")
-    })
     public void deleteWatchHistory(UUID userId, DeleteWatchHistoryRequest request) {
         try {
             Optional<WatchHistory> existing = watchHistoryRepository.findByUserIdAndTmdbIdAndMediaType(
@@ -127,6 +127,7 @@ public class HistoryService implements HistoryServicePort {
             WatchHistory history = existing.orElseThrow(
                     () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Watch history entry not found"));
             watchHistoryRepository.delete(history);
+            userCacheGenerations.bump(userId);
         } catch (ResponseStatusException e) {
             throw e;
         } catch (Exception e) {
@@ -149,20 +150,18 @@ public class HistoryService implements HistoryServicePort {
                             "season_number and episode_number are required for TV history");
                 }
 
-                String showUrl = TmdbUrlBuilder.from(tmdbProperties)
-                        .path("/tv/" + id)
-                        .build();
-                String episodeUrl = TmdbUrlBuilder.from(tmdbProperties)
-                        .path("/tv/" + id + "/season/" + seasonNumber + "/episode/" + episodeNumber)
-                        .build();
-
-                CompletableFuture<TmdbMetadataDTO> showFuture = CompletableFuture
-                        .supplyAsync(() -> tmdbClient.fetchWithRetry(showUrl, TmdbMetadataDTO.class));
-                CompletableFuture<TmdbMetadataDTO> episodeFuture = CompletableFuture
-                        .supplyAsync(() -> tmdbClient.fetchWithRetry(episodeUrl, TmdbMetadataDTO.class));
-
-                TmdbMetadataDTO showData = showFuture.orTimeout(8, TimeUnit.SECONDS).join();
-                TmdbMetadataDTO episodeData = episodeFuture.orTimeout(8, TimeUnit.SECONDS).join();
+                // Show and episode in one call: the episode is read from the appended season
+                String season = "season/" + seasonNumber;
+                TmdbRequestPlanner.Combined combined = tmdbRequestPlanner
+                        .fetchAsync("/tv/" + id, Map.of(), List.of(season))
+                        .orTimeout(8, TimeUnit.SECONDS).join();
+                TmdbMetadataDTO showData = combined.root(TmdbMetadataDTO.class);
+                SeasonEpisodes seasonData = combined.part(season, SeasonEpisodes.class);
+                TmdbMetadataDTO episodeData = seasonData == null || seasonData.getEpisodes() == null ? null
+                        : seasonData.getEpisodes().stream()
+                                .filter(episode -> episodeNumber.equals(episode.getEpisodeNumber()))
+                                .findFirst()
+                                .orElse(null);
 
                 if (showData == null || episodeData == null) {
                     throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Unable to fetch TV metadata from TMDB");
@@ -254,4 +253,10 @@ public class HistoryService implements HistoryServicePort {
     private boolean isAnime(TmdbMetadataDTO metadata) {
         return TmdbUtils.isAnime(metadata.getOriginalLanguage(), metadata.getGenres());
     }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static class SeasonEpisodes {
+        private List<TmdbMetadataDTO> episodes;
+    }
 }
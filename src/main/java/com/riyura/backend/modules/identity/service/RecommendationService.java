@@ -1,11 +1,11 @@
 package com.riyura.backend.modules.identity.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.genai.Client;
 import com.google.genai.ResponseStream;
 import com.google.genai.types.*;
+import com.riyura.backend.common.cache.UserCacheGenerations;
 import com.riyura.backend.common.config.TmdbProperties;
 import com.riyura.backend.common.model.MediaType;
 import com.riyura.backend.common.service.TmdbClient;
@@ -19,11 +19,14 @@ import com.riyura.backend.modules.identity.repository.WatchHistoryRepository;
 import com.riyura.backend.modules.identity.repository.WatchlistRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.HttpClientErrorException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
 
 import java.time.Duration;
 import java.time.LocalDate;
@@ -31,7 +34,6 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 
 import com.riyura.backend.modules.identity.port.RecommendationServicePort;
@@ -49,12 +51,12 @@ public class RecommendationService implements RecommendationServicePort {
     private final TmdbClient tmdbClient;
     private final TransactionTemplate transactionTemplate;
     private final TmdbProperties tmdbProperties;
+    private final UserCacheGenerations userCacheGenerations;
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final Executor virtualThreadExecutor = Executors
             .newVirtualThreadPerTaskExecutor();
 
     private static final String GEMINI_MODEL = "gemini-3.1-flash-lite-preview";
-    private final Semaphore tmdbRateLimiter = new Semaphore(20);
 
     private final ConcurrentHashMap<String, Client> clientCache = new ConcurrentHashMap<>();
 
@@ -63,7 +65,10 @@ public class RecommendationService implements RecommendationServicePort {
     }
 
     // Returns the recommendations for the user, if they exist in the database. If
-    // they don't, it will generate new recommendations.
+    // they don't, it will generate new recommendations. An empty answer is not cached,
+    // so a user without recommendations yet isn't stuck with none until the next invalidation.
+    @Cacheable(value = "recommendations", key = "#userId + ':' + @userCacheGenerations.current(#userId)",
+            condition = "!#forceRefresh", unless = "#result == null || #result.isEmpty()")
     public List<Recommendation> getRecommendations(UUID userId, boolean forceRefresh) {
         if (!forceRefresh) {
             List<Recommendation> existing = recommendationRepo.findByUserIdOrderByGeneratedAtDesc(userId);
@@ -132,6 +137,8 @@ public class RecommendationService implements RecommendationServicePort {
                     transactionTemplate.execute(status -> {
                         recommendationRepo.deleteByUserId(userId);
                         recommendationRepo.saveAll(results);
+                        // Runs after commit, so the next read re-caches the new rows
+                        userCacheGenerations.bump(userId);
                         return null;
                     });
                     log.info("Background DB save complete for user: {}", userId);
@@ -185,64 +192,103 @@ public class RecommendationService implements RecommendationServicePort {
         int maxAttempts = 3;
         for (int attempt = 1; attempt <= maxAttempts; attempt++) {
             try {
-                tmdbRateLimiter.acquire();
-                String raw;
-                try {
-                    raw = tmdbClient.fetchWithRetry(url, String.class);
-                } finally {
-                    tmdbRateLimiter.release();
-                }
+                // Outbound throughput is governed cluster-wide inside TmdbClient. Only the candidate
+                // fields are read off the response bytes; the rest of each result is skipped
+                return tmdbClient.fetchAsync(url, parser -> readCandidates(parser, mediaType)).join();
 
-                JsonNode results = objectMapper.readTree(raw).path("results");
-                List<CandidateItem> items = new ArrayList<>();
-                for (JsonNode node : results) {
-                    CandidateItem item = parseTmdbNode(node, mediaType);
-                    if (item != null)
-                        items.add(item);
+            } catch (Exception e) {
+                if (!isTooManyRequests(e)) {
+                    log.warn("TMDB /recommendations failed for id={}: {}", tmdbId, e.getMessage());
+                    return Collections.emptyList();
                 }
-                return items;
-
-            } catch (HttpClientErrorException.TooManyRequests e) {
                 long backoff = 1500L * attempt; // 1.5s, 3s, 4.5s
                 log.warn("TMDB 429 on /recommendations for id={} (attempt {}/{}) — backing off {}ms",
                         tmdbId, attempt, maxAttempts, backoff);
                 if (attempt == maxAttempts)
                     return Collections.emptyList();
                 sleepUninterruptibly(backoff);
-
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return Collections.emptyList();
-            } catch (Exception e) {
-                log.warn("TMDB /recommendations failed for id={}: {}", tmdbId, e.getMessage());
-                return Collections.emptyList();
             }
         }
         return Collections.emptyList();
     }
 
-    // Parses a single TMDB result node into a CandidateItem. Returns null if unfit.
-    private CandidateItem parseTmdbNode(JsonNode node, MediaType mediaType) {
-        long id = node.path("id").asLong(0);
-        if (id == 0)
+    // The 429 arrives wrapped by the future and the circuit-breaker fallback
+    private static boolean isTooManyRequests(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof HttpClientErrorException.TooManyRequests)
+                return true;
+        }
+        return false;
+    }
+
+    // Streams the "results" array of a /recommendations page into CandidateItems, skipping everything else.
+    static List<CandidateItem> readCandidates(JsonParser parser, MediaType mediaType) {
+        List<CandidateItem> items = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_OBJECT)
+            return items;
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() != JsonToken.START_ARRAY || !"results".equals(field)) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                CandidateItem item = readCandidate(parser, mediaType);
+                if (item != null)
+                    items.add(item);
+            }
+        }
+        return items;
+    }
+
+    // Reads a single TMDB result object into a CandidateItem. Returns null if unfit.
+    private static CandidateItem readCandidate(JsonParser parser, MediaType mediaType) {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
             return null;
+        }
+        long id = 0;
+        String title = null, name = null, overview = "", posterPath = null;
+        String releaseDateStr = null, firstAirDateStr = null;
+        boolean hasTitle = false, hasReleaseDate = false;
+        List<String> genreIds = new ArrayList<>();
+
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> id = parser.getValueAsLong(0);
+                case "title" -> {
+                    hasTitle = true;
+                    title = parser.getValueAsString(null);
+                }
+                case "name" -> name = parser.getValueAsString(null);
+                case "overview" -> overview = parser.getValueAsString("");
+                case "poster_path" -> posterPath = parser.getValueAsString(null);
+                case "release_date" -> {
+                    hasReleaseDate = true;
+                    releaseDateStr = parser.getValueAsString(null);
+                }
+                case "first_air_date" -> firstAirDateStr = parser.getValueAsString(null);
+                case "genre_ids" -> {
+                    if (value == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() != JsonToken.END_ARRAY)
+                            genreIds.add(parser.getValueAsString());
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
 
-        String title = node.has("title") ? node.path("title").asText(null)
-                : node.path("name").asText(null);
+        if (id == 0)
+            return null;
+        if (!hasTitle)
+            title = name;
         if (title == null || title.isBlank())
             return null;
 
-        String overview = node.path("overview").asText("");
-        String genreIds = "";
-        if (node.has("genre_ids")) {
-            List<String> ids = new ArrayList<>();
-            node.path("genre_ids").forEach(g -> ids.add(g.asText()));
-            genreIds = String.join(",", ids);
-        }
-
-        String releaseDateStr = node.has("release_date")
-                ? node.path("release_date").asText(null)
-                : node.path("first_air_date").asText(null);
+        if (!hasReleaseDate)
+            releaseDateStr = firstAirDateStr;
         LocalDate releaseDate = null;
         if (releaseDateStr != null && !releaseDateStr.isBlank() && !releaseDateStr.equals("null")) {
             try {
@@ -251,12 +297,12 @@ public class RecommendationService implements RecommendationServicePort {
             }
         }
 
-        String posterPath = node.path("poster_path").asText(null);
         if (posterPath != null && posterPath.equals("null")) {
             posterPath = null;
         }
 
-        return new CandidateItem(id, title, mediaType, releaseDate, genreIds, overview, posterPath);
+        return new CandidateItem(id, title, mediaType, releaseDate, String.join(",", genreIds), overview,
+                posterPath);
     }
 
     // Builds the RAG prompt.
@@ -407,7 +453,7 @@ public class RecommendationService implements RecommendationServicePort {
     }
 
     // Represents one item in the TMDB candidate pool.
-    private record CandidateItem(
+    record CandidateItem(
             long tmdbId,
             String title,
             MediaType mediaType,
@@ -7,6 +7,7 @@ import com.riyura.backend.modules.identity.dto.watchlist.WatchlistRequest;
 import com.riyura.backend.modules.identity.model.Watchlist;
 import com.riyura.backend.modules.identity.repository.WatchlistRepository;
 import com.riyura.backend.modules.identity.port.WatchlistServicePort;
+import com.riyura.backend.common.cache.UserCacheGenerations;
 import com.riyura.backend.common.config.TmdbProperties;
 import com.riyura.backend.common.service.TmdbClient;
 import com.riyura.backend.common.service.TmdbUrlBuilder;
@@ -21,9 +22,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
@@ -42,9 +41,10 @@ public class WatchlistService implements WatchlistServicePort {
     private final WatchlistRepository watchlistRepository;
     private final TmdbClient tmdbClient;
     private final TmdbProperties tmdbProperties;
+    private final UserCacheGenerations userCacheGenerations;
 
     // Fetches the user's watchlist, ordered by most recent first
-    @Cacheable(value = "watchlist", key = "#userId + ':' + #page", sync = true)
+    @Cacheable(value = "watchlist", key = "#userId + ':' + @userCacheGenerations.current(#userId) + ':' + #page", sync = true)
     @Transactional(readOnly = true)
     public List<MediaGridResponse> getUserWatchlist(UUID userId, int page) {
         Pageable pageable = PageRequest.of(page, DEFAULT_PAGE_SIZE);
@@ -62,10 +62,6 @@ public class WatchlistService implements WatchlistServicePort {
 
     // Adds a media item to the user's watchlist
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "watchlist", key = "#userId + ':0'"),
-            @CacheEvict(value = "watchlist", key = "#userId + ':1'")
-    })
     public Watchlist addToWatchlist(UUID userId, WatchlistRequest request) {
         try {
             // Check if already exists
@@ -90,7 +86,9 @@ public class WatchlistService implements WatchlistServicePort {
             applyMetadata(watchlist, request.getMediaType(), metadata);
             watchlist.setAddedAt(OffsetDateTime.now());
 
-            return watchlistRepository.save(watchlist);
+            Watchlist saved = watchlistRepository.save(watchlist);
+            userCacheGenerations.bump(userId);
+            return saved;
         } catch (ResponseStatusException e) {
             throw e;
         } catch (DataIntegrityViolationException e) {
@@ -102,10 +100,6 @@ public class WatchlistService implements WatchlistServicePort {
 
     // Deletes a media item from the user's watchlist
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "watchlist", key = "#userId + ':0'"),
-            @CacheEvict(value = "watchlist", key = "#userId + ':1'")
-    })
     public void deleteFromWatchlist(UUID userId, WatchlistRequest request) {
         try {
             Watchlist watchlist = watchlistRepository.findByUserIdAndTmdbIdAndMediaType(
@@ -113,6 +107,7 @@ public class WatchlistService implements WatchlistServicePort {
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Watchlist item not found"));
 
             watchlistRepository.delete(watchlist);
+            userCacheGenerations.bump(userId);
         } catch (ResponseStatusException e) {
             throw e;
         } catch (Exception e) {
@@ -1,5 +1,13 @@
 package com.riyura.backend.modules.testing.controller;
 
+import com.riyura.backend.common.cache.CacheEventBus;
+import com.riyura.backend.common.cache.CacheKeyStats;
+import com.riyura.backend.common.cache.CacheKeys;
+import com.riyura.backend.common.cache.CacheSlotReport;
+import com.riyura.backend.common.cache.CacheValueCodec;
+import com.riyura.backend.common.cache.NearCache;
+import com.riyura.backend.common.cache.RedisCacheStore;
+import com.riyura.backend.common.cache.RedisKeyScanner;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
@@ -8,15 +16,12 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.ScanOptions;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/test/cache")
@@ -24,9 +29,24 @@ import java.util.stream.Collectors;
 public class CacheMonitorController {
 
     private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisCacheStore cacheStore;
+    private final CacheValueCodec cacheValueCodec;
+    private final NearCache nearCache;
+    private final CacheEventBus cacheEventBus;
+    private final CacheSlotReport cacheSlotReport;
+    private final CacheKeyStats cacheKeyStats;
 
-    // Suffixes created by CacheStampedeGuard for internal bookkeeping
-    private static final List<String> AUX_SUFFIXES = List.of(":lock", ":fresh", ":refreshing", ":delta");
+    // Upper bound for the SCAN COUNT hint of one stats page
+    private static final int MAX_PAGE_COUNT = 1000;
+
+    // Last-known-good copies plus the side keys left behind by pre-envelope CacheStampedeGuard entries
+    private static final List<String> AUX_SUFFIXES = auxSuffixes();
+
+    private static List<String> auxSuffixes() {
+        List<String> suffixes = new ArrayList<>(RedisCacheStore.LEGACY_SUFFIXES);
+        suffixes.add(":lkg");
+        return List.copyOf(suffixes);
+    }
 
     @GetMapping(produces = MediaType.TEXT_HTML_VALUE)
     public ResponseEntity<Resource> getMonitorPage() {
@@ -36,39 +56,59 @@ public class CacheMonitorController {
                 .body(resource);
     }
 
+    // One SCAN page of keys with type, TTL and size; pass nextCursor back until it is "0" again
     @GetMapping(value = "/stats", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Map<String, Object>> getCacheStats() {
-        Set<String> allKeys = scanKeys("*");
-        if (allKeys == null)
-            allKeys = Collections.emptySet();
+    public ResponseEntity<Map<String, Object>> getCacheStats(
+            @RequestParam(defaultValue = CacheKeyStats.START) String cursor,
+            @RequestParam(defaultValue = "*") String pattern,
+            @RequestParam(defaultValue = "200") int count) {
+        CacheKeyStats.Page page = cacheKeyStats.page(cursor, pattern, Math.min(count, MAX_PAGE_COUNT));
 
-        List<Map<String, Object>> keys = allKeys.stream()
-                .sorted()
-                .map(this::describeKey)
-                .toList();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("timestamp", Instant.now().toString());
+        response.put("cursor", cursor);
+        response.put("nextCursor", page.nextCursor());
+        response.put("done", page.done());
+        response.put("keys", page.keys().stream().map(this::describeKey).toList());
+        return ResponseEntity.ok(response);
+    }
 
-        long totalKeys = keys.size();
-        long auxKeys = keys.stream().filter(k -> "Auxiliary".equals(k.get("strategy"))).count();
-        long cacheKeys = totalKeys - auxKeys;
+    // Key counts and bytes per namespace and group; rebuilt at most every 30 s, however many monitors poll it
+    @GetMapping(value = "/stats/summary", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getCacheSummary() {
+        CacheKeyStats.Summary stats = cacheKeyStats.summary();
 
-        Map<String, Long> groupCounts = keys.stream()
-                .filter(k -> !"Auxiliary".equals(k.get("strategy")))
-                .collect(Collectors.groupingBy(k -> (String) k.get("group"), Collectors.counting()));
+        Map<String, Long> groupCounts = new TreeMap<>();
+        Map<String, Long> groupBytes = new TreeMap<>();
+        stats.namespaces().forEach((namespace, ns) -> {
+            String group = classifyGroup(namespace);
+            if (ns.keys() > ns.auxKeys())
+                groupCounts.merge(group, ns.keys() - ns.auxKeys(), Long::sum);
+            groupBytes.merge(group, ns.bytes(), Long::sum);
+        });
 
         Map<String, Object> summary = new LinkedHashMap<>();
-        summary.put("totalKeys", totalKeys);
-        summary.put("cacheKeys", cacheKeys);
-        summary.put("auxKeys", auxKeys);
+        summary.put("totalKeys", stats.totalKeys());
+        summary.put("cacheKeys", stats.totalKeys() - stats.auxKeys());
+        summary.put("auxKeys", stats.auxKeys());
+        summary.put("totalBytes", stats.totalBytes());
         summary.put("groups", groupCounts);
+        summary.put("groupBytes", groupBytes);
+        summary.put("namespaces", stats.namespaces());
 
         Map<String, Object> response = new LinkedHashMap<>();
-        response.put("timestamp", Instant.now().toString());
+        response.put("timestamp", stats.computedAt().toString());
+        response.put("durationMs", stats.durationMs());
         response.put("summary", summary);
-        response.put("keys", keys);
-
         return ResponseEntity.ok(response);
     }
 
+    // Keys per namespace and shard; shards only applies to standalone Redis, where the slots are split evenly
+    @GetMapping(value = "/slots", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CacheSlotReport.Report> getSlotDistribution(@RequestParam(defaultValue = "3") int shards) {
+        return ResponseEntity.ok(cacheSlotReport.build(shards));
+    }
+
     @DeleteMapping("/all")
     public ResponseEntity<Map<String, Object>> clearAll() {
         Set<String> keys = scanKeys("*");
@@ -77,20 +117,30 @@ public class CacheMonitorController {
             redisTemplate.delete(keys);
             cleared = keys.size();
         }
+        invalidateNearCacheEverywhere();
         return ResponseEntity.ok(Map.of("cleared", cleared));
     }
 
     @DeleteMapping("/key")
     public ResponseEntity<Map<String, Object>> clearKey(@RequestParam String key) {
-        Boolean deleted = redisTemplate.delete(key);
-        return ResponseEntity.ok(Map.of("key", key, "deleted", Boolean.TRUE.equals(deleted)));
+        String logicalKey = CacheKeys.logical(key);
+        boolean deleted = cacheStore.delete(logicalKey);
+        nearCache.invalidate(logicalKey);
+        cacheEventBus.publishInvalidation(logicalKey);
+        return ResponseEntity.ok(Map.of("key", key, "deleted", deleted));
     }
 
     @DeleteMapping("/batch")
     public ResponseEntity<Map<String, Object>> clearBatch(@RequestBody List<String> keys) {
         long cleared = 0;
         if (keys != null && !keys.isEmpty()) {
-            cleared = redisTemplate.delete(keys);
+            List<String> logicalKeys = keys.stream().map(CacheKeys::logical).toList();
+            Long deleted = cacheStore.delete(logicalKeys);
+            cleared = deleted != null ? deleted : 0;
+            logicalKeys.forEach(k -> {
+                nearCache.invalidate(k);
+                cacheEventBus.publishInvalidation(k);
+            });
         }
         return ResponseEntity.ok(Map.of("cleared", cleared));
     }
@@ -98,74 +148,117 @@ public class CacheMonitorController {
     @DeleteMapping("/pattern")
     public ResponseEntity<Map<String, Object>> clearPattern(@RequestParam String pattern) {
         Set<String> keys = scanKeys(pattern);
+        // Guarded entries are hash-tagged, so "movie*" also has to match "{movie*"
+        if (keys != null && !pattern.startsWith("{"))
+            keys.addAll(scanKeys("{" + pattern));
         long cleared = 0;
         if (keys != null && !keys.isEmpty()) {
             redisTemplate.delete(keys);
             cleared = keys.size();
         }
+        invalidateNearCacheEverywhere();
         return ResponseEntity.ok(Map.of("pattern", pattern, "cleared", cleared));
     }
 
     @GetMapping(value = "/value", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Map<String, Object>> getCacheValue(@RequestParam String key) {
         try {
-            byte[] rawBytes = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands()
-                    .get(key.getBytes(StandardCharsets.UTF_8)));
+            RedisCacheStore.Envelope envelope = isEntryKey(key)
+                    ? cacheStore.inspect(CacheKeys.logical(key), true)
+                    : null;
+            byte[] rawBytes = envelope != null
+                    ? envelope.value()
+                    : redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands()
+                            .get(key.getBytes(StandardCharsets.UTF_8)));
 
             if (rawBytes == null) {
                 return ResponseEntity.ok(Map.of("key", key, "found", false));
             }
 
-            String rawValue = new String(rawBytes, StandardCharsets.UTF_8);
+            // Values are stored as headed Smile/JSON (possibly compressed); render them as JSON
             Map<String, Object> result = new LinkedHashMap<>();
             result.put("key", key);
             result.put("found", true);
-            result.put("value", rawValue);
+            result.put("value", cacheValueCodec.toJson(rawBytes));
             result.put("sizeBytes", rawBytes.length);
+            result.put("encoding", CacheValueCodec.describe(rawBytes));
+            if (envelope != null)
+                result.put("envelope", describeEnvelope(envelope));
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.ok(Map.of("key", key, "found", false, "error", e.getMessage()));
         }
     }
 
-    private Map<String, Object> describeKey(String key) {
-        Long ttlMs = redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+    // Bulk deletes drop every near-cache entry on this node and its peers
+    private void invalidateNearCacheEverywhere() {
+        nearCache.invalidateAll();
+        cacheEventBus.publishInvalidateAll();
+    }
 
-        Long ttlSeconds = null;
-        if (ttlMs != null) {
-            ttlSeconds = ttlMs > 0 ? ttlMs / 1000L : ttlMs;
-        }
+    private Map<String, Object> describeKey(CacheKeyStats.KeyStats stats) {
+        String key = stats.key();
+        long ttlMs = stats.ttlMs();
+        Long ttlSeconds = ttlMs > 0 ? ttlMs / 1000L : ttlMs;
 
-        String strategy = classifyStrategy(key);
+        // Guarded entries are envelopes; their own metadata says which strategy wrote them
+        RedisCacheStore.Envelope envelope = stats.envelope();
+        String strategy = envelope != null
+                ? (envelope.softExpiresAtMs() > 0 ? "SWR" : "XFetch")
+                : classifyStrategy(key);
         String group = classifyGroup(key);
-        String status = resolveStatus(ttlSeconds, strategy);
+        String status = envelope != null && envelope.valueBytes() == 0
+                ? "filling"
+                : resolveStatus(ttlSeconds, strategy);
 
-        String displayKey = key;
-        for (String suffix : AUX_SUFFIXES) {
-            if (key.endsWith(suffix)) {
-                displayKey = key.substring(0, key.length() - suffix.length());
-                break;
-            }
-        }
+        String displayKey = CacheKeys.logical(stripAuxSuffix(key));
 
         Map<String, Object> info = new LinkedHashMap<>();
         info.put("key", key);
         info.put("displayKey", displayKey);
+        info.put("slot", CacheKeys.slot(key));
         info.put("group", group);
         info.put("strategy", strategy);
         info.put("ttlSeconds", ttlSeconds);
         info.put("status", status);
+        info.put("type", stats.type());
+        info.put("memoryBytes", stats.memoryBytes() >= 0 ? stats.memoryBytes() : null);
+        if (envelope != null)
+            info.put("envelope", describeEnvelope(envelope));
         return info;
     }
 
-    private String classifyGroup(String key) {
-        String k = key;
+    private Map<String, Object> describeEnvelope(RedisCacheStore.Envelope envelope) {
+        long now = System.currentTimeMillis();
+        Map<String, Object> meta = new LinkedHashMap<>();
+        meta.put("version", envelope.version());
+        meta.put("computedAt", envelope.computedAtMs() > 0 ? Instant.ofEpochMilli(envelope.computedAtMs()).toString()
+                : null);
+        meta.put("softExpiresAt", envelope.softExpiresAtMs() > 0
+                ? Instant.ofEpochMilli(envelope.softExpiresAtMs()).toString()
+                : null);
+        meta.put("recomputeMs", envelope.deltaMs());
+        meta.put("locked", envelope.lockedUntilMs() > now);
+        meta.put("refreshing", envelope.refreshingUntilMs() > now);
+        meta.put("valueBytes", envelope.valueBytes());
+        return meta;
+    }
+
+    // Guarded entries live under "{<logical key>}"; anything else is a plain or auxiliary key
+    private static boolean isEntryKey(String key) {
+        return key.equals(CacheKeys.entry(CacheKeys.logical(key)));
+    }
+
+    private static String stripAuxSuffix(String key) {
         for (String suffix : AUX_SUFFIXES) {
-            if (k.endsWith(suffix)) {
-                k = k.substring(0, k.length() - suffix.length());
-                break;
-            }
+            if (key.endsWith(suffix))
+                return key.substring(0, key.length() - suffix.length());
         }
+        return key;
+    }
+
+    private String classifyGroup(String key) {
+        String k = CacheKeys.logical(stripAuxSuffix(key));
         if (k.startsWith("movie"))
             return "Movies";
         if (k.startsWith("tv"))
@@ -190,10 +283,9 @@ public class CacheMonitorController {
     }
 
     private String classifyStrategy(String key) {
-        for (String suffix : AUX_SUFFIXES) {
-            if (key.endsWith(suffix))
-                return "Auxiliary";
-        }
+        if (!stripAuxSuffix(key).equals(key))
+            return "Auxiliary";
+        key = CacheKeys.logical(key);
         if (key.startsWith("banners") || key.startsWith("explore"))
             return "SWR";
         if (key.contains("::"))
@@ -221,17 +313,15 @@ public class CacheMonitorController {
 
     /**
      * Uses Redis SCAN instead of KEYS to avoid blocking the server.
-     * SCAN iterates in batches, making it safe for production use.
+     * SCAN iterates in batches, making it safe for production use; on Redis
+     * Cluster every master is scanned.
      */
     private Set<String> scanKeys(String pattern) {
         return redisTemplate.execute((RedisCallback<Set<String>>) connection -> {
             Set<String> result = new LinkedHashSet<>();
             ScanOptions options = ScanOptions.scanOptions().match(pattern).count(200).build();
-            try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
-                while (cursor.hasNext()) {
-                    result.add(new String(cursor.next(), StandardCharsets.UTF_8));
-                }
-            }
+            RedisKeyScanner.forEachKey(connection, options,
+                    key -> result.add(new String(key, StandardCharsets.UTF_8)));
             return result;
         });
     }
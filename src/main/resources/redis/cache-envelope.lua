@@ -0,0 +1,278 @@
+-- Cache envelope operations used by RedisCacheStore.
+--
+-- Every guarded entry is a single hash whose TTL is the hard TTL of the value:
+--   v    serialized value               ver   envelope format version
+--   at   computed-at (epoch ms)         soft  SWR soft expiry (epoch ms, 0 = none)
+--   d    last recompute time (ms)       lk    recompute lease, held until (epoch ms)
+--   rf   background refresh lease, held until (epoch ms)
+--   lko  fencing token of the `lk` holder    rfo   fencing token of the `rf` holder
+--   ft   last fencing token issued           wt    fencing token of the last leased write
+--   h    fingerprint of the value            m     adaptive TTL multiplier (absent = 1)
+-- All timestamps come from the Redis clock so nodes agree on lease and
+-- soft-expiry boundaries regardless of local clock skew.
+--
+-- KEYS[1] entry, a hash-tagged key ("{movieDetails:42}"); the script never touches
+-- any other key, so it runs unchanged on Redis Cluster
+-- ARGV[1] operation; remaining ARGV are documented per operation below.
+--
+-- Reads reply { value | nil, pttl, delta | nil, decision, softRemainingMs, token, fingerprint | nil }
+-- where decision is
+--   1  the caller acquired the lease; token is its fencing token
+--   0  nothing to do
+--  -1  the lease is due but another caller holds it
+--
+-- A lease holder renews its lease while the loader runs and passes its token on
+-- release and write. Release only removes the caller's own lease, and a leased
+-- write is refused when a newer token already wrote the entry or another holder
+-- took the lease over, so a slow loader can never clobber a newer value.
+--
+-- Writes and touches take the base TTLs; the entry's multiplier `m` grows while
+-- refreshes keep producing the same fingerprint and shrinks when it changes, within
+-- the bounds passed by the caller, and both TTLs are scaled by it. A touch refreshes
+-- an unchanged entry without resending its payload.
+local VERSION = '1'
+
+local function now()
+    local t = redis.call('TIME')
+    return tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+end
+
+-- Fencing tokens are Redis-clock millis bumped past the last token issued for the
+-- entry, so they keep increasing even after the entry expired and was recreated
+local function issueToken(ts)
+    local token = math.max(ts, (tonumber(redis.call('HGET', KEYS[1], 'ft')) or 0) + 1)
+    redis.call('HSET', KEYS[1], 'ft', token)
+    return token
+end
+
+-- Takes the lease in `field` unless a live one exists and returns its fencing token,
+-- or -1 when contended. An entry without a value only lives as long as its lease,
+-- so a crashed holder never leaves debris behind.
+local function lease(field, ts, leaseMs)
+    local heldUntil = tonumber(redis.call('HGET', KEYS[1], field))
+    if heldUntil and heldUntil > ts then
+        return -1
+    end
+    local token = issueToken(ts)
+    redis.call('HSET', KEYS[1], field, ts + leaseMs, field .. 'o', token)
+    if redis.call('HEXISTS', KEYS[1], 'v') == 0 then
+        redis.call('PEXPIRE', KEYS[1], leaseMs)
+    end
+    return token
+end
+
+local function decision(token)
+    if token > 0 then
+        return 1
+    end
+    return token
+end
+
+-- True when `field` is still held under `token` (expired or not)
+local function owns(field, token)
+    return tonumber(redis.call('HGET', KEYS[1], field .. 'o')) == token
+end
+
+local op = ARGV[1]
+local ts = now()
+
+-- xfetch: ARGV[2] beta * -ln(rand), ARGV[3] lease (ms), ARGV[4] default delta (ms)
+if op == 'xfetch' then
+    local fields = redis.call('HMGET', KEYS[1], 'v', 'd', 'h')
+    local value, delta = fields[1], fields[2]
+    local leaseMs = tonumber(ARGV[3])
+    if not value then
+        local token = lease('lk', ts, leaseMs)
+        return { false, -2, false, decision(token), 0, token, false }
+    end
+
+    local pttl = redis.call('PTTL', KEYS[1])
+    local token = 0
+    local deltaMs = tonumber(delta) or tonumber(ARGV[4])
+    if pttl > 0 and deltaMs * tonumber(ARGV[2]) >= pttl then
+        token = lease('lk', ts, leaseMs)
+    end
+    return { value, pttl, delta, decision(token), 0, token, fields[3] }
+end
+
+-- swr: ARGV[2] lease (ms). Cold misses race for `lk`, stale hits for `rf`.
+if op == 'swr' then
+    local fields = redis.call('HMGET', KEYS[1], 'v', 'soft', 'd', 'h')
+    local value, soft, delta = fields[1], fields[2], fields[3]
+    local leaseMs = tonumber(ARGV[2])
+    if not value then
+        local token = lease('lk', ts, leaseMs)
+        return { false, -2, false, decision(token), 0, token, false }
+    end
+
+    local softRemaining = (tonumber(soft) or 0) - ts
+    local token = 0
+    if softRemaining <= 0 then
+        softRemaining = 0
+        token = lease('rf', ts, leaseMs)
+    end
+    return { value, redis.call('PTTL', KEYS[1]), delta, decision(token), softRemaining, token, fields[4] }
+end
+
+-- ahead: ARGV[2] lead (ms), ARGV[3] lease (ms). Refresh-ahead for hot keys: takes the lease
+-- when the entry expires within the lead — `rf` before an SWR soft expiry, `lk` before an
+-- XFetch hard expiry. Missing entries are left to the next lookup. The value is not returned.
+if op == 'ahead' then
+    local fields = redis.call('HMGET', KEYS[1], 'v', 'soft', 'd', 'h')
+    if not fields[1] then
+        return { false, -2, false, 0, 0, 0, false }
+    end
+    local leadMs, leaseMs = tonumber(ARGV[2]), tonumber(ARGV[3])
+    local pttl = redis.call('PTTL', KEYS[1])
+    local soft = tonumber(fields[2]) or 0
+    local softRemaining = 0
+    local token = 0
+    if soft > 0 then
+        softRemaining = math.max(0, soft - ts)
+        if softRemaining <= leadMs then
+            token = lease('rf', ts, leaseMs)
+        end
+    elseif pttl > 0 and pttl <= leadMs then
+        token = lease('lk', ts, leaseMs)
+    end
+    return { false, pttl, fields[3], decision(token), softRemaining, token, fields[4] }
+end
+
+-- peek: no ARGV. A plain read that never takes a lease, for adopting an entry written under
+-- another schema version. softRemainingMs is -1 for entries without a soft expiry.
+if op == 'peek' then
+    local fields = redis.call('HMGET', KEYS[1], 'v', 'soft', 'd', 'h')
+    if not fields[1] then
+        return { false, -2, false, 0, 0, 0, false }
+    end
+    local soft = tonumber(fields[2]) or 0
+    local softRemaining = -1
+    if soft > 0 then
+        softRemaining = math.max(0, soft - ts)
+    end
+    return { fields[1], redis.call('PTTL', KEYS[1]), fields[3], 0, softRemaining, 0, fields[4] }
+end
+
+-- lock: ARGV[2] lease field, ARGV[3] lease (ms). Replies the fencing token or -1.
+if op == 'lock' then
+    return lease(ARGV[2], ts, tonumber(ARGV[3]))
+end
+
+-- renew: ARGV[2] lease field, ARGV[3] token, ARGV[4] lease (ms).
+-- Replies 1 when extended, 0 when the lease was taken over or the entry is gone.
+if op == 'renew' then
+    if redis.call('TYPE', KEYS[1])['ok'] ~= 'hash' or not owns(ARGV[2], tonumber(ARGV[3])) then
+        return 0
+    end
+    local leaseMs = tonumber(ARGV[4])
+    redis.call('HSET', KEYS[1], ARGV[2], ts + leaseMs)
+    if redis.call('HEXISTS', KEYS[1], 'v') == 0 then
+        redis.call('PEXPIRE', KEYS[1], leaseMs)
+    end
+    return 1
+end
+
+-- Admits a write under `field` held with `token`: false when a newer token already wrote
+-- the entry or another caller holds a live lease. Otherwise releases the caller's own
+-- lease and records its token. Unleased writes ('' field) are always admitted.
+local function admit(field, token)
+    if field == '' then
+        return true
+    end
+    local written = tonumber(redis.call('HGET', KEYS[1], 'wt'))
+    if written and written > token then
+        return false
+    end
+    local heldUntil = tonumber(redis.call('HGET', KEYS[1], field))
+    if heldUntil and heldUntil > ts and not owns(field, token) then
+        return false
+    end
+    if owns(field, token) then
+        redis.call('HDEL', KEYS[1], field, field .. 'o')
+    end
+    redis.call('HSET', KEYS[1], 'wt', token)
+    return true
+end
+
+-- Next TTL multiplier from ARGV[9..12] (min, max, growth, shrink; '' = adaptive TTLs off)
+local function adapt(unchanged)
+    if ARGV[9] == '' then
+        return 1
+    end
+    local m = tonumber(redis.call('HGET', KEYS[1], 'm')) or 1
+    if unchanged then
+        m = m * tonumber(ARGV[11])
+    else
+        m = m * tonumber(ARGV[12])
+    end
+    return math.min(tonumber(ARGV[10]), math.max(tonumber(ARGV[9]), m))
+end
+
+-- Stores the bookkeeping of a refresh with both TTLs scaled by m; replies m in thousandths
+local function stamp(m)
+    local soft = 0
+    if tonumber(ARGV[4]) > 0 then
+        soft = ts + math.floor(tonumber(ARGV[4]) * m)
+    end
+    redis.call('HSET', KEYS[1], 'ver', VERSION, 'at', ts, 'soft', soft, 'd', ARGV[5], 'm', m)
+    redis.call('PEXPIRE', KEYS[1], math.floor(tonumber(ARGV[3]) * m))
+    return math.floor(m * 1000)
+end
+
+-- write: ARGV[2] value, ARGV[3] hard TTL (ms), ARGV[4] soft TTL (ms, 0 = none),
+--        ARGV[5] recompute time (ms), ARGV[6] lease field held by the writer ('' = none),
+--        ARGV[7] the writer's fencing token (ignored without a lease field),
+--        ARGV[8] value fingerprint ('' = none), ARGV[9..12] adaptive TTL bounds.
+-- Replies the applied TTL multiplier in thousandths, or 0 when fenced off.
+if op == 'write' then
+    if redis.call('TYPE', KEYS[1])['ok'] ~= 'hash' then
+        redis.call('DEL', KEYS[1])
+    end
+    if not admit(ARGV[6], tonumber(ARGV[7])) then
+        return 0
+    end
+
+    local fields = redis.call('HMGET', KEYS[1], 'v', 'h')
+    local m = 1
+    if fields[1] then
+        m = adapt(ARGV[8] ~= '' and fields[2] == ARGV[8])
+    end
+    redis.call('HSET', KEYS[1], 'v', ARGV[2], 'h', ARGV[8])
+    return stamp(m)
+end
+
+-- touch: same ARGV as write with ARGV[2] unused. Refreshes an entry whose stored
+-- fingerprint equals ARGV[8] without rewriting its value. Replies the TTL multiplier in
+-- thousandths, 0 when fenced off, or -1 when the caller has to send the full write.
+if op == 'touch' then
+    if redis.call('TYPE', KEYS[1])['ok'] ~= 'hash' then
+        return -1
+    end
+    local fields = redis.call('HMGET', KEYS[1], 'v', 'h')
+    if not fields[1] or ARGV[8] == '' or fields[2] ~= ARGV[8] then
+        return -1
+    end
+    if not admit(ARGV[6], tonumber(ARGV[7])) then
+        return 0
+    end
+    return stamp(adapt(true))
+end
+
+-- release: ARGV[2] lease field, ARGV[3] token. Only the holder's own lease is removed;
+-- a value-less entry still expires with its lease TTL.
+if op == 'release' then
+    if redis.call('TYPE', KEYS[1])['ok'] == 'hash' and owns(ARGV[2], tonumber(ARGV[3])) then
+        redis.call('HDEL', KEYS[1], ARGV[2], ARGV[2] .. 'o')
+    end
+    return 1
+end
+
+-- has: 1 when the entry holds a value
+if op == 'has' then
+    if redis.call('TYPE', KEYS[1])['ok'] == 'hash' then
+        return redis.call('HEXISTS', KEYS[1], 'v')
+    end
+    return 0
+end
+
+return redis.error_reply('unknown cache envelope operation: ' .. tostring(op))
@@ -0,0 +1,54 @@
+package com.riyura.backend.common.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Minimal harness behind the {@code benchmark}-tagged tests: runs an
+ * operation on the calling thread for a warm-up round, then times each
+ * measured call and counts the bytes the thread allocated over the measured
+ * round. Good enough to compare two code paths on one machine; the numbers
+ * are printed, never asserted. Run with {@code mvn test -Pbenchmark}.
+ */
+public final class Bench {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Bench() {
+    }
+
+    public static Result run(String name, int warmup, int iterations, Runnable operation) {
+        for (int i = 0; i < warmup; i++)
+            operation.run();
+
+        long[] nanos = new long[iterations];
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            operation.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        Arrays.sort(nanos);
+        Result result = new Result(name, percentile(nanos, 0.50), percentile(nanos, 0.99), allocated / iterations);
+        System.out.println(result);
+        return result;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    // Latencies in nanoseconds; allocation is the calling thread's bytes per call
+    public record Result(String name, long p50Nanos, long p99Nanos, long bytesPerOp) {
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-56s p50 %9.1f us  p99 %9.1f us  %,10d B/op", name,
+                    p50Nanos / 1_000.0, p99Nanos / 1_000.0, bytesPerOp);
+        }
+    }
+}
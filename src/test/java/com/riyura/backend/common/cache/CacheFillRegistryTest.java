@@ -0,0 +1,64 @@
+package com.riyura.backend.common.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheFillRegistryTest {
+
+    private final CacheFillRegistry registry = new CacheFillRegistry();
+
+    @Test
+    void waiterThatTimesOutDoesNotDetachTheOthers() {
+        CompletableFuture<Void> early = registry.register("{movieDetails:1}");
+        CompletableFuture<Void> late = registry.register("{movieDetails:1}");
+        assertThat(late).isSameAs(early);
+
+        // The first waiter's deadline passes
+        registry.leave("{movieDetails:1}", early);
+        assertThat(registry.pendingKeys()).isEqualTo(1);
+
+        registry.signal("{movieDetails:1}");
+        assertThat(late).isCompleted();
+        assertThat(registry.pendingKeys()).isZero();
+    }
+
+    @Test
+    void entryIsDroppedWhenTheLastWaiterLeaves() {
+        CompletableFuture<Void> first = registry.register("{search:dune}");
+        CompletableFuture<Void> second = registry.register("{search:dune}");
+
+        registry.leave("{search:dune}", first);
+        registry.leave("{search:dune}", second);
+
+        assertThat(registry.pendingKeys()).isZero();
+        assertThat(registry.register("{search:dune}")).isNotSameAs(first);
+    }
+
+    @Test
+    void leavingAnAlreadySignalledFutureLeavesTheNextRoundAlone() {
+        CompletableFuture<Void> previous = registry.register("{tvDetails:7}");
+        registry.signal("{tvDetails:7}");
+        CompletableFuture<Void> next = registry.register("{tvDetails:7}");
+
+        registry.leave("{tvDetails:7}", previous);
+
+        assertThat(registry.pendingKeys()).isEqualTo(1);
+        registry.signal("{tvDetails:7}");
+        assertThat(next).isCompleted();
+    }
+
+    @Test
+    void localLoadEndWakesWaiters() {
+        registry.beginLocalLoad("{banner}");
+        CompletableFuture<Void> waiting = registry.register("{banner}");
+        assertThat(registry.isLoadingLocally("{banner}")).isTrue();
+
+        registry.endLocalLoad("{banner}");
+
+        assertThat(waiting).isCompleted();
+        assertThat(registry.isLoadingLocally("{banner}")).isFalse();
+    }
+}
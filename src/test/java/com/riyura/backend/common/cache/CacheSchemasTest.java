@@ -0,0 +1,87 @@
+package com.riyura.backend.common.cache;
+
+import com.riyura.backend.common.config.CacheProperties;
+import com.riyura.backend.common.port.CacheSchemaPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CacheSchemasTest {
+
+    private final Map<String, String> registry = new HashMap<>();
+    private final String current = CacheSchemas.fingerprint(Movie.class);
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        HashOperations<String, Object, Object> hash = mock(HashOperations.class);
+        when(hash.entries("cache:schemas")).thenAnswer(invocation -> new HashMap<>(registry));
+        doAnswer(invocation -> registry.putIfAbsent(invocation.getArgument(1), invocation.getArgument(2)) == null)
+                .when(hash).putIfAbsent(anyString(), anyString(), anyString());
+        redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForHash()).thenReturn(hash);
+    }
+
+    @Test
+    void previousIsTheNewestVersionSeenBeforeTheCurrentOne() {
+        registry.put("movieDetails@00000001", minutesAgo(30));
+        registry.put("movieDetails@00000002", minutesAgo(20));
+        registry.put("movieDetails@" + current, minutesAgo(10));
+
+        assertThat(schemas().previousVersions()).containsEntry("movieDetails", "00000002");
+    }
+
+    @Test
+    void oldBuildRestartedDuringRolloutIgnoresNewerVersions() {
+        registry.put("movieDetails@00000001", minutesAgo(30));
+        registry.put("movieDetails@" + current, minutesAgo(20));
+        // A newer build went live after ours
+        registry.put("movieDetails@0000000f", minutesAgo(10));
+
+        assertThat(schemas().previousVersions()).containsEntry("movieDetails", "00000001");
+    }
+
+    @Test
+    void onlyNewerVersionsMeansNoDualRead() {
+        registry.put("movieDetails@" + current, minutesAgo(20));
+        registry.put("movieDetails@0000000f", minutesAgo(10));
+
+        assertThat(schemas().previousVersions()).doesNotContainKey("movieDetails");
+        assertThat(schemas().previousVersion("movieDetails:42@" + current)).isNull();
+    }
+
+    @Test
+    void firstVersionedBuildAdoptsUnversionedKeys() {
+        CacheSchemas schemas = schemas();
+
+        assertThat(schemas.versioned("movieDetails:42")).isEqualTo("movieDetails:42@" + current);
+        assertThat(schemas.previousVersion("movieDetails:42@" + current)).isEqualTo("movieDetails:42");
+    }
+
+    private static String minutesAgo(int minutes) {
+        return Long.toString(System.currentTimeMillis() - minutes * 60_000L);
+    }
+
+    private CacheSchemas schemas() {
+        CacheSchemaPort source = () -> Map.of("movieDetails", Movie.class);
+        CacheSchemas schemas = new CacheSchemas(List.of(source), redisTemplate,
+                new CacheProperties(null, null, null, null, null, null, null, null, null, null, null, null, null));
+        schemas.register();
+        return schemas;
+    }
+
+    record Movie(long id, String title) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.riyura.backend.common.cache;
+
+import com.riyura.backend.common.bench.Bench;
+import com.riyura.backend.common.config.CacheProperties;
+import com.riyura.backend.common.config.RedisConfig;
+import com.riyura.backend.common.port.CacheStorePort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * XFetch read paths against a real Redis: the single EVALSHA ({@code lua}),
+ * the same script over the async connection ({@code lua-async}) and the
+ * sequential HMGET / PTTL path ({@code multi-call}), once on a plain hit and
+ * once with a recompute due, where multi-call also needs the lease script.
+ * The difference is round trips, which the in-memory store doesn't have, so
+ * this needs {@code -Dbenchmark.redis=host:port} and is skipped without it.
+ */
+@Tag("benchmark")
+class FetchPathBenchmark {
+
+    private static final String KEY = "bench:fetch-path";
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 20_000;
+    // Large enough that delta * factor always exceeds the remaining TTL
+    private static final double RECOMPUTE_DUE = 1e9;
+
+    private LettuceConnectionFactory connectionFactory;
+    private RedisCacheStore store;
+
+    @BeforeEach
+    void setUp() {
+        String redis = System.getProperty("benchmark.redis");
+        assumeTrue(redis != null, "set -Dbenchmark.redis=host:port to run against Redis");
+        String[] hostPort = redis.split(":");
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(hostPort[0], Integer.parseInt(hostPort[1])));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        RedisConfig config = new RedisConfig();
+        CacheProperties properties = new CacheProperties(null, null, null, null, null, null, null, null, null,
+                null, null, null, null);
+        CacheValueCodec codec = config.cacheValueCodec(properties, new SimpleMeterRegistry());
+        RedisTemplate<String, Object> redisTemplate = config.redisTemplate(connectionFactory, codec);
+        StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+        store = new RedisCacheStore(redisTemplate, stringRedisTemplate, null, connectionFactory, properties);
+
+        byte[] value = codec.serialize(List.of("Fight Club", "Se7en", "Zodiac"));
+        store.write(KEY, value, CacheStorePort.fingerprint(value), Duration.ofHours(1), null, 200, null, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (connectionFactory == null)
+            return;
+        store.delete(KEY);
+        store.closeAsyncConnection();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void hit() {
+        Bench.run("hit lua", WARMUP, ITERATIONS, () -> store.xfetch(KEY, 0, 30_000, 200));
+        Bench.run("hit lua-async", WARMUP, ITERATIONS, () -> store.xfetchAsync(KEY, 0, 30_000, 200).join());
+        Bench.run("hit multi-call", WARMUP, ITERATIONS, () -> store.xfetchWithCommands(KEY, 0, 30_000, 200));
+    }
+
+    @Test
+    void recomputeDue() {
+        // The first call takes the lease and every later one finds it contended, as under a stampede
+        Bench.run("recompute due lua", WARMUP, ITERATIONS,
+                () -> store.xfetch(KEY, RECOMPUTE_DUE, 30_000, 200));
+        Bench.run("recompute due lua-async", WARMUP, ITERATIONS,
+                () -> store.xfetchAsync(KEY, RECOMPUTE_DUE, 30_000, 200).join());
+        Bench.run("recompute due multi-call", WARMUP, ITERATIONS,
+                () -> store.xfetchWithCommands(KEY, RECOMPUTE_DUE, 30_000, 200));
+    }
+}
@@ -0,0 +1,260 @@
+package com.riyura.backend.common.config;
+
+import com.riyura.backend.common.cache.CacheEventBus;
+import com.riyura.backend.common.cache.CacheFillRegistry;
+import com.riyura.backend.common.cache.CacheGuardMetrics;
+import com.riyura.backend.common.cache.CacheSchemas;
+import com.riyura.backend.common.cache.HotKeyTracker;
+import com.riyura.backend.common.cache.InMemoryCacheStore;
+import com.riyura.backend.common.cache.LastKnownGoodCache;
+import com.riyura.backend.common.cache.LeaseRenewer;
+import com.riyura.backend.common.cache.NearCache;
+import com.riyura.backend.common.cache.trace.CacheTraceRecorder;
+import com.riyura.backend.common.port.CacheStorePort;
+import com.riyura.backend.common.ratelimit.OutboundPriority;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class CacheStampedeGuardTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+    private static final int CALLERS = 10;
+
+    private final InMemoryCacheStore store = new InMemoryCacheStore();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RedisSerializer<Object> serializer;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        store.close();
+    }
+
+    @Test
+    void coldMissRunsTheLoaderOnceForConcurrentCallers() throws Exception {
+        CacheStampedeGuard guard = guard(CacheProperties.FetchMode.LUA);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++)
+            results.add(executor.submit(() -> guard.xfetch("movieDetails:550", TTL, 1.0, () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "Fight Club";
+            })));
+        // Let every caller reach the guard before the leader's load finishes
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (misses() < CALLERS && System.nanoTime() < deadline)
+            Thread.sleep(5);
+        release.countDown();
+
+        for (Future<String> result : results)
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("Fight Club");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void writeFencedOffByANewerLeaseHolderIsRefused() {
+        CacheStampedeGuard guard = guard(CacheProperties.FetchMode.LUA);
+
+        String served = guard.xfetch("movieDetails:550", TTL, 1.0, () -> {
+            // Our lease lapses mid-load and another node recomputes under a newer token
+            store.delete("movieDetails:550");
+            long token = store.acquire("movieDetails:550", CacheStorePort.Lease.RECOMPUTE, 30_000);
+            byte[] newer = serializer.serialize("Fight Club (restored)");
+            store.write("movieDetails:550", newer, CacheStorePort.fingerprint(newer), TTL, null, 0,
+                    new CacheStorePort.LeaseToken(CacheStorePort.Lease.RECOMPUTE, token), null);
+            return "Fight Club";
+        });
+
+        // The caller still gets what it loaded, but the entry keeps the newer write
+        assertThat(served).isEqualTo("Fight Club");
+        assertThat(serializer.deserialize(store.peek("movieDetails:550").value())).isEqualTo("Fight Club (restored)");
+        assertThat(meterRegistry.get("cache.guard.lease.fenced").counter().count()).isEqualTo(1);
+        assertThat(guard.xfetch("movieDetails:550", TTL, 1.0, () -> "unused")).isEqualTo("Fight Club (restored)");
+    }
+
+    @Test
+    void staleEntryIsServedWhileItRefreshesInTheBackground() throws Exception {
+        CacheStampedeGuard guard = guard(CacheProperties.FetchMode.LUA);
+        byte[] stale = serializer.serialize("old banners");
+        store.write("banner", stale, CacheStorePort.fingerprint(stale), Duration.ofHours(1), Duration.ofMillis(1), 0,
+                null, null);
+        Thread.sleep(5);
+        CountDownLatch refreshed = new CountDownLatch(1);
+
+        String served = guard.staleWhileRevalidate("banner", Duration.ofHours(8), Duration.ofDays(1), () -> {
+            refreshed.countDown();
+            return "new banners";
+        });
+
+        assertThat(served).isEqualTo("old banners");
+        assertThat(refreshed.await(5, TimeUnit.SECONDS)).isTrue();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!"new banners".equals(serializer.deserialize(store.peek("banner").value()))
+                && System.nanoTime() < deadline)
+            Thread.sleep(5);
+        assertThat(guard.staleWhileRevalidate("banner", Duration.ofHours(8), Duration.ofDays(1), () -> "unused"))
+                .isEqualTo("new banners");
+    }
+
+    @Test
+    void openBreakerServesTheLastKnownGoodList() {
+        CacheStampedeGuard guard = guard(CacheProperties.FetchMode.LUA);
+        List<String> previous = new ArrayList<>(List.of("Fight Club", "Se7en"));
+        store.saveLastKnownGood("moviesTrending:20", serializer.serialize(previous), TTL);
+        CircuitBreaker breaker = CircuitBreaker.ofDefaults("tmdb");
+        breaker.transitionToOpenState();
+
+        // Shaped like the list services: a failed fetch is logged and comes back as null
+        List<String> served = guard.xfetch("moviesTrending:20", TTL, 1.0, () -> {
+            try {
+                return breaker.executeSupplier(() -> List.of("unused"));
+            } catch (CallNotPermittedException e) {
+                return null;
+            }
+        });
+
+        assertThat(served).isEqualTo(previous);
+        assertThat(store.peek("moviesTrending:20").value()).isNull();
+        assertThat(serializer.deserialize(store.loadLastKnownGood("moviesTrending:20"))).isEqualTo(previous);
+    }
+
+    @Test
+    void onlyListedNamespacesKeepALastKnownGoodCopy() {
+        CacheStampedeGuard guard = guard(CacheProperties.FetchMode.LUA);
+
+        guard.xfetch("moviesTrending:20", TTL, 1.0, () -> new ArrayList<>(List.of("Fight Club")));
+        guard.xfetch("movieDetails:550", TTL, 1.0, () -> "Fight Club");
+
+        assertThat(store.loadLastKnownGood("moviesTrending:20")).isNotNull();
+        assertThat(store.loadLastKnownGood("movieDetails:550")).isNull();
+    }
+
+    @Test
+    void lastKnownGoodRetryWaitsForTheRecomputeLease() throws Exception {
+        CacheStampedeGuard guard = guard(new CacheProperties(CacheProperties.FetchMode.LUA,
+                CacheProperties.Store.IN_MEMORY, null, null, null, null,
+                new CacheProperties.LastKnownGood(true, null, Duration.ofMillis(100), Duration.ofMillis(100), null),
+                null, null, null, null, null, null));
+        List<String> previous = new ArrayList<>(List.of("Fight Club", "Se7en"));
+        store.saveLastKnownGood("moviesTrending:20", serializer.serialize(previous), TTL);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<String> served = guard.xfetch("moviesTrending:20", TTL, 1.0,
+                () -> loads.incrementAndGet() == 1 ? null : new ArrayList<>(List.of("Zodiac")));
+        // Another node starts recomputing before the first retry runs
+        long token = store.acquire("moviesTrending:20", CacheStorePort.Lease.RECOMPUTE, 30_000);
+        Thread.sleep(400);
+
+        assertThat(served).isEqualTo(previous);
+        assertThat(loads).hasValue(1);
+        assertThat(store.peek("moviesTrending:20").value()).isNull();
+
+        store.release("moviesTrending:20", new CacheStorePort.LeaseToken(CacheStorePort.Lease.RECOMPUTE, token));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (store.peek("moviesTrending:20").value() == null && System.nanoTime() < deadline)
+            Thread.sleep(5);
+        assertThat(serializer.deserialize(store.peek("moviesTrending:20").value())).isEqualTo(List.of("Zodiac"));
+    }
+
+    @Test
+    void asyncLoaderRunsInTheCallersLane() throws Exception {
+        CacheStampedeGuard guard = guard(CacheProperties.FetchMode.LUA);
+        AtomicReference<OutboundPriority> lane = new AtomicReference<>();
+
+        String value = OutboundPriority.background(() -> guard.xfetchAsync("banner:1", TTL, 1.0, () -> {
+            lane.set(OutboundPriority.current());
+            return "loaded";
+        })).get(5, TimeUnit.SECONDS);
+
+        assertThat(value).isEqualTo("loaded");
+        assertThat(lane).hasValue(OutboundPriority.BACKGROUND);
+    }
+
+    @Test
+    void asyncLookupIsTimedUnderTheLuaAsyncPath() throws Exception {
+        CacheStampedeGuard guard = guard(CacheProperties.FetchMode.LUA);
+
+        guard.xfetchAsync("search:dune", TTL, 1.0, () -> "dune").get(5, TimeUnit.SECONDS);
+
+        assertThat(fetches("lua-async")).isEqualTo(1);
+        assertThat(fetches("lua")).isZero();
+        assertThat(fetches("multi-call")).isZero();
+    }
+
+    @Test
+    void asyncLookupInMultiCallModeIsTimedUnderMultiCall() throws Exception {
+        CacheStampedeGuard guard = guard(CacheProperties.FetchMode.MULTI_CALL);
+
+        guard.xfetchAsync("search:dune", TTL, 1.0, () -> "dune").get(5, TimeUnit.SECONDS);
+
+        assertThat(fetches("multi-call")).isEqualTo(1);
+        assertThat(fetches("lua-async")).isZero();
+        assertThat(fetches("lua")).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The guard registers its meters on the first lookup of a namespace
+    private double misses() {
+        Counter misses = meterRegistry.find("cache.guard.misses").counter();
+        return misses != null ? misses.count() : 0;
+    }
+
+    private long fetches(String path) {
+        return meterRegistry.get("cache.guard.fetch").tag("path", path).timer().count();
+    }
+
+    private CacheStampedeGuard guard(CacheProperties.FetchMode fetchMode) {
+        return guard(new CacheProperties(fetchMode, CacheProperties.Store.IN_MEMORY, null, null,
+                null, null, null, null, null, null, null, null, null));
+    }
+
+    @SuppressWarnings("unchecked")
+    private CacheStampedeGuard guard(CacheProperties properties) {
+        serializer = RedisConfig.valueCodec(properties.codec(), new GenericJackson2JsonRedisSerializer(),
+                meterRegistry);
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setValueSerializer(serializer);
+
+        NearCache nearCache = new NearCache(properties, meterRegistry);
+        CacheFillRegistry fillRegistry = new CacheFillRegistry();
+        return new CacheStampedeGuard(store, redisTemplate, executor, nearCache,
+                new CacheEventBus(store, nearCache, fillRegistry), fillRegistry, new CacheGuardMetrics(meterRegistry),
+                new LastKnownGoodCache(store, executor, properties), new LeaseRenewer(store, executor),
+                new HotKeyTracker(properties, executor),
+                new CacheSchemas(List.of(), mock(StringRedisTemplate.class), properties),
+                new CacheTraceRecorder(properties, meterRegistry), properties, meterRegistry);
+    }
+}
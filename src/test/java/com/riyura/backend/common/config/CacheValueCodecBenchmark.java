@@ -0,0 +1,71 @@
+package com.riyura.backend.common.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riyura.backend.common.bench.Bench;
+import com.riyura.backend.common.cache.CacheValueCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Stored size and encode / decode time of each cache value encoding on the
+ * API payloads under {@code response/}: the typed JSON written before the
+ * codec ({@code legacy}), headed JSON, Smile, and Smile with the default
+ * 1 KB Deflate threshold. The fixtures are decoded into maps and lists, so
+ * every object carries a {@code @class} id just as a cached DTO does.
+ */
+@Tag("benchmark")
+class CacheValueCodecBenchmark {
+
+    private static final int WARMUP = 1_000;
+    private static final int ITERATIONS = 4_000;
+
+    @Test
+    void encodings() throws IOException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RedisSerializer<Object> legacy = new GenericJackson2JsonRedisSerializer(
+                RedisConfig.typedMapper(new JsonFactory()));
+        Map<String, RedisSerializer<Object>> encodings = new LinkedHashMap<>();
+        encodings.put("legacy", legacy);
+        encodings.put("json", codec(CacheValueCodec.Format.JSON, DataSize.ofBytes(0), legacy, meterRegistry));
+        encodings.put("smile", codec(CacheValueCodec.Format.SMILE, DataSize.ofBytes(0), legacy, meterRegistry));
+        encodings.put("smile+deflate",
+                codec(CacheValueCodec.Format.SMILE, DataSize.ofKilobytes(1), legacy, meterRegistry));
+
+        ObjectMapper plain = new ObjectMapper();
+        for (Path fixture : fixtures()) {
+            Object value = plain.readValue(fixture.toFile(), Object.class);
+            String name = Path.of("response").relativize(fixture).toString();
+            for (Map.Entry<String, RedisSerializer<Object>> encoding : encodings.entrySet()) {
+                RedisSerializer<Object> serializer = encoding.getValue();
+                byte[] stored = serializer.serialize(value);
+                String label = name + " " + encoding.getKey() + " (" + stored.length + " B)";
+                Bench.run(label + " encode", WARMUP, ITERATIONS, () -> serializer.serialize(value));
+                Bench.run(label + " decode", WARMUP, ITERATIONS, () -> serializer.deserialize(stored));
+            }
+        }
+    }
+
+    private static CacheValueCodec codec(CacheValueCodec.Format format, DataSize compressThreshold,
+            RedisSerializer<Object> legacy, SimpleMeterRegistry meterRegistry) {
+        return RedisConfig.valueCodec(new CacheProperties.Codec(format, compressThreshold), legacy, meterRegistry);
+    }
+
+    private static List<Path> fixtures() throws IOException {
+        try (Stream<Path> files = Files.walk(Path.of("response"))) {
+            return files.filter(file -> file.toString().endsWith(".json")).sorted().toList();
+        }
+    }
+}
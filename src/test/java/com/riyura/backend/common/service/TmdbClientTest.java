@@ -0,0 +1,149 @@
+package com.riyura.backend.common.service;
+
+import com.riyura.backend.common.ratelimit.TmdbRateGovernor;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TmdbClientTest {
+
+    private static final int CALLERS = 10;
+
+    private final AtomicInteger upstreamHits = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile int status = 200;
+
+    private HttpServer server;
+    private HttpClient httpClient;
+    private CircuitBreaker circuitBreaker;
+    private SimpleMeterRegistry meterRegistry;
+    private TmdbClient client;
+    private String url;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/3/movie/550", exchange -> {
+            upstreamHits.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"id\":550,\"title\":\"Fight Club\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/3/movie/550?language=en-US&api_key=k";
+
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        TmdbRateGovernor governor = mock(TmdbRateGovernor.class);
+        when(governor.acquireAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.ofDefaults();
+        circuitBreaker = registry.circuitBreaker("tmdb");
+        meterRegistry = new SimpleMeterRegistry();
+        client = new TmdbClient(new RestTemplate(new JdkClientHttpRequestFactory(httpClient)), httpClient, governor,
+                JsonMapper.builder().build(), registry, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+        httpClient.close();
+    }
+
+    @Test
+    void concurrentIdenticalGetsShareOneUpstreamCall() throws Exception {
+        List<Future<Movie>> results = callConcurrently();
+
+        for (Future<Movie> result : results)
+            assertThat(result.get(5, TimeUnit.SECONDS).title()).isEqualTo("Fight Club");
+        assertThat(upstreamHits).hasValue(1);
+        assertThat(meterRegistry.get("tmdb.client.requests").tag("coalesced", "true").counter().count())
+                .isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void failureSharedByFollowersIsRecordedOnceByTheBreaker() throws Exception {
+        status = 502;
+        List<Future<Movie>> results = callConcurrently();
+
+        for (Future<Movie> result : results)
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(
+                    ResponseStatusException.class);
+        assertThat(upstreamHits).hasValue(1);
+        assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void asyncFollowersAreNotRecordedByTheBreaker() {
+        status = 502;
+        List<CompletableFuture<Movie>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++)
+            results.add(client.fetchAsync(url, Movie.class));
+        release.countDown();
+
+        for (CompletableFuture<Movie> result : results)
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(
+                    ResponseStatusException.class);
+        assertThat(upstreamHits).hasValue(1);
+        assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void coalescingKeyIgnoresApiKeyAndParameterOrder() {
+        assertThat(TmdbClient.coalescingKey("https://t/3/tv/1?language=en-US&api_key=a&page=2"))
+                .isEqualTo(TmdbClient.coalescingKey("https://t/3/tv/1?page=2&api_key=b&language=en-US"))
+                .isEqualTo("https://t/3/tv/1?language=en-US&page=2");
+    }
+
+    // Starts CALLERS blocking fetches, waits until the leader is upstream and the rest have joined it, then lets it answer
+    private List<Future<Movie>> callConcurrently() throws Exception {
+        ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<Movie>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++)
+            results.add(callers.submit(() -> client.fetchWithRetry(url, Movie.class)));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("tmdb.client.requests").tag("coalesced", "true").counter().count() < CALLERS - 1
+                && System.nanoTime() < deadline)
+            Thread.sleep(5);
+        release.countDown();
+        callers.shutdown();
+        return results;
+    }
+
+    record Movie(long id, String title) {
+    }
+}
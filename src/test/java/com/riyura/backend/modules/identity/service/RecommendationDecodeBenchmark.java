@@ -0,0 +1,118 @@
+package com.riyura.backend.modules.identity.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riyura.backend.common.bench.Bench;
+import com.riyura.backend.common.model.MediaType;
+import com.riyura.backend.modules.identity.service.RecommendationService.CandidateItem;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import tools.jackson.core.JsonParser;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Decoding a 20-result {@code /recommendations} page into candidates: the
+ * former path, which read the body into a {@code String} and walked a
+ * {@code JsonNode} tree of it, against the streaming reader that now runs on
+ * the response bytes. The page is generated with TMDB's result fields and
+ * typical lengths, so the run is the same on every machine. The String copy
+ * stands in for RestTemplate's string conversion, which also buffered the
+ * stream, so the former path's real cost was somewhat higher.
+ */
+@Tag("benchmark")
+class RecommendationDecodeBenchmark {
+
+    private static final int RESULTS = 20;
+    private static final int WARMUP = 5_000;
+    private static final int ITERATIONS = 20_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    @Test
+    void treeVersusStream() throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(page());
+        assertThat(stream(body)).isEqualTo(tree(body)).hasSize(RESULTS);
+
+        System.out.println("/recommendations page: " + body.length + " B");
+        Bench.run("tree (String + readTree)", WARMUP, ITERATIONS, () -> tree(body));
+        Bench.run("stream (TmdbJsonReader)", WARMUP, ITERATIONS, () -> stream(body));
+    }
+
+    private List<CandidateItem> stream(byte[] body) {
+        try (JsonParser parser = jsonMapper.createParser(body)) {
+            parser.nextToken();
+            return RecommendationService.readCandidates(parser, MediaType.Movie);
+        }
+    }
+
+    // The decode RecommendationService ran before it streamed
+    private List<CandidateItem> tree(byte[] body) {
+        try {
+            String raw = new String(body, StandardCharsets.UTF_8);
+            List<CandidateItem> items = new ArrayList<>();
+            for (JsonNode node : objectMapper.readTree(raw).path("results")) {
+                CandidateItem item = treeCandidate(node);
+                if (item != null)
+                    items.add(item);
+            }
+            return items;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static CandidateItem treeCandidate(JsonNode node) {
+        long id = node.path("id").asLong(0);
+        if (id == 0)
+            return null;
+        String title = node.has("title") ? node.path("title").asText(null) : node.path("name").asText(null);
+        if (title == null || title.isBlank())
+            return null;
+        List<String> genreIds = new ArrayList<>();
+        node.path("genre_ids").forEach(g -> genreIds.add(g.asText()));
+        String releaseDate = node.has("release_date") ? node.path("release_date").asText(null)
+                : node.path("first_air_date").asText(null);
+        return new CandidateItem(id, title, MediaType.Movie, LocalDate.parse(releaseDate),
+                String.join(",", genreIds), node.path("overview").asText(""), node.path("poster_path").asText(null));
+    }
+
+    private static Map<String, Object> page() {
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int i = 1; i <= RESULTS; i++) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("backdrop_path", "/kXfqcdQKsToO0OUXHcrrNCHDBzO" + i + ".jpg");
+            result.put("id", 1_000 + i);
+            result.put("title", "Recommended Movie " + i);
+            result.put("original_title", "Recommended Movie " + i);
+            result.put("overview", ("A seasoned crew is pulled back together for one last job that goes wrong in "
+                    + "every way it can, forcing old rivals to trust each other as the city closes in. ").repeat(2));
+            result.put("poster_path", "/q6y0Go1tsGEsmtFryDOJo3dEmqu" + i + ".jpg");
+            result.put("media_type", "movie");
+            result.put("adult", false);
+            result.put("original_language", "en");
+            result.put("genre_ids", List.of(28, 80, 53));
+            result.put("popularity", 84.512 + i);
+            result.put("release_date", "2019-05-" + String.format("%02d", i));
+            result.put("video", false);
+            result.put("vote_average", 7.2);
+            result.put("vote_count", 4_210 + i);
+            results.add(result);
+        }
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("page", 1);
+        page.put("results", results);
+        page.put("total_pages", 2);
+        page.put("total_results", 40);
+        return page;
+    }
+}